@@ -0,0 +1,95 @@
+package olkalouwaithakaautospares.co.ke.win.models;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a list of brand ids that the server sends either as a JSON-encoded string ("[1,2]")
+ * or as a plain JSON array ([1,2]) straight into an int[], so it is decoded once per catalog load.
+ * Entries that are not integers are skipped; null or a missing list gives an empty array.
+ */
+public class BrandIdsDeserializer extends JsonDeserializer<int[]> {
+
+    public static final int[] NONE = new int[0];
+
+    @Override
+    public int[] deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_STRING) {
+            return parse(p.getText());
+        }
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return NONE;
+        }
+
+        int[] ids = new int[4];
+        int n = 0;
+        for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY && t != null; t = p.nextToken()) {
+            Integer id = null;
+            if (t == JsonToken.VALUE_NUMBER_INT) {
+                id = p.getIntValue();
+            } else if (t == JsonToken.VALUE_STRING) {
+                id = toInt(p.getText().trim());
+            } else {
+                p.skipChildren();
+            }
+            if (id == null) continue;
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n++] = id;
+        }
+        return n == 0 ? NONE : Arrays.copyOf(ids, n);
+    }
+
+    @Override
+    public int[] getNullValue(DeserializationContext ctxt) {
+        return NONE;
+    }
+
+    /**
+     * Ids from JSON text such as "[1, 2]" or "[\"1\",\"2\"]"; also accepts a bare "1,2".
+     */
+    public static int[] parse(String text) {
+        if (text == null || text.isEmpty()) return NONE;
+
+        int[] ids = new int[4];
+        int n = 0;
+        int i = 0;
+        int len = text.length();
+        while (i < len) {
+            char c = text.charAt(i);
+            boolean negative = c == '-' && i + 1 < len && Character.isDigit(text.charAt(i + 1));
+            if (!negative && !Character.isDigit(c)) {
+                i++;
+                continue;
+            }
+            int start = negative ? ++i : i;
+            long value = 0;
+            while (i < len && Character.isDigit(text.charAt(i))) {
+                if (value <= Integer.MAX_VALUE) value = value * 10 + (text.charAt(i) - '0');
+                i++;
+            }
+            if (i < len && text.charAt(i) == '.') {
+                // Not an integer id; skip the rest of the number
+                while (i < len && (Character.isDigit(text.charAt(i)) || text.charAt(i) == '.')) i++;
+                continue;
+            }
+            if (i == start || value > Integer.MAX_VALUE) continue;
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n++] = (int) (negative ? -value : value);
+        }
+        return n == 0 ? NONE : Arrays.copyOf(ids, n);
+    }
+
+    private static Integer toInt(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
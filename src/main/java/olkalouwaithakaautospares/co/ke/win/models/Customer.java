@@ -0,0 +1,18 @@
+package olkalouwaithakaautospares.co.ke.win.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Customer as returned by /api/secure/customers.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Customer(
+        int id,
+        String name,
+        String phone,
+        String email,
+        String createdAt,
+        @JsonProperty("isActive") Boolean isActive
+) {
+}
@@ -0,0 +1,76 @@
+package olkalouwaithakaautospares.co.ke.win.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Product as returned by /api/secure/products.
+ * Numeric fields default to 0 when the server omits them.
+ * Compatible brand ids are decoded once into an int[] (never null; do not modify it).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Product(
+        int id,
+        Integer categoryId,
+        String sku,
+        String name,
+        String description,
+        double minimumSellingPrice,
+        int reorderLevel,
+        @JsonProperty("isActive") Boolean isActive,
+        @JsonDeserialize(using = BrandIdsDeserializer.class) int[] compatibleBrandIds
+) {
+    public Product {
+        if (compatibleBrandIds == null) compatibleBrandIds = BrandIdsDeserializer.NONE;
+    }
+
+    public String displayName() {
+        return name != null ? name : "Unknown Product";
+    }
+
+    public boolean active() {
+        return isActive == null || isActive;
+    }
+
+    public boolean isCompatibleWith(int brandId) {
+        for (int id : compatibleBrandIds) {
+            if (id == brandId) return true;
+        }
+        return false;
+    }
+
+    // Value equality for the brand ids too, so an unchanged product from a reload still equals the old one
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Product)) return false;
+        Product other = (Product) o;
+        return id == other.id
+                && Double.compare(minimumSellingPrice, other.minimumSellingPrice) == 0
+                && reorderLevel == other.reorderLevel
+                && Objects.equals(categoryId, other.categoryId)
+                && Objects.equals(sku, other.sku)
+                && Objects.equals(name, other.name)
+                && Objects.equals(description, other.description)
+                && Objects.equals(isActive, other.isActive)
+                && Arrays.equals(compatibleBrandIds, other.compatibleBrandIds);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(id, categoryId, sku, name, description, minimumSellingPrice, reorderLevel, isActive);
+        return 31 * result + Arrays.hashCode(compatibleBrandIds);
+    }
+
+    @Override
+    public String toString() {
+        return "Product[id=" + id + ", categoryId=" + categoryId + ", sku=" + sku + ", name=" + name
+                + ", description=" + description + ", minimumSellingPrice=" + minimumSellingPrice
+                + ", reorderLevel=" + reorderLevel + ", isActive=" + isActive
+                + ", compatibleBrandIds=" + Arrays.toString(compatibleBrandIds) + "]";
+    }
+}
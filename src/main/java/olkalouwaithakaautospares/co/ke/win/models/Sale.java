@@ -0,0 +1,21 @@
+package olkalouwaithakaautospares.co.ke.win.models;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Sale header as returned by /api/secure/sales (line items and payments are not decoded here).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Sale(
+        @JsonAlias("saleId") Integer id,
+        @JsonAlias("saleNo") String saleNumber,
+        Integer customerId,
+        String customerName,
+        String customerPhone,
+        @JsonAlias("total") double totalAmount,
+        String paymentStatus,
+        String paymentMethod,
+        String saleDate
+) {
+}
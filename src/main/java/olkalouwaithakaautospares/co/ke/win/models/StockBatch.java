@@ -0,0 +1,25 @@
+package olkalouwaithakaautospares.co.ke.win.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Stock batch as returned by /api/secure/stock-batches.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record StockBatch(
+        int id,
+        int productId,
+        Integer conditionId,
+        String batchNumber,
+        double buyingPrice,
+        double sellingPrice,
+        int quantityReceived,
+        int quantityRemaining,
+        String receivedDate,
+        String expiryDate,
+        String createdByName
+) {
+    public double stockValue() {
+        return quantityRemaining * buyingPrice;
+    }
+}
@@ -2,6 +2,7 @@ package olkalouwaithakaautospares.co.ke.win.ui.auth;
 
 import olkalouwaithakaautospares.co.ke.win.ui.dashboard.MainDashboard;
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 
 import javax.imageio.ImageIO;
@@ -389,7 +390,7 @@ public class AuthPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void updateOtpTimer() {
@@ -528,7 +529,7 @@ public class AuthPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void resetResetPasswordForm() {
@@ -950,7 +951,7 @@ public class AuthPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void onLogin() {
@@ -1021,7 +1022,7 @@ public class AuthPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void fetchCurrentUser() {
@@ -1122,7 +1123,7 @@ public class AuthPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void clearInvalidSession() {
@@ -1139,7 +1140,7 @@ public class AuthPanel extends JPanel {
                 return null;
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
      // UI Helper Methods
@@ -0,0 +1,306 @@
+package olkalouwaithakaautospares.co.ke.win.ui.dashboard;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableRowSorter;
+import javax.swing.table.TableStringConverter;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Read-only table model that keeps every column in one array.
+ * - INT columns are int[], MONEY and PERCENT columns are double[], TEXT columns are String[]
+ * - Values are only boxed when the table asks for a visible cell; money and percentages are
+ *   formatted by the renderers from {@link #installRenderers(JTable)}, not stored as "ksh 1,234.00"
+ * - A refresh fills new arrays and fires a single fireTableDataChanged
+ *
+ * Use it from the EDT only.
+ */
+public class ColumnarTableModel extends AbstractTableModel {
+
+    public enum Type { INT, MONEY, PERCENT, TEXT }
+
+    /**
+     * Column name and type. {@code orElse} is the text shown for a missing value.
+     */
+    public static final class Column {
+        private final String name;
+        private final Type type;
+        private final String orElse;
+
+        private Column(String name, Type type, String orElse) {
+            this.name = name;
+            this.type = type;
+            this.orElse = orElse;
+        }
+
+        public static Column integer(String name) {
+            return new Column(name, Type.INT, "");
+        }
+
+        public static Column money(String name) {
+            return new Column(name, Type.MONEY, "");
+        }
+
+        public static Column percent(String name) {
+            return new Column(name, Type.PERCENT, "");
+        }
+
+        public static Column text(String name) {
+            return new Column(name, Type.TEXT, "");
+        }
+
+        public Column orElse(String missing) {
+            return new Column(name, type, missing);
+        }
+    }
+
+    public interface RowWriter<T> {
+        void write(T item, Row row);
+    }
+
+    // Missing values: MIN_VALUE in int columns, NaN in double columns, null in text columns
+    private static final int NO_INT = Integer.MIN_VALUE;
+
+    private final Column[] columns;
+    private Object[] data;
+    private int rowCount = 0;
+
+    public ColumnarTableModel(Column... columns) {
+        this.columns = columns;
+        this.data = allocate(0);
+    }
+
+    // ---------- Bulk updates ----------
+    /**
+     * Replaces every row with one row per item, written by {@code writer}. Fires a single data-changed event.
+     */
+    public <T> void setRows(Collection<? extends T> items, RowWriter<? super T> writer) {
+        Object[] fresh = allocate(items.size());
+        Row row = new Row(fresh);
+        for (T item : items) {
+            writer.write(item, row);
+            row.index++;
+        }
+        data = fresh;
+        rowCount = row.index;
+        fireTableDataChanged();
+    }
+
+    public void clear() {
+        if (rowCount == 0) return;
+        data = allocate(0);
+        rowCount = 0;
+        fireTableDataChanged();
+    }
+
+    // Appends one row; meant for the odd placeholder row, use setRows for real data
+    public void addRow(Object... values) {
+        if (rowCount == capacity()) {
+            grow(Math.max(8, rowCount * 2));
+        }
+        Row row = new Row(data);
+        row.index = rowCount;
+        for (int c = 0; c < columns.length; c++) {
+            row.set(c, c < values.length ? values[c] : null);
+        }
+        rowCount++;
+        fireTableRowsInserted(rowCount - 1, rowCount - 1);
+    }
+
+    /**
+     * Writes the cells of one row. Values are converted to the column's type; null marks a missing value.
+     */
+    public final class Row {
+        private final Object[] target;
+        private int index = 0;
+
+        private Row(Object[] target) {
+            this.target = target;
+        }
+
+        public Row set(int column, int value) {
+            switch (columns[column].type) {
+                case INT: ((int[]) target[column])[index] = value; break;
+                case TEXT: ((String[]) target[column])[index] = String.valueOf(value); break;
+                default: ((double[]) target[column])[index] = value;
+            }
+            return this;
+        }
+
+        public Row set(int column, double value) {
+            switch (columns[column].type) {
+                case INT: ((int[]) target[column])[index] = (int) Math.round(value); break;
+                case TEXT: ((String[]) target[column])[index] = String.valueOf(value); break;
+                default: ((double[]) target[column])[index] = value;
+            }
+            return this;
+        }
+
+        public Row set(int column, String value) {
+            if (columns[column].type != Type.TEXT) {
+                throw new IllegalArgumentException("Column " + columns[column].name + " is not a text column");
+            }
+            ((String[]) target[column])[index] = value;
+            return this;
+        }
+
+        public Row set(int column, Object value) {
+            if (value == null) {
+                switch (columns[column].type) {
+                    case INT: ((int[]) target[column])[index] = NO_INT; break;
+                    case TEXT: ((String[]) target[column])[index] = null; break;
+                    default: ((double[]) target[column])[index] = Double.NaN;
+                }
+            } else if (value instanceof Number && columns[column].type != Type.TEXT) {
+                set(column, ((Number) value).doubleValue());
+            } else {
+                set(column, value.toString());
+            }
+            return this;
+        }
+    }
+
+    // ---------- Typed reads ----------
+    // Returns the fallback when the cell is missing
+    public int getInt(int row, int column, int fallback) {
+        int value = ((int[]) data[column])[row];
+        return value == NO_INT ? fallback : value;
+    }
+
+    public double getDouble(int row, int column, double fallback) {
+        double value = ((double[]) data[column])[row];
+        return Double.isNaN(value) ? fallback : value;
+    }
+
+    public String getText(int row, int column) {
+        return ((String[]) data[column])[row];
+    }
+
+    // ---------- TableModel ----------
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column].name;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (columns[column].type) {
+            case INT: return Integer.class;
+            case TEXT: return String.class;
+            default: return Double.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (columns[column].type) {
+            case INT: {
+                int value = ((int[]) data[column])[row];
+                return value == NO_INT ? null : value;
+            }
+            case TEXT:
+                return ((String[]) data[column])[row];
+            default: {
+                double value = ((double[]) data[column])[row];
+                return Double.isNaN(value) ? null : value;
+            }
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    // ---------- Formatting ----------
+    /**
+     * Display text of a cell value, as the renderers show it.
+     */
+    public String format(int column, Object value) {
+        Column col = columns[column];
+        if (value == null) return col.orElse;
+        switch (col.type) {
+            case MONEY: return String.format("ksh %,.2f", ((Number) value).doubleValue());
+            case PERCENT: return String.format("%.1f%%", ((Number) value).doubleValue());
+            default: return value.toString();
+        }
+    }
+
+    /**
+     * Gives every column without its own renderer a formatting renderer, and makes the table's
+     * row sorter (if any) filter on the formatted text. Call after the row sorter is set.
+     */
+    public void installRenderers(JTable table) {
+        for (int view = 0; view < table.getColumnCount(); view++) {
+            TableColumn tableColumn = table.getColumnModel().getColumn(view);
+            if (tableColumn.getCellRenderer() == null) {
+                tableColumn.setCellRenderer(new FormatRenderer(tableColumn.getModelIndex()));
+            }
+        }
+        if (table.getRowSorter() instanceof TableRowSorter) {
+            ((TableRowSorter<?>) table.getRowSorter()).setStringConverter(new TableStringConverter() {
+                @Override
+                public String toString(javax.swing.table.TableModel model, int row, int column) {
+                    return format(column, getValueAt(row, column));
+                }
+            });
+        }
+    }
+
+    private class FormatRenderer extends DefaultTableCellRenderer {
+        private final int column;
+
+        FormatRenderer(int column) {
+            this.column = column;
+        }
+
+        @Override
+        protected void setValue(Object value) {
+            setText(format(column, value));
+        }
+    }
+
+    // ---------- Storage ----------
+    private Object[] allocate(int rows) {
+        Object[] arrays = new Object[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            switch (columns[c].type) {
+                case INT: arrays[c] = new int[rows]; break;
+                case TEXT: arrays[c] = new String[rows]; break;
+                default: arrays[c] = new double[rows];
+            }
+        }
+        return arrays;
+    }
+
+    private int capacity() {
+        switch (columns[0].type) {
+            case INT: return ((int[]) data[0]).length;
+            case TEXT: return ((String[]) data[0]).length;
+            default: return ((double[]) data[0]).length;
+        }
+    }
+
+    private void grow(int rows) {
+        for (int c = 0; c < columns.length; c++) {
+            switch (columns[c].type) {
+                case INT: data[c] = Arrays.copyOf((int[]) data[c], rows); break;
+                case TEXT: data[c] = Arrays.copyOf((String[]) data[c], rows); break;
+                default: data[c] = Arrays.copyOf((double[]) data[c], rows);
+            }
+        }
+    }
+}
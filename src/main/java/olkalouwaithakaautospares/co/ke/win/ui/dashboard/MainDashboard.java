@@ -9,12 +9,16 @@ import olkalouwaithakaautospares.co.ke.win.ui.dashboard.returns.ReturnApprovalPa
 import olkalouwaithakaautospares.co.ke.win.ui.dashboard.returns.ReturnPanel;
 import olkalouwaithakaautospares.co.ke.win.ui.dashboard.sales.SalesPanel;
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.CheckoutJournal;
+import olkalouwaithakaautospares.co.ke.win.utils.CheckoutReplicator;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -46,7 +50,17 @@ public class MainDashboard extends JFrame {
 
     private void initUI() {
         setTitle("POS Pro - Dashboard");
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Closing the window checks for sales still waiting to sync first
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (confirmUnsyncedSales()) {
+                    dispose();
+                    System.exit(0);
+                }
+            }
+        });
 
         // Set minimum size before maximizing
         setMinimumSize(new Dimension(MIN_WIDTH, MIN_HEIGHT));
@@ -201,6 +215,8 @@ public class MainDashboard extends JFrame {
                 JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
+            if (!confirmUnsyncedSales()) return;
+
             // Attempt server-side logout (invalidates server session & cookies)
             try {
                 BaseClient.getInstance().logout();
@@ -223,6 +239,32 @@ public class MainDashboard extends JFrame {
         }
     }
 
+    /**
+     * Warns when checkouts are still in the local journal. They are only sent while the app runs and
+     * the cashier who made them is logged in, so leaving now can hold them back indefinitely.
+     * Returns true when there is nothing pending or the user chooses to leave anyway.
+     */
+    private boolean confirmUnsyncedSales() {
+        CheckoutJournal journal = CheckoutJournal.getInstance();
+        int pending = journal.pendingCount();
+        if (pending == 0) return true;
+        int review = journal.reviewCount();
+
+        CheckoutReplicator.getInstance().kick();
+        String parked = review == 0 ? ""
+                : (review == 1 ? "1 of them needs" : review + " of them need")
+                        + " review (Sales > Review) and will not be sent until someone checks it.\n";
+        int choice = JOptionPane.showConfirmDialog(this,
+                (pending == 1 ? "1 sale has" : pending + " sales have") + " not reached the server yet.\n"
+                        + parked
+                        + "They will only be sent when the same cashier logs in on this computer again.\n\n"
+                        + "Leave anyway? Choose No to stay while they sync.",
+                "Unsynced Sales",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE);
+        return choice == JOptionPane.YES_OPTION;
+    }
+
     private void setSelectedButton(JButton button) {
         if (button == null) return;
         String cmd = button.getActionCommand();
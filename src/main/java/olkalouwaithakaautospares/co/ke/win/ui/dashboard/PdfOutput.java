@@ -0,0 +1,100 @@
+package olkalouwaithakaautospares.co.ke.win.ui.dashboard;
+
+import olkalouwaithakaautospares.co.ke.win.utils.PdfReportRenderer;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Shared "save as PDF" flow for the panels.
+ * - Asks for a .pdf file, renders it with {@link PdfReportRenderer} on the BACKGROUND lane
+ * - Afterwards offers to open or print the file with the desktop's PDF viewer
+ *
+ * Call from the EDT.
+ */
+public final class PdfOutput {
+
+    public interface Render {
+        void render(PdfReportRenderer renderer, Path file) throws Exception;
+    }
+
+    private PdfOutput() {
+    }
+
+    // The chosen file with a .pdf extension, or null when the user backed out
+    public static Path chooseFile(Component parent, String suggestedName) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Save PDF");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("PDF document (*.pdf)", "pdf"));
+        fileChooser.setSelectedFile(new File(suggestedName + ".pdf"));
+        if (fileChooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) return null;
+
+        File chosen = fileChooser.getSelectedFile();
+        if (!chosen.getName().toLowerCase().endsWith(".pdf")) {
+            chosen = new File(chosen.getParentFile(), chosen.getName() + ".pdf");
+        }
+        if (chosen.exists() && JOptionPane.showConfirmDialog(parent, chosen.getName() + " exists. Replace it?",
+                "Save PDF", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return null;
+        }
+        return chosen.toPath();
+    }
+
+    public static void save(Component parent, String suggestedName, Render render) {
+        Path file = chooseFile(parent, suggestedName);
+        if (file == null) return;
+
+        Cursor cursor = parent.getCursor();
+        parent.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        SwingWorker<Void, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                render.render(PdfReportRenderer.getInstance(), file);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                parent.setCursor(cursor);
+                try {
+                    get();
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    cause.printStackTrace();
+                    JOptionPane.showMessageDialog(parent, "Failed to create PDF: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                offerToOpen(parent, file);
+            }
+        };
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
+    }
+
+    private static void offerToOpen(Component parent, Path file) {
+        Desktop desktop = Desktop.isDesktopSupported() ? Desktop.getDesktop() : null;
+        boolean canOpen = desktop != null && desktop.isSupported(Desktop.Action.OPEN);
+        boolean canPrint = desktop != null && desktop.isSupported(Desktop.Action.PRINT);
+        if (!canOpen && !canPrint) {
+            JOptionPane.showMessageDialog(parent, "Saved to\n" + file, "Save PDF", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        String[] options = canOpen && canPrint ? new String[] {"Open", "Print", "Close"}
+                : canOpen ? new String[] {"Open", "Close"} : new String[] {"Print", "Close"};
+        int choice = JOptionPane.showOptionDialog(parent, "Saved to\n" + file, "Save PDF",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, options[0]);
+        if (choice < 0 || "Close".equals(options[choice])) return;
+        try {
+            if ("Open".equals(options[choice])) desktop.open(file.toFile());
+            else desktop.print(file.toFile());
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(parent, "Could not " + options[choice].toLowerCase() + " the PDF: "
+                    + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package olkalouwaithakaautospares.co.ke.win.ui.dashboard.customer;
 
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel.Column;
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import javax.swing.RowFilter;
 import java.awt.*;
@@ -39,8 +41,8 @@ public class CustomerPanel extends JPanel {
 
     // Customer list components
     private JTable customerTable;
-    private DefaultTableModel customerModel;
-    private TableRowSorter<DefaultTableModel> customerSorter;
+    private ColumnarTableModel customerModel;
+    private TableRowSorter<ColumnarTableModel> customerSorter;
     private JTextField searchField;
 
     // Details tab components
@@ -56,7 +58,7 @@ public class CustomerPanel extends JPanel {
 
     // Analytics tab components
     private JTable analyticsTable;
-    private DefaultTableModel analyticsModel;
+    private ColumnarTableModel analyticsModel;
     private JTextField analyticsDateField;
     private JTextField fromDateField;
     private JTextField toDateField;
@@ -181,13 +183,9 @@ public class CustomerPanel extends JPanel {
         searchPanel.add(searchBtn, BorderLayout.EAST);
 
         // Customer table
-        String[] columns = {"ID", "Name", "Phone", "Credit Limit", "Status", "Created"};
-        customerModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        customerModel = new ColumnarTableModel(
+                Column.integer("ID"), Column.text("Name"), Column.text("Phone"),
+                Column.money("Credit Limit"), Column.text("Status"), Column.text("Created"));
 
         customerTable = new JTable(customerModel);
         customerTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -198,6 +196,7 @@ public class CustomerPanel extends JPanel {
         // Add sorter for filtering
         customerSorter = new TableRowSorter<>(customerModel);
         customerTable.setRowSorter(customerSorter);
+        customerModel.installRenderers(customerTable);
 
         customerTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
             @Override
@@ -382,18 +381,15 @@ public class CustomerPanel extends JPanel {
         filterPanel.add(analyticsSummaryLabel, gbc);
 
         // Analytics table
-        String[] columns = {"Date", "Total Customers", "New Customers", "Repeat Customers", "Credit Customers", "Created"};
-        analyticsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        analyticsModel = new ColumnarTableModel(
+                Column.text("Date"), Column.integer("Total Customers"), Column.integer("New Customers"),
+                Column.integer("Repeat Customers"), Column.integer("Credit Customers"), Column.text("Created"));
 
         analyticsTable = new JTable(analyticsModel);
         analyticsTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         analyticsTable.setRowHeight(36);
         analyticsTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
+        analyticsModel.installRenderers(analyticsTable);
 
         JScrollPane scrollPane = new JScrollPane(analyticsTable);
         scrollPane.setBorder(BorderFactory.createTitledBorder("Customer Analytics"));
@@ -457,7 +453,7 @@ public class CustomerPanel extends JPanel {
                 updateCustomerTable();
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void setRefreshEnabled(boolean enabled) {
@@ -509,7 +505,7 @@ public class CustomerPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     /**
@@ -600,7 +596,7 @@ public class CustomerPanel extends JPanel {
                 }
 
                 analyticsData.clear();
-                analyticsModel.setRowCount(0);
+                analyticsModel.clear();
 
                 if (noData) {
                     // Show informational dialog (not error) for single-date no-data
@@ -639,7 +635,7 @@ public class CustomerPanel extends JPanel {
             }
         };
 
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
 
@@ -721,7 +717,7 @@ public class CustomerPanel extends JPanel {
                     return;
                 }
                 analyticsData.clear();
-                analyticsModel.setRowCount(0);
+                analyticsModel.clear();
 
                 if (analyticsList != null && !analyticsList.isEmpty()) {
                     analyticsData.addAll(analyticsList);
@@ -744,7 +740,7 @@ public class CustomerPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void loadAnalyticsForToday() {
@@ -766,49 +762,30 @@ public class CustomerPanel extends JPanel {
 
     // ---------- UI Updates ----------
     private void updateCustomerTable() {
-        SwingUtilities.invokeLater(() -> {
-            customerModel.setRowCount(0);
-            for (Map<String, Object> customer : customers) {
-                Integer id = safeIntegerFromObject(customer.get("id"), null);
-                String name = Objects.toString(customer.get("name"), "Unknown");
-                String phone = Objects.toString(customer.get("phone"), "N/A");
-                Double creditLimit = safeDoubleFromObject(customer.get("creditLimit"));
-                Boolean isActive = getBooleanValue(customer, "isActive", true);
-                String createdAt = formatDate(Objects.toString(customer.get("createdAt"), ""));
-
-                customerModel.addRow(new Object[]{
-                        id,
-                        name,
-                        phone,
-                        String.format("ksh %,.2f", creditLimit != null ? creditLimit : 0.0),
-                        isActive ? "Active" : "Inactive",
-                        createdAt.length() > 10 ? createdAt.substring(0, 10) : createdAt
-                });
-            }
-        });
+        SwingUtilities.invokeLater(() -> customerModel.setRows(customers, (customer, row) -> {
+            Double creditLimit = safeDoubleFromObject(customer.get("creditLimit"));
+            String createdAt = formatDate(Objects.toString(customer.get("createdAt"), ""));
+
+            row.set(0, safeIntegerFromObject(customer.get("id"), null))
+                    .set(1, Objects.toString(customer.get("name"), "Unknown"))
+                    .set(2, Objects.toString(customer.get("phone"), "N/A"))
+                    .set(3, creditLimit != null ? creditLimit : 0.0)
+                    .set(4, getBooleanValue(customer, "isActive", true) ? "Active" : "Inactive")
+                    .set(5, createdAt.length() > 10 ? createdAt.substring(0, 10) : createdAt);
+        }));
     }
 
     private void updateAnalyticsTable() {
-        SwingUtilities.invokeLater(() -> {
-            analyticsModel.setRowCount(0);
-            for (Map<String, Object> analytics : analyticsData) {
-                String date = Objects.toString(analytics.get("analyticsDate"), "N/A");
-                Integer total = safeIntegerFromObject(analytics.get("totalCustomers"), 0);
-                Integer newCust = safeIntegerFromObject(analytics.get("newCustomers"), 0);
-                Integer repeat = safeIntegerFromObject(analytics.get("repeatCustomers"), 0);
-                Integer credit = safeIntegerFromObject(analytics.get("creditCustomers"), 0);
-                String createdAt = formatDate(Objects.toString(analytics.get("createdAt"), ""));
-
-                analyticsModel.addRow(new Object[]{
-                        date,
-                        total,
-                        newCust,
-                        repeat,
-                        credit,
-                        createdAt.length() > 10 ? createdAt.substring(0, 10) : createdAt
-                });
-            }
-        });
+        SwingUtilities.invokeLater(() -> analyticsModel.setRows(analyticsData, (analytics, row) -> {
+            String createdAt = formatDate(Objects.toString(analytics.get("createdAt"), ""));
+
+            row.set(0, Objects.toString(analytics.get("analyticsDate"), "N/A"))
+                    .set(1, safeIntegerFromObject(analytics.get("totalCustomers"), 0))
+                    .set(2, safeIntegerFromObject(analytics.get("newCustomers"), 0))
+                    .set(3, safeIntegerFromObject(analytics.get("repeatCustomers"), 0))
+                    .set(4, safeIntegerFromObject(analytics.get("creditCustomers"), 0))
+                    .set(5, createdAt.length() > 10 ? createdAt.substring(0, 10) : createdAt);
+        }));
     }
 
     private void filterCustomers(String query) {
@@ -816,7 +793,7 @@ public class CustomerPanel extends JPanel {
             customerSorter.setRowFilter(null);
         } else {
             try {
-                RowFilter<DefaultTableModel, Object> rf = RowFilter.regexFilter("(?i)" + query, 1, 2); // Search name and phone columns
+                RowFilter<ColumnarTableModel, Object> rf = RowFilter.regexFilter("(?i)" + query, 1, 2); // Search name and phone columns
                 customerSorter.setRowFilter(rf);
             } catch (Exception e) {
                 // Invalid regex, ignore
@@ -866,8 +843,8 @@ public class CustomerPanel extends JPanel {
         int selectedRow = customerTable.getSelectedRow();
         if (selectedRow >= 0) {
             int modelRow = customerTable.convertRowIndexToModel(selectedRow);
-            Integer customerId = safeIntegerFromObject(customerModel.getValueAt(modelRow, 0), null);
-            if (customerId != null) {
+            int customerId = customerModel.getInt(modelRow, 0, -1);
+            if (customerId >= 0) {
                 loadCustomerDetails(customerId);
             }
         }
@@ -985,7 +962,7 @@ public class CustomerPanel extends JPanel {
             }
 
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     /**
@@ -1128,7 +1105,7 @@ public class CustomerPanel extends JPanel {
             }
 
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     // ---------- Helper Methods ----------
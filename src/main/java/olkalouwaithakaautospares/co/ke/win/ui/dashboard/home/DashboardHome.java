@@ -1,6 +1,13 @@
 package olkalouwaithakaautospares.co.ke.win.ui.dashboard.home;
 
+import olkalouwaithakaautospares.co.ke.win.models.Customer;
+import olkalouwaithakaautospares.co.ke.win.models.Product;
+import olkalouwaithakaautospares.co.ke.win.models.Sale;
+import olkalouwaithakaautospares.co.ke.win.models.StockBatch;
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.CatalogCache;
+import olkalouwaithakaautospares.co.ke.win.utils.StockLevels;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -12,6 +19,13 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 public class DashboardHome extends JPanel {
     private final BaseClient client;
@@ -38,12 +52,9 @@ public class DashboardHome extends JPanel {
     // Date formatter (consistent with Reports)
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
-    // Data caches (like in Reports panel)
-    private final List<Map<String, Object>> salesData = new ArrayList<>();
-    private final List<Map<String, Object>> returnsData = new ArrayList<>();
-    private final List<Map<String, Object>> productsData = new ArrayList<>();
-    private final List<Map<String, Object>> stockBatchesData = new ArrayList<>();
-    private final List<Map<String, Object>> customersData = new ArrayList<>();
+    // Dashboard sources are fetched in parallel; a card that has not loaded within the timeout shows "Unavailable"
+    private static final long LOAD_TIMEOUT_SECONDS = 30;
+    private static final Executor LOADER = TaskScheduler.getInstance().executor(TaskScheduler.Lane.BACKGROUND);
 
     public DashboardHome() {
         this.client = BaseClient.getInstance();
@@ -86,7 +97,10 @@ public class DashboardHome extends JPanel {
 
         refreshBtn = new JButton("Refresh");
         styleButton(refreshBtn, new Color(33, 150, 243));
-        refreshBtn.addActionListener(e -> loadDashboardData());
+        refreshBtn.addActionListener(e -> {
+            CatalogCache.getInstance().invalidate(CatalogCache.Section.PRODUCTS);
+            loadDashboardData();
+        });
 
         JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         rightPanel.setOpaque(false);
@@ -161,237 +175,251 @@ public class DashboardHome extends JPanel {
     }
 
     // ---------- Data Loading Methods (Reports-style) ----------
+    // All sources are requested at once; each stat card renders as soon as the data it needs has arrived.
     private void loadDashboardData() {
         // prevent double-click starting duplicate loads
         if (!refreshBtn.isEnabled()) return;
 
         refreshBtn.setEnabled(false);
         refreshBtn.setText("Loading...");
+        setCardsLoading();
+
+        String today = LocalDate.now().format(dateFormatter);
+
+        CompletableFuture<List<Sale>> sales = timed(client.getListAsync("/api/secure/sales", Sale.class));
+        CompletableFuture<List<Map<String, Object>>> returns = timed(client.getAsync("/api/secure/returns"))
+                .thenApply(this::parseDataList);
+        CompletableFuture<List<Product>> products = fetch(() -> CatalogCache.getInstance().getProducts());
+        CompletableFuture<List<StockBatch>> batches = timed(client.getListAsync("/api/secure/stock-batches", StockBatch.class));
+        CompletableFuture<List<Customer>> customers = timed(client.getListAsync("/api/secure/customers", Customer.class));
+        // keep computed values if the report call fails
+        CompletableFuture<Map<String, Object>> dailyReport = fetch(() -> loadDailyReport(today))
+                .handle((report, ex) -> {
+                    if (ex != null) ex.printStackTrace();
+                    return report != null ? report : Collections.<String, Object>emptyMap();
+                });
 
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            private Exception error = null;
-            private DashboardStats stats = new DashboardStats();
-
-            @Override
-            protected Void doInBackground() {
-                try {
-                    loadAllData();
-                    calculateStats();
-
-                    // Attempt to load the daily report for today (same source used in ReportingPanel)
-                    String today = LocalDate.now().format(dateFormatter);
-                    try {
-                        Map<String, Object> dailyReport = loadDailyReport(today);
-                        if (dailyReport != null && !dailyReport.isEmpty()) {
-                            // If report provides totalSales we show it as authoritative for the day's total
-                            if (dailyReport.containsKey("totalSales") && dailyReport.get("totalSales") != null) {
-                                stats.totalSales = safeDouble(dailyReport.get("totalSales"), stats.totalSales);
-                            }
-                            // If report provides credit totals, keep override behavior
-                            if (dailyReport.containsKey("creditSales") && dailyReport.get("creditSales") != null) {
-                                stats.creditSales = safeDouble(dailyReport.get("creditSales"), stats.creditSales);
-                            }
-                            if (dailyReport.containsKey("creditTransactions") && dailyReport.get("creditTransactions") != null) {
-                                stats.creditTransactions = safeInteger(dailyReport.get("creditTransactions"), stats.creditTransactions);
-                            }
-                        }
-                    } catch (Exception ex) {
-                        // keep computed values if report call fails
-                        ex.printStackTrace();
-                    }
-                } catch (Exception e) {
-                    error = e;
-                    e.printStackTrace();
-                }
-                return null;
-            }
+        List<CompletableFuture<?>> cards = Arrays.asList(
+                render(sales.thenCombine(dailyReport, (s, report) -> calculateSalesStats(s, report, today)),
+                        this::updateSalesCards, this::salesCardsUnavailable),
+                render(customers.thenApply(c -> new int[]{countNewCustomers(c, today), c.size()}),
+                        this::updateCustomersCard, () -> cardUnavailable(newCustomersLabel, newCustomersDesc)),
+                render(returns.thenApply(r -> new int[]{countPendingReturns(r), r.size()}),
+                        this::updateReturnsCard, () -> cardUnavailable(pendingReturnsLabel, pendingReturnsDesc)),
+                render(products.thenCombine(batches, (p, b) -> new int[]{countLowStock(p, b), p.size()}),
+                        this::updateLowStockCard, () -> cardUnavailable(lowStockLabel, lowStockDesc))
+        );
 
-            @Override
-            protected void done() {
+        CompletableFuture.allOf(cards.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, ex) ->
                 SwingUtilities.invokeLater(() -> {
                     refreshBtn.setEnabled(true);
                     refreshBtn.setText("Refresh");
 
-                    if (error != null) {
-                        showError("Failed to load dashboard data: " + error.getMessage());
-                        return;
+                    // Cards that failed already show "Unavailable"; only interrupt the user if nothing loaded
+                    boolean allFailed = cards.stream().allMatch(CompletableFuture::isCompletedExceptionally);
+                    if (allFailed && ex != null) {
+                        showError("Failed to load dashboard data: " + rootCause(ex).getMessage());
                     }
+                }));
+    }
 
-                    updateDashboardUI(stats);
-                });
-            }
-
-            private void loadAllData() throws Exception {
-                // Clear previous data
-                salesData.clear();
-                returnsData.clear();
-                productsData.clear();
-                stockBatchesData.clear();
-                customersData.clear();
-
-                // Load all data in sequence
-                salesData.addAll(loadSalesData());
-                returnsData.addAll(loadReturnsData());
-                productsData.addAll(loadProductsData());
-                stockBatchesData.addAll(loadStockBatchesData());
-                customersData.addAll(loadCustomersData());
-            }
-
-            private List<Map<String, Object>> loadSalesData() throws Exception {
-                return loadDataList("/api/secure/sales");
-            }
-
-            private List<Map<String, Object>> loadReturnsData() throws Exception {
-                return loadDataList("/api/secure/returns");
-            }
+    private <T> CompletableFuture<T> timed(CompletableFuture<T> request) {
+        return request.orTimeout(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
 
-            private List<Map<String, Object>> loadProductsData() throws Exception {
-                return loadDataList("/api/secure/products");
+    // For sources that only have a blocking API (catalog cache, daily report)
+    private <T> CompletableFuture<T> fetch(Callable<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
             }
+        }, LOADER).orTimeout(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
 
-            private List<Map<String, Object>> loadStockBatchesData() throws Exception {
-                return loadDataList("/api/secure/stock-batches");
+    // Renders a card on the EDT once its value is ready, or marks it unavailable on failure/timeout
+    private <T> CompletableFuture<T> render(CompletableFuture<T> value, Consumer<T> onSuccess, Runnable onFailure) {
+        return value.whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
+                rootCause(ex).printStackTrace();
+                onFailure.run();
+            } else {
+                onSuccess.accept(result);
             }
+        }));
+    }
 
-            private List<Map<String, Object>> loadCustomersData() throws Exception {
-                return loadDataList("/api/secure/customers");
-            }
+    private static Throwable rootCause(Throwable ex) {
+        while (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex instanceof TimeoutException ? new Exception("Timed out after " + LOAD_TIMEOUT_SECONDS + "s") : ex;
+    }
 
-            @SuppressWarnings("unchecked")
-            private List<Map<String, Object>> loadDataList(String endpoint) throws Exception {
-                String response = client.get(endpoint);
-                if (response != null && !response.trim().isEmpty()) {
-                    try {
-                        // try parse as direct list
-                        return mapper.readValue(response, new TypeReference<List<Map<String, Object>>>() {});
-                    } catch (Exception ex) {
-                        // parse wrapped { "data": [...] } response
-                        Map<String, Object> parsed = mapper.readValue(response, new TypeReference<Map<String, Object>>() {});
-                        if (parsed != null && parsed.containsKey("data") && parsed.get("data") instanceof List) {
-                            return (List<Map<String, Object>>) parsed.get("data");
-                        }
-                        return new ArrayList<>();
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> parseDataList(String response) {
+        if (response != null && !response.trim().isEmpty()) {
+            try {
+                try {
+                    // try parse as direct list
+                    return mapper.readValue(response, new TypeReference<List<Map<String, Object>>>() {});
+                } catch (Exception ex) {
+                    // parse wrapped { "data": [...] } response
+                    Map<String, Object> parsed = mapper.readValue(response, new TypeReference<Map<String, Object>>() {});
+                    if (parsed != null && parsed.containsKey("data") && parsed.get("data") instanceof List) {
+                        return (List<Map<String, Object>>) parsed.get("data");
                     }
+                    return new ArrayList<>();
                 }
-                return new ArrayList<>();
+            } catch (Exception e) {
+                throw new CompletionException(e);
             }
+        }
+        return new ArrayList<>();
+    }
 
-            private void calculateStats() {
-                String today = LocalDate.now().format(dateFormatter);
-
-                // Reset stats
-                stats = new DashboardStats();
-
-                // Define payment statuses that should be treated as "credit/pending"
-                Set<String> creditStatuses = new HashSet<>(Arrays.asList(
-                        "CREDIT", "PENDING", "PARTIAL", "PARTIALLY_PAID", "OWING"
-                ));
-
-                // Calculate sales statistics (keeps existing behavior but totalSales may be overridden by report)
-                for (Map<String, Object> sale : salesData) {
-                    Double total = safeDouble(sale.get("totalAmount"));
-                    if (total == null) continue;
-
-                    stats.totalSales += total;
+    // ---------- Stat Calculations ----------
+    private DashboardStats calculateSalesStats(List<Sale> salesData, Map<String, Object> dailyReport, String today) {
+        DashboardStats stats = new DashboardStats();
+        stats.salesCount = salesData.size();
 
-                    String saleDate = safeString(sale.get("saleDate"));
-                    String paymentStatus = safeString(sale.get("paymentStatus"));
+        // Define payment statuses that should be treated as "credit/pending"
+        Set<String> creditStatuses = new HashSet<>(Arrays.asList(
+                "CREDIT", "PENDING", "PARTIAL", "PARTIALLY_PAID", "OWING"
+        ));
 
-                    // If the sale happened today, add to today's counters (note: Today revenue card removed)
-                    if (saleDate != null && saleDate.contains(today)) {
-                        stats.todaySalesCount++;
+        for (Sale sale : salesData) {
+            double total = sale.totalAmount();
 
-                        // If today's sale is a credit/pending, include in today's credit totals
-                        if (paymentStatus != null && creditStatuses.contains(paymentStatus.toUpperCase())) {
-                            stats.creditSales += total;
-                            stats.creditTransactions++;
-                        }
-                    }
-                }
+            stats.totalSales += total;
 
-                // Calculate returns statistics
-                for (Map<String, Object> ret : returnsData) {
-                    String status = safeString(ret.get("status"));
-                    if ("PENDING".equalsIgnoreCase(status)) {
-                        stats.pendingReturns++;
-                    }
-                }
+            String saleDate = sale.saleDate();
+            String paymentStatus = sale.paymentStatus();
 
-                // Calculate low stock items
-                for (Map<String, Object> product : productsData) {
-                    Integer prodId = safeInteger(product.get("id"));
-                    Integer reorderLevel = safeInteger(product.get("reorderLevel"), 0);
+            // If the sale happened today, add to today's counters (note: Today revenue card removed)
+            if (saleDate != null && saleDate.contains(today)) {
+                stats.todaySalesCount++;
 
-                    int stock = calculateProductStock(prodId);
-                    if (stock <= reorderLevel && stock > 0) {
-                        stats.lowStockItems++;
-                    }
+                // If today's sale is a credit/pending, include in today's credit totals
+                if (paymentStatus != null && creditStatuses.contains(paymentStatus.toUpperCase())) {
+                    stats.creditSales += total;
+                    stats.creditTransactions++;
                 }
+            }
+        }
 
-                // Calculate new customers
-                for (Map<String, Object> customer : customersData) {
-                    String createdAt = safeString(customer.get("createdAt"));
-                    if (createdAt != null && createdAt.contains(today)) {
-                        stats.newCustomers++;
-                    }
-                }
+        // The daily report (same source used in ReportingPanel) is authoritative when it has the figures
+        if (dailyReport != null && !dailyReport.isEmpty()) {
+            if (dailyReport.containsKey("totalSales") && dailyReport.get("totalSales") != null) {
+                stats.totalSales = safeDouble(dailyReport.get("totalSales"), stats.totalSales);
+            }
+            if (dailyReport.containsKey("creditSales") && dailyReport.get("creditSales") != null) {
+                stats.creditSales = safeDouble(dailyReport.get("creditSales"), stats.creditSales);
+            }
+            if (dailyReport.containsKey("creditTransactions") && dailyReport.get("creditTransactions") != null) {
+                stats.creditTransactions = safeInteger(dailyReport.get("creditTransactions"), stats.creditTransactions);
+            }
+        }
+        return stats;
+    }
 
-                // NOTE: We intentionally do NOT compute today's revenue here (card removed). Credit totals
-                // will be overridden by daily reports when available (handled in doInBackground override above).
+    private int countPendingReturns(List<Map<String, Object>> returnsData) {
+        int pending = 0;
+        for (Map<String, Object> ret : returnsData) {
+            String status = safeString(ret.get("status"));
+            if ("PENDING".equalsIgnoreCase(status)) {
+                pending++;
             }
+        }
+        return pending;
+    }
 
-            private int calculateProductStock(Integer productId) {
-                int stock = 0;
-                for (Map<String, Object> batch : stockBatchesData) {
-                    if (safeInteger(batch.get("productId")).equals(productId)) {
-                        stock += safeInteger(batch.get("quantityRemaining"), 0);
-                    }
-                }
-                return stock;
+    private int countLowStock(List<Product> productsData, List<StockBatch> stockBatchesData) {
+        StockLevels levels = StockLevels.of(stockBatchesData);
+        int lowStock = 0;
+        for (Product product : productsData) {
+            int stock = levels.stockOf(product.id());
+            if (stock <= product.reorderLevel() && stock > 0) {
+                lowStock++;
             }
-        };
+        }
+        return lowStock;
+    }
 
-        worker.execute();
+    private int countNewCustomers(List<Customer> customersData, String today) {
+        int newCustomers = 0;
+        for (Customer customer : customersData) {
+            String createdAt = customer.createdAt();
+            if (createdAt != null && createdAt.contains(today)) {
+                newCustomers++;
+            }
+        }
+        return newCustomers;
     }
 
     // ---------- UI Update Methods ----------
-    private void updateDashboardUI(DashboardStats stats) {
+    private void setCardsLoading() {
+        for (JLabel desc : new JLabel[]{totalSalesDesc, newCustomersDesc, pendingReturnsDesc, lowStockDesc, creditSalesDesc}) {
+            desc.setText("Loading...");
+        }
+    }
+
+    private void cardUnavailable(JLabel valueLabel, JLabel descriptionLabel) {
+        valueLabel.setText("--");
+        descriptionLabel.setText("Unavailable");
+    }
+
+    private void salesCardsUnavailable() {
+        cardUnavailable(totalSalesLabel, totalSalesDesc);
+        cardUnavailable(creditSalesLabel, creditSalesDesc);
+    }
+
+    private void updateSalesCards(DashboardStats stats) {
         DecimalFormat df = new DecimalFormat("#,##0.00");
 
-        // Update value labels
         totalSalesLabel.setText("ksh " + df.format(stats.totalSales));
-        newCustomersLabel.setText(String.valueOf(stats.newCustomers));
-        pendingReturnsLabel.setText(String.valueOf(stats.pendingReturns));
-        lowStockLabel.setText(String.valueOf(stats.lowStockItems));
-        creditSalesLabel.setText("ksh " + df.format(stats.creditSales));
+        totalSalesDesc.setText(String.format("%d transactions", stats.salesCount));
 
-        // Update description labels
-        totalSalesDesc.setText(String.format("%d transactions", salesData.size()));
-        newCustomersDesc.setText(String.format("%d total customers", customersData.size()));
-        pendingReturnsDesc.setText(String.format("%d total returns", returnsData.size()));
-        lowStockDesc.setText(String.format("%d total products", productsData.size()));
+        creditSalesLabel.setText("ksh " + df.format(stats.creditSales));
         creditSalesDesc.setText(String.format("%d credit transactions", stats.creditTransactions));
+    }
+
+    // counts = {new today, total}
+    private void updateCustomersCard(int[] counts) {
+        newCustomersLabel.setText(String.valueOf(counts[0]));
+        newCustomersDesc.setText(String.format("%d total customers", counts[1]));
+    }
+
+    // counts = {pending, total}
+    private void updateReturnsCard(int[] counts) {
+        pendingReturnsLabel.setText(String.valueOf(counts[0]));
+        pendingReturnsDesc.setText(String.format("%d total returns", counts[1]));
 
         // Color coding for alerts
-        if (stats.lowStockItems > 0) {
-            lowStockLabel.setForeground(new Color(244, 67, 54));
-            lowStockLabel.setFont(new Font("Segoe UI", Font.BOLD, 28));
+        if (counts[0] > 0) {
+            pendingReturnsLabel.setForeground(new Color(255, 152, 0));
         } else {
-            lowStockLabel.setForeground(new Color(96, 125, 139));
-            lowStockLabel.setFont(new Font("Segoe UI", Font.BOLD, 28));
+            pendingReturnsLabel.setForeground(new Color(96, 125, 139));
         }
+    }
 
-        if (stats.pendingReturns > 0) {
-            pendingReturnsLabel.setForeground(new Color(255, 152, 0));
-            pendingReturnsLabel.setFont(new Font("Segoe UI", Font.BOLD, 28));
+    // counts = {low stock, total products}
+    private void updateLowStockCard(int[] counts) {
+        lowStockLabel.setText(String.valueOf(counts[0]));
+        lowStockDesc.setText(String.format("%d total products", counts[1]));
+
+        // Color coding for alerts
+        if (counts[0] > 0) {
+            lowStockLabel.setForeground(new Color(244, 67, 54));
         } else {
-            pendingReturnsLabel.setForeground(new Color(96, 125, 139));
-            pendingReturnsLabel.setFont(new Font("Segoe UI", Font.BOLD, 28));
+            lowStockLabel.setForeground(new Color(96, 125, 139));
         }
     }
 
     // ---------- Helper Classes ----------
     private static class DashboardStats {
+        int salesCount = 0;
         double totalSales = 0.0;
         double todayRevenue = 0.0; // kept for compatibility but not displayed
         double creditSales = 0.0;
@@ -1,6 +1,17 @@
 package olkalouwaithakaautospares.co.ke.win.ui.dashboard.master;
 
+import olkalouwaithakaautospares.co.ke.win.models.BrandIdsDeserializer;
+import olkalouwaithakaautospares.co.ke.win.models.Product;
+import olkalouwaithakaautospares.co.ke.win.models.StockBatch;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel.Column;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.PdfOutput;
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.CatalogCache;
+import olkalouwaithakaautospares.co.ke.win.utils.InventoryReport;
+import olkalouwaithakaautospares.co.ke.win.utils.ReportExporter;
+import olkalouwaithakaautospares.co.ke.win.utils.StockLevels;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -11,7 +22,6 @@ import javax.swing.border.TitledBorder;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
-import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -33,13 +43,16 @@ public class InventoryPanel extends JPanel {
     private final BaseClient client;
     private final ObjectMapper mapper;
     private final UserSessionManager session;
+    private final CatalogCache catalog;
 
     // Data lists
     private final List<Map<String, Object>> categoriesList = new ArrayList<>();
     private final List<Map<String, Object>> brandsList = new ArrayList<>();
     private final List<Map<String, Object>> stockConditionsList = new ArrayList<>();
-    private final List<Map<String, Object>> productsList = new ArrayList<>();
-    private final List<Map<String, Object>> stockBatchesList = new ArrayList<>();
+    private final List<Product> productsList = new ArrayList<>();
+    private final List<StockBatch> stockBatchesList = new ArrayList<>();
+    // Remaining stock per product, rebuilt with the batch list and patched on batch add/edit
+    private volatile StockLevels stockLevels = new StockLevels(0);
 
     // Category components
     private JTable categoriesTable;
@@ -64,7 +77,7 @@ public class InventoryPanel extends JPanel {
 
     // Product components
     private JTable productsTable;
-    private DefaultTableModel productsModel;
+    private ColumnarTableModel productsModel;
     private JComboBox<String> productCategoryCombo;
     private JPanel productBrandsCheckboxPanel;
     private JScrollPane brandsScrollPane;
@@ -88,7 +101,7 @@ public class InventoryPanel extends JPanel {
 
     // Stock Batch components - UPDATED with Edit functionality
     private JTable stockBatchesTable;
-    private DefaultTableModel stockBatchesModel;
+    private ColumnarTableModel stockBatchesModel;
     private JComboBox<String> batchProductCombo;
     private JComboBox<String> batchStockConditionCombo;
     private JTextField batchNumberField;
@@ -117,6 +130,7 @@ public class InventoryPanel extends JPanel {
         this.client = BaseClient.getInstance();
         this.mapper = client.getMapper();
         this.session = UserSessionManager.getInstance();
+        this.catalog = CatalogCache.getInstance();
 
         initUI();
         loadAllData();
@@ -164,7 +178,10 @@ public class InventoryPanel extends JPanel {
 
         JButton refreshBtn = new JButton("Refresh All");
         styleButton(refreshBtn, new Color(33, 150, 243));
-        refreshBtn.addActionListener(e -> loadAllData());
+        refreshBtn.addActionListener(e -> {
+            catalog.invalidateAll();
+            loadAllData();
+        });
 
         JButton reportBtn = new JButton("Generate Report");
         styleButton(reportBtn, new Color(156, 39, 176));
@@ -512,15 +529,10 @@ public class InventoryPanel extends JPanel {
         tableHeaderPanel.add(tableTitle, BorderLayout.WEST);
         tableHeaderPanel.add(actionButtonsPanel, BorderLayout.EAST);
 
-        String[] columns = {"ID", "SKU", "Name", "Category", "Compatible Brands",
-                "Min Price", "Reorder Level", "Active", "Stock"};
-
-        productsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        productsModel = new ColumnarTableModel(
+                Column.integer("ID"), Column.text("SKU"), Column.text("Name"), Column.text("Category"),
+                Column.text("Compatible Brands"), Column.money("Min Price"), Column.integer("Reorder Level"),
+                Column.text("Active"), Column.integer("Stock"));
 
         productsTable = new JTable(productsModel);
         productsTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -528,6 +540,7 @@ public class InventoryPanel extends JPanel {
         productsTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
         productsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         productsTable.getColumnModel().getColumn(7).setCellRenderer(new StatusRenderer());
+        productsModel.installRenderers(productsTable);
 
         // FIX: Set column widths for better visibility
         productsTable.getColumnModel().getColumn(0).setPreferredWidth(50);  // ID
@@ -776,19 +789,17 @@ public class InventoryPanel extends JPanel {
         tableHeaderPanel.add(tableTitle, BorderLayout.WEST);
         tableHeaderPanel.add(actionButtonsPanel, BorderLayout.EAST);
 
-        String[] columns = {"ID", "Product", "Condition", "Batch No", "Buy Price", "Sell Price", "Qty Received", "Qty Left", "Received Date", "Added By"};
-        stockBatchesModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        stockBatchesModel = new ColumnarTableModel(
+                Column.integer("ID"), Column.text("Product"), Column.text("Condition"), Column.text("Batch No"),
+                Column.money("Buy Price"), Column.money("Sell Price"), Column.integer("Qty Received"),
+                Column.integer("Qty Left"), Column.text("Received Date"), Column.text("Added By"));
 
         stockBatchesTable = new JTable(stockBatchesModel);
         stockBatchesTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         stockBatchesTable.setRowHeight(35);
         stockBatchesTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
         stockBatchesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        stockBatchesModel.installRenderers(stockBatchesTable);
 
         // Add selection listener for stock batches table
         stockBatchesTable.getSelectionModel().addListSelectionListener(e -> {
@@ -933,21 +944,12 @@ public class InventoryPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/categories");
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        List<Map<String, Object>> categories = mapper.readValue(resp, new TypeReference<List<Map<String, Object>>>() {});
-                        categoriesList.clear();
-                        categoriesList.addAll(categories);
-
-                        categoriesMap.clear();
-                        for (Map<String, Object> cat : categories) {
-                            Integer id = safeInteger(cat.get("id"));
-                            String name = Objects.toString(cat.get("name"), "");
-                            if (id != null && !name.isEmpty()) {
-                                categoriesMap.put(id, name);
-                            }
-                        }
-                    }
+                    List<Map<String, Object>> categories = catalog.getCategories();
+                    categoriesList.clear();
+                    categoriesList.addAll(categories);
+
+                    categoriesMap.clear();
+                    categoriesMap.putAll(catalog.getCategoryNames());
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -960,7 +962,7 @@ public class InventoryPanel extends JPanel {
                 updateProductCategoryCombo();
             }
         };
-        categoriesWorker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, categoriesWorker);
     }
 
     private void loadBrands() {
@@ -968,21 +970,12 @@ public class InventoryPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/brands");
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        List<Map<String, Object>> brands = mapper.readValue(resp, new TypeReference<List<Map<String, Object>>>() {});
-                        brandsList.clear();
-                        brandsList.addAll(brands);
-
-                        brandsMap.clear();
-                        for (Map<String, Object> brand : brands) {
-                            Integer id = safeInteger(brand.get("id"));
-                            String name = Objects.toString(brand.get("name"), "");
-                            if (id != null && !name.isEmpty()) {
-                                brandsMap.put(id, name);
-                            }
-                        }
-                    }
+                    List<Map<String, Object>> brands = catalog.getBrands();
+                    brandsList.clear();
+                    brandsList.addAll(brands);
+
+                    brandsMap.clear();
+                    brandsMap.putAll(catalog.getBrandNames());
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -995,7 +988,7 @@ public class InventoryPanel extends JPanel {
                 updateBrandCheckboxes();
             }
         };
-        brandsWorker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, brandsWorker);
     }
 
     private void loadStockConditions() {
@@ -1030,7 +1023,7 @@ public class InventoryPanel extends JPanel {
                 updateBatchStockConditionCombo();
             }
         };
-        conditionsWorker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, conditionsWorker);
     }
 
     private void loadProducts() {
@@ -1038,21 +1031,12 @@ public class InventoryPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/products");
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        List<Map<String, Object>> products = mapper.readValue(resp, new TypeReference<List<Map<String, Object>>>() {});
-                        productsList.clear();
-                        productsList.addAll(products);
-
-                        productsMap.clear();
-                        for (Map<String, Object> prod : products) {
-                            Integer id = safeInteger(prod.get("id"));
-                            String name = Objects.toString(prod.get("name"), "");
-                            if (id != null && !name.isEmpty()) {
-                                productsMap.put(id, name);
-                            }
-                        }
-                    }
+                    List<Product> products = catalog.getProducts();
+                    productsList.clear();
+                    productsList.addAll(products);
+
+                    productsMap.clear();
+                    productsMap.putAll(catalog.getProductNames());
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -1065,7 +1049,7 @@ public class InventoryPanel extends JPanel {
                 updateBatchProductCombo();
             }
         };
-        productsWorker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, productsWorker);
     }
 
     private void loadStockBatches() {
@@ -1073,12 +1057,12 @@ public class InventoryPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/stock-batches");
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        List<Map<String, Object>> batches = mapper.readValue(resp, new TypeReference<List<Map<String, Object>>>() {});
-                        stockBatchesList.clear();
-                        stockBatchesList.addAll(batches);
-                    }
+                    // Conditional GET: an unchanged batch list (304) reuses the previously decoded records
+                    List<StockBatch> batches = client.getList("/api/secure/stock-batches", StockBatch.class);
+                    StockLevels levels = StockLevels.of(batches);
+                    stockBatchesList.clear();
+                    stockBatchesList.addAll(batches);
+                    stockLevels = levels;
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -1088,9 +1072,11 @@ public class InventoryPanel extends JPanel {
             @Override
             protected void done() {
                 updateStockBatchesTable();
+                // Stock column depends on the batches
+                updateProductsTable();
             }
         };
-        batchesWorker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, batchesWorker);
     }
 
     // ========== TABLE UPDATES ==========
@@ -1146,90 +1132,52 @@ public class InventoryPanel extends JPanel {
     }
 
     private void updateProductsTable() {
-        SwingUtilities.invokeLater(() -> {
-            productsModel.setRowCount(0);
-            for (Map<String, Object> prod : productsList) {
-                Integer id = safeInteger(prod.get("id"));
-                String sku = Objects.toString(prod.get("sku"), "");
-                String name = Objects.toString(prod.get("name"), "");
-
-                Integer categoryId = safeInteger(prod.get("categoryId"));
-                String categoryName = categoriesMap.getOrDefault(categoryId, "N/A");
-
-                // Get compatible brands
-                List<Integer> compatibleBrandIds = new ArrayList<>();
-                try {
-                    String compatibleBrandsJson = Objects.toString(prod.get("compatibleBrandIds"), "[]");
-                    if (!compatibleBrandsJson.isEmpty()) {
-                        List<Integer> brands = mapper.readValue(compatibleBrandsJson, new TypeReference<List<Integer>>() {});
-                        compatibleBrandIds.addAll(brands);
-                    }
-                } catch (Exception e) {
-                    // Handle JSON parsing error
-                }
-
-                // Build compatible brands string
-                StringBuilder compatibleBrandsStr = new StringBuilder();
-                for (Integer brandId : compatibleBrandIds) {
-                    String brandName = brandsMap.get(brandId);
-                    if (brandName != null) {
-                        if (compatibleBrandsStr.length() > 0) {
-                            compatibleBrandsStr.append(", ");
-                        }
-                        compatibleBrandsStr.append(brandName);
+        SwingUtilities.invokeLater(() -> productsModel.setRows(productsList, (prod, row) -> {
+            String categoryName = categoriesMap.getOrDefault(prod.categoryId(), "N/A");
+
+            // Build compatible brands string (ids were decoded with the product)
+            StringBuilder compatibleBrandsStr = new StringBuilder();
+            for (int brandId : prod.compatibleBrandIds()) {
+                String brandName = brandsMap.get(brandId);
+                if (brandName != null) {
+                    if (compatibleBrandsStr.length() > 0) {
+                        compatibleBrandsStr.append(", ");
                     }
+                    compatibleBrandsStr.append(brandName);
                 }
-                if (compatibleBrandsStr.length() == 0) {
-                    compatibleBrandsStr.append("None");
-                }
-
-                Double minPrice = safeDouble(prod.get("minimumSellingPrice"));
-                Integer reorderLevel = safeInteger(prod.get("reorderLevel"), 0);
-                Boolean isActive = safeBoolean(prod.get("isActive"));
+            }
+            if (compatibleBrandsStr.length() == 0) {
+                compatibleBrandsStr.append("None");
+            }
 
-                // Calculate stock
-                int totalStock = calculateProductStock(id);
+            Boolean isActive = prod.isActive();
 
-                productsModel.addRow(new Object[]{
-                        id, sku, name, categoryName, compatibleBrandsStr.toString(),
-                        String.format("ksh %,.2f", minPrice != null ? minPrice : 0.0),
-                        reorderLevel,
-                        isActive != null && isActive ? "Active" : "Inactive",
-                        totalStock
-                });
-            }
-        });
+            row.set(0, prod.id())
+                    .set(1, Objects.toString(prod.sku(), ""))
+                    .set(2, Objects.toString(prod.name(), ""))
+                    .set(3, categoryName)
+                    .set(4, compatibleBrandsStr.toString())
+                    .set(5, prod.minimumSellingPrice())
+                    .set(6, prod.reorderLevel())
+                    .set(7, isActive != null && isActive ? "Active" : "Inactive")
+                    .set(8, calculateProductStock(prod.id()));
+        }));
     }
 
     private void updateStockBatchesTable() {
-        SwingUtilities.invokeLater(() -> {
-            stockBatchesModel.setRowCount(0);
-            for (Map<String, Object> batch : stockBatchesList) {
-                Integer id = safeInteger(batch.get("id"));
-
-                Integer productId = safeInteger(batch.get("productId"));
-                String productName = productsMap.getOrDefault(productId, "Product #" + productId);
-
-                Integer conditionId = safeInteger(batch.get("conditionId"));
-                String conditionName = stockConditionsMap.getOrDefault(conditionId, "N/A");
-
-                String batchNo = Objects.toString(batch.get("batchNumber"), "");
-                Double buyingPrice = safeDouble(batch.get("buyingPrice"));
-                Double sellingPrice = safeDouble(batch.get("sellingPrice"));
-                Integer qtyReceived = safeInteger(batch.get("quantityReceived"), 0);
-                Integer qtyRemaining = safeInteger(batch.get("quantityRemaining"), 0);
-                String receivedDateRaw = Objects.toString(batch.get("receivedDate"), "");
-                String receivedDate = formatDate(receivedDateRaw);
-                String createdBy = Objects.toString(batch.get("createdByName"), "Admin");
-
-                stockBatchesModel.addRow(new Object[]{
-                        id, productName, conditionName, batchNo,
-                        String.format("ksh %,.2f", buyingPrice != null ? buyingPrice : 0.0),
-                        String.format("ksh %,.2f", sellingPrice != null ? sellingPrice : 0.0),
-                        qtyReceived, qtyRemaining, receivedDate, createdBy
-                });
-            }
-        });
+        SwingUtilities.invokeLater(() -> stockBatchesModel.setRows(stockBatchesList, (batch, row) -> {
+            int productId = batch.productId();
+            row.set(0, batch.id())
+                    .set(1, productsMap.getOrDefault(productId, "Product #" + productId))
+                    .set(2, stockConditionsMap.getOrDefault(batch.conditionId(), "N/A"))
+                    .set(3, Objects.toString(batch.batchNumber(), ""))
+                    .set(4, batch.buyingPrice())
+                    .set(5, batch.sellingPrice())
+                    .set(6, batch.quantityReceived())
+                    .set(7, batch.quantityRemaining())
+                    .set(8, formatDate(Objects.toString(batch.receivedDate(), "")))
+                    .set(9, Objects.toString(batch.createdByName(), "Admin"));
+        }));
     }
 
     // ========== CHECKBOX UPDATES ==========
@@ -1406,13 +1354,14 @@ public class InventoryPanel extends JPanel {
                 if (success) {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
                     clearCategoryForm();
+                    catalog.invalidate(CatalogCache.Section.CATEGORIES);
                     loadAllData();
                 } else {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void addBrand() {
@@ -1450,13 +1399,14 @@ public class InventoryPanel extends JPanel {
                 if (success) {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
                     clearBrandForm();
+                    catalog.invalidate(CatalogCache.Section.BRANDS);
                     loadAllData();
                 } else {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void updateBrand() {
@@ -1499,13 +1449,14 @@ public class InventoryPanel extends JPanel {
                 if (success) {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
                     clearBrandForm();
+                    catalog.invalidate(CatalogCache.Section.BRANDS);
                     loadAllData();
                 } else {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void deleteBrand() {
@@ -1547,13 +1498,14 @@ public class InventoryPanel extends JPanel {
                 if (success) {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
                     clearBrandForm();
+                    catalog.invalidate(CatalogCache.Section.BRANDS);
                     loadAllData();
                 } else {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void addStockCondition() {
@@ -1597,7 +1549,7 @@ public class InventoryPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     // ========== PRODUCT CRUD METHODS ==========
@@ -1701,13 +1653,14 @@ public class InventoryPanel extends JPanel {
                 if (success) {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
                     clearProductForm();
+                    catalog.invalidate(CatalogCache.Section.PRODUCTS);
                     loadAllData();
                 } else {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     // Product Edit functionality
@@ -1719,7 +1672,7 @@ public class InventoryPanel extends JPanel {
         }
 
         int modelRow = productsTable.convertRowIndexToModel(row);
-        selectedProductId = (Integer) productsModel.getValueAt(modelRow, 0);
+        selectedProductId = productsModel.getInt(modelRow, 0, 0);
 
         // Load product details
         loadProductDetails(selectedProductId);
@@ -1757,7 +1710,7 @@ public class InventoryPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void populateProductForm(Map<String, Object> productData) {
@@ -1794,15 +1747,7 @@ public class InventoryPanel extends JPanel {
                 productActiveCheck.setSelected(isActive != null ? isActive : true);
 
                 // Set compatible brands
-                List<Integer> compatibleBrandIds = new ArrayList<>();
-                try {
-                    String compatibleBrandsJson = Objects.toString(productData.get("compatibleBrandIds"), "[]");
-                    if (!compatibleBrandsJson.isEmpty()) {
-                        compatibleBrandIds = mapper.readValue(compatibleBrandsJson, new TypeReference<List<Integer>>() {});
-                    }
-                } catch (Exception e) {
-                    // Handle JSON parsing error
-                }
+                int[] compatibleBrandIds = BrandIdsDeserializer.parse(Objects.toString(productData.get("compatibleBrandIds"), ""));
 
                 // Clear all checkboxes first
                 for (JCheckBox checkBox : brandCheckboxes.values()) {
@@ -1810,7 +1755,7 @@ public class InventoryPanel extends JPanel {
                 }
 
                 // Select compatible brands
-                for (Integer brandId : compatibleBrandIds) {
+                for (int brandId : compatibleBrandIds) {
                     JCheckBox checkBox = brandCheckboxes.get(brandId);
                     if (checkBox != null) {
                         checkBox.setSelected(true);
@@ -1924,13 +1869,14 @@ public class InventoryPanel extends JPanel {
                 if (success) {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
                     clearProductForm();
+                    catalog.invalidate(CatalogCache.Section.PRODUCTS);
                     loadAllData();
                 } else {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void setEditMode(boolean edit) {
@@ -2087,11 +2033,12 @@ public class InventoryPanel extends JPanel {
         SwingWorker<Void, Void> worker = new SwingWorker<>() {
             private boolean success = false;
             private String message = "";
+            private String resp = "";
 
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.post("/api/secure/stock-batches", batchData);
+                    resp = client.post("/api/secure/stock-batches", batchData);
                     success = true;
                     message = "Stock batch added successfully!";
                 } catch (Exception e) {
@@ -2106,13 +2053,13 @@ public class InventoryPanel extends JPanel {
                 if (success) {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
                     clearBatchForm();
-                    loadAllData();
+                    applySavedBatch(resp);
                 } else {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     // NEW: Stock Batch Edit functionality
@@ -2124,7 +2071,7 @@ public class InventoryPanel extends JPanel {
         }
 
         int modelRow = stockBatchesTable.convertRowIndexToModel(row);
-        selectedStockBatchId = (Integer) stockBatchesModel.getValueAt(modelRow, 0);
+        selectedStockBatchId = stockBatchesModel.getInt(modelRow, 0, 0);
 
         // Load stock batch details
         loadStockBatchDetails(selectedStockBatchId);
@@ -2162,7 +2109,7 @@ public class InventoryPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void populateStockBatchForm(Map<String, Object> batchData) {
@@ -2334,12 +2281,13 @@ public class InventoryPanel extends JPanel {
         SwingWorker<Void, Void> worker = new SwingWorker<>() {
             private boolean success = false;
             private String message = "";
+            private String resp = "";
 
             @Override
             protected Void doInBackground() {
                 try {
                     System.out.println("Updating stock batch " + selectedStockBatchId + " with data: " + batchData);
-                    String resp = client.put("/api/secure/stock-batches/" + selectedStockBatchId, batchData);
+                    resp = client.put("/api/secure/stock-batches/" + selectedStockBatchId, batchData);
                     System.out.println("Response: " + resp);
                     success = true;
                     message = "Stock batch updated successfully!";
@@ -2356,13 +2304,13 @@ public class InventoryPanel extends JPanel {
                 if (success) {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
                     clearBatchForm();
-                    loadAllData();
+                    applySavedBatch(resp);
                 } else {
                     JOptionPane.showMessageDialog(InventoryPanel.this, message, "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void setBatchEditMode(boolean edit) {
@@ -2404,138 +2352,107 @@ public class InventoryPanel extends JPanel {
         return "PROD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 
-    private int calculateProductStock(Integer productId) {
-        int totalStock = 0;
-        for (Map<String, Object> batch : stockBatchesList) {
-            Integer batchProdId = safeInteger(batch.get("productId"));
-            if (batchProdId != null && batchProdId.equals(productId)) {
-                totalStock += safeInteger(batch.get("quantityRemaining"), 0);
-            }
-        }
-        return totalStock;
+    private int calculateProductStock(int productId) {
+        return stockLevels.stockOf(productId);
     }
 
-    private void showInventoryReport() {
-        StringBuilder report = new StringBuilder();
-        report.append("INVENTORY REPORT - OL KALOU WAITHAKA AUTO SPARES\n");
-        report.append("=================================================\n\n");
-
-        report.append("SUMMARY\n");
-        report.append("-------\n");
-        report.append(String.format("Total Categories: %d\n", categoriesList.size()));
-        report.append(String.format("Total Vehicle Brands: %d\n", brandsList.size()));
-        report.append(String.format("Total Stock Conditions: %d\n", stockConditionsList.size()));
-        report.append(String.format("Total Products: %d\n", productsList.size()));
-        report.append(String.format("Total Stock Batches: %d\n", stockBatchesList.size()));
-
-        double totalStockValue = 0.0;
-        int lowStockProducts = 0;
-        Map<Integer, Integer> brandProductCount = new HashMap<>();
-
-        for (Map<String, Object> prod : productsList) {
-            Integer prodId = safeInteger(prod.get("id"));
-            Integer reorderLevel = safeInteger(prod.get("reorderLevel"), 0);
-
-            int stock = calculateProductStock(prodId);
-            double stockValue = 0;
-
-            for (Map<String, Object> batch : stockBatchesList) {
-                if (safeInteger(batch.get("productId")).equals(prodId)) {
-                    int qty = safeInteger(batch.get("quantityRemaining"), 0);
-                    Double buyingPrice = safeDouble(batch.get("buyingPrice"));
-                    stockValue += qty * (buyingPrice != null ? buyingPrice : 0);
-                }
-            }
-
-            totalStockValue += stockValue;
-
-            if (stock <= reorderLevel && stock > 0) {
-                lowStockProducts++;
-            }
-
-            // Count products per brand
-            try {
-                String compatibleBrandsJson = Objects.toString(prod.get("compatibleBrandIds"), "[]");
-                if (!compatibleBrandsJson.isEmpty()) {
-                    List<Integer> brandIds = mapper.readValue(compatibleBrandsJson, new TypeReference<List<Integer>>() {});
-                    for (Integer brandId : brandIds) {
-                        brandProductCount.put(brandId, brandProductCount.getOrDefault(brandId, 0) + 1);
-                    }
-                }
-            } catch (Exception e) {
-                // Ignore JSON parsing errors
-            }
-        }
-
-        report.append(String.format("Total Stock Value: ksh %,.2f\n", totalStockValue));
-        report.append(String.format("Products Low on Stock: %d\n\n", lowStockProducts));
-
-        // Low stock warning
-        report.append("LOW STOCK WARNINGS\n");
-        report.append("------------------\n");
-        for (Map<String, Object> prod : productsList) {
-            Integer prodId = safeInteger(prod.get("id"));
-            String prodName = Objects.toString(prod.get("name"), "");
-            Integer reorderLevel = safeInteger(prod.get("reorderLevel"), 0);
-
-            int stock = calculateProductStock(prodId);
-
-            if (stock <= reorderLevel) {
-                report.append(String.format("⚠ %s: %d in stock (Reorder at: %d)\n",
-                        prodName, stock, reorderLevel));
+    // Applies a batch returned by POST/PUT /api/secure/stock-batches in place instead of refetching every batch.
+    // Falls back to a full reload when the response does not carry the saved batch.
+    private void applySavedBatch(String resp) {
+        StockBatch saved = null;
+        try {
+            List<StockBatch> parsed = client.parseResponseList(resp, StockBatch.class);
+            if (!parsed.isEmpty() && parsed.get(0).id() > 0 && parsed.get(0).productId() > 0) {
+                saved = parsed.get(0);
             }
+        } catch (Exception e) {
+            e.printStackTrace();
         }
 
-        // Brand compatibility summary
-        report.append("\nPRODUCTS PER VEHICLE BRAND\n");
-        report.append("-------------------------\n");
-        for (Map.Entry<Integer, String> entry : brandsMap.entrySet()) {
-            Integer brandId = entry.getKey();
-            String brandName = entry.getValue();
-            int productCount = brandProductCount.getOrDefault(brandId, 0);
-            report.append(String.format("%s: %d compatible products\n", brandName, productCount));
+        if (saved == null) {
+            loadAllData();
+            return;
         }
 
-        // Stock condition summary
-        report.append("\nSTOCK BY CONDITION\n");
-        report.append("-----------------\n");
-        Map<Integer, Integer> conditionStockCount = new HashMap<>();
-        Map<Integer, Double> conditionStockValue = new HashMap<>();
-
-        for (Map<String, Object> batch : stockBatchesList) {
-            Integer conditionId = safeInteger(batch.get("conditionId"));
-            Integer qty = safeInteger(batch.get("quantityRemaining"), 0);
-            Double buyingPrice = safeDouble(batch.get("buyingPrice"));
-
-            if (conditionId != null) {
-                conditionStockCount.put(conditionId, conditionStockCount.getOrDefault(conditionId, 0) + qty);
-                conditionStockValue.put(conditionId, conditionStockValue.getOrDefault(conditionId, 0.0) + (qty * (buyingPrice != null ? buyingPrice : 0)));
+        StockBatch previous = null;
+        for (int i = 0; i < stockBatchesList.size(); i++) {
+            if (stockBatchesList.get(i).id() == saved.id()) {
+                previous = stockBatchesList.set(i, saved);
+                break;
             }
         }
-
-        for (Map.Entry<Integer, String> entry : stockConditionsMap.entrySet()) {
-            Integer conditionId = entry.getKey();
-            String conditionName = entry.getValue();
-            int count = conditionStockCount.getOrDefault(conditionId, 0);
-            double value = conditionStockValue.getOrDefault(conditionId, 0.0);
-
-            if (count > 0) {
-                report.append(String.format("%s: %d units worth ksh %,.2f\n",
-                        conditionName, count, value));
-            }
+        if (previous == null) {
+            stockBatchesList.add(saved);
         }
+        stockLevels.apply(previous, saved);
 
-        report.append("\nReport Generated: " + new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date()));
+        updateStockBatchesTable();
+        updateProductsTable();
+    }
 
-        // Display report
-        JTextArea textArea = new JTextArea(report.toString());
+    private void showInventoryReport() {
+        // Snapshots taken on the EDT; the report itself is computed off it
+        List<Product> products = new ArrayList<>(productsList);
+        List<StockBatch> batches = new ArrayList<>(stockBatchesList);
+        Map<Integer, String> brands = new LinkedHashMap<>(brandsMap);
+        Map<Integer, String> conditions = new LinkedHashMap<>(stockConditionsMap);
+        int categoryCount = categoriesList.size();
+        int brandCount = brandsList.size();
+        int conditionCount = stockConditionsList.size();
+
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE,
+                () -> InventoryReport.compute(products, batches, brands, conditions,
+                        categoryCount, brandCount, conditionCount),
+                report -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    displayInventoryReport(report);
+                },
+                error -> {
+                    setCursor(Cursor.getDefaultCursor());
+                    error.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Failed to build inventory report: " + error.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void displayInventoryReport(InventoryReport report) {
+        JTextArea textArea = new JTextArea(report.toText());
         textArea.setEditable(false);
         textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
 
         JScrollPane scrollPane = new JScrollPane(textArea);
         scrollPane.setPreferredSize(new Dimension(700, 500));
 
-        JOptionPane.showMessageDialog(this, scrollPane, "Inventory Report", JOptionPane.INFORMATION_MESSAGE);
+        String name = "inventory_report_" + report.getGeneratedAt().toLocalDate();
+        String[] options = {"Save PDF", "Export CSV", "Close"};
+        int choice = JOptionPane.showOptionDialog(this, scrollPane, "Inventory Report", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.INFORMATION_MESSAGE, null, options, options[2]);
+        if (choice == 0) {
+            PdfOutput.save(this, name,
+                    (renderer, file) -> renderer.renderInventory(report.summary(), report.toPdfTables(), file));
+        } else if (choice == 1) {
+            exportInventoryCsv(report, name);
+        }
+    }
+
+    private void exportInventoryCsv(InventoryReport report, String name) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Inventory Report");
+        fileChooser.setSelectedFile(new java.io.File(name + ".csv"));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        java.io.File chosen = fileChooser.getSelectedFile();
+        String lower = chosen.getName().toLowerCase();
+        java.io.File file = lower.endsWith(".csv") || lower.endsWith(".xlsx")
+                ? chosen : new java.io.File(chosen.getParentFile(), chosen.getName() + ".csv");
+
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND,
+                () -> new ReportExporter().exportInventory(report, file.toPath(), null),
+                rows -> JOptionPane.showMessageDialog(this, "Exported to\n" + file,
+                        "Export", JOptionPane.INFORMATION_MESSAGE),
+                error -> JOptionPane.showMessageDialog(this, "Export failed: " + error.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     private Integer getKeyByValue(Map<Integer, String> map, String value) {
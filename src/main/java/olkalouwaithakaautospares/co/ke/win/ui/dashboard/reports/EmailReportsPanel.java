@@ -1,6 +1,7 @@
 package olkalouwaithakaautospares.co.ke.win.ui.dashboard.reports;
 
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -465,7 +466,7 @@ public class EmailReportsPanel extends JPanel {
             }
         };
 
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private Map<String, String> validateReportDates(String reportType) {
@@ -1,13 +1,19 @@
 package olkalouwaithakaautospares.co.ke.win.ui.dashboard.reports;
 
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel.Column;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.PdfOutput;
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.CatalogCache;
+import olkalouwaithakaautospares.co.ke.win.utils.DailySummaryStore;
+import olkalouwaithakaautospares.co.ke.win.utils.ReportExporter;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import javax.swing.RowFilter;
 import java.awt.*;
@@ -31,6 +37,7 @@ public class ReportingPanel extends JPanel {
     private final BaseClient client;
     private final ObjectMapper mapper;
     private final UserSessionManager session;
+    private final DailySummaryStore reports;
 
     // Date formatters
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
@@ -38,7 +45,7 @@ public class ReportingPanel extends JPanel {
 
     // Daily Summary components
     private JTable dailyTable;
-    private DefaultTableModel dailyModel;
+    private ColumnarTableModel dailyModel;
     private JTextField dailyDateField;
     private JTextField dailyFromField;
     private JTextField dailyToField;
@@ -47,8 +54,8 @@ public class ReportingPanel extends JPanel {
 
     // Product Stats components
     private JTable productTable;
-    private DefaultTableModel productModel;
-    private TableRowSorter<DefaultTableModel> productSorter;
+    private ColumnarTableModel productModel;
+    private TableRowSorter<ColumnarTableModel> productSorter;
     private JTextField productDateField;
     private JTextField productFromField;
     private JTextField productToField;
@@ -58,7 +65,7 @@ public class ReportingPanel extends JPanel {
 
     // Cashier Performance components
     private JTable cashierTable;
-    private DefaultTableModel cashierModel;
+    private ColumnarTableModel cashierModel;
     private JTextField cashierDateField;
     private JTextField cashierFromField;
     private JTextField cashierToField;
@@ -78,12 +85,17 @@ public class ReportingPanel extends JPanel {
         this.client = BaseClient.getInstance();
         this.mapper = client.getMapper();
         this.session = UserSessionManager.getInstance();
+        this.reports = DailySummaryStore.getInstance();
         initUI();
         loadDailySummaryForToday();
         loadProductStatsForToday();
         loadCashierPerformanceForToday();
         preloadProductNames();
         preloadCashierNames();
+
+        CatalogCache.getInstance().addListener(section -> {
+            if (section == CatalogCache.Section.PRODUCTS) preloadProductNames();
+        });
     }
 
     // ---------- UI Initialization ----------
@@ -124,15 +136,19 @@ public class ReportingPanel extends JPanel {
         buttonPanel.setOpaque(false);
         JButton refreshBtn = new JButton("Refresh All Reports");
         JButton exportBtn = new JButton("Export Data");
+        JButton pdfBtn = new JButton("Save PDF");
 
         styleButton(refreshBtn, new Color(33, 150, 243));
         styleButton(exportBtn, new Color(76, 175, 80));
+        styleButton(pdfBtn, new Color(121, 85, 72));
 
         refreshBtn.addActionListener(e -> refreshAllReports());
         exportBtn.addActionListener(e -> exportData());
+        pdfBtn.addActionListener(e -> savePdf());
 
         buttonPanel.add(refreshBtn);
         buttonPanel.add(exportBtn);
+        buttonPanel.add(pdfBtn);
 
         header.add(title, BorderLayout.WEST);
         header.add(buttonPanel, BorderLayout.EAST);
@@ -221,18 +237,15 @@ public class ReportingPanel extends JPanel {
         filterPanel.add(dailySummaryArea, gbc);
 
         // Daily table
-        String[] columns = {"Date", "Total Sales", "Total Profit", "Paid Sales", "Credit Sales", "Transactions"};
-        dailyModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        dailyModel = new ColumnarTableModel(
+                Column.text("Date"), Column.money("Total Sales"), Column.money("Total Profit"),
+                Column.money("Paid Sales"), Column.money("Credit Sales"), Column.integer("Transactions"));
 
         dailyTable = new JTable(dailyModel);
         dailyTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         dailyTable.setRowHeight(36);
         dailyTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
+        dailyModel.installRenderers(dailyTable);
 
         // Add selection listener to show details
         dailyTable.getSelectionModel().addListSelectionListener(e -> {
@@ -381,13 +394,9 @@ public class ReportingPanel extends JPanel {
         productSummaryArea.setRows(2);
 
         // Product table
-        String[] columns = {"Product ID", "Product Name", "Date", "Quantity Sold", "Revenue", "Profit", "Profit %"};
-        productModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        productModel = new ColumnarTableModel(
+                Column.integer("Product ID").orElse("N/A"), Column.text("Product Name"), Column.text("Date"),
+                Column.integer("Quantity Sold"), Column.money("Revenue"), Column.money("Profit"), Column.percent("Profit %"));
 
         productTable = new JTable(productModel);
         productTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -397,6 +406,7 @@ public class ReportingPanel extends JPanel {
         // Add sorter for filtering
         productSorter = new TableRowSorter<>(productModel);
         productTable.setRowSorter(productSorter);
+        productModel.installRenderers(productTable);
 
         // --- LIVE FILTER: attach DocumentListener after sorter exists ---
         productSearchField.getDocument().addDocumentListener(new DocumentListener() {
@@ -494,18 +504,16 @@ public class ReportingPanel extends JPanel {
         filterPanel.add(cashierSummaryArea, gbc);
 
         // Cashier table
-        String[] columns = {"Cashier ID", "Cashier Name", "Date", "Total Sales", "Paid Sales", "Credit Sales", "Transactions", "Avg. Sale"};
-        cashierModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        cashierModel = new ColumnarTableModel(
+                Column.integer("Cashier ID").orElse("N/A"), Column.text("Cashier Name"), Column.text("Date"),
+                Column.money("Total Sales"), Column.money("Paid Sales"), Column.money("Credit Sales"),
+                Column.integer("Transactions"), Column.money("Avg. Sale"));
 
         cashierTable = new JTable(cashierModel);
         cashierTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         cashierTable.setRowHeight(36);
         cashierTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
+        cashierModel.installRenderers(cashierTable);
 
         JScrollPane scrollPane = new JScrollPane(cashierTable);
         scrollPane.setBorder(BorderFactory.createTitledBorder("Cashier Performance"));
@@ -539,19 +547,9 @@ public class ReportingPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/reports/daily?date=" + dateStr);
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        try {
-                            summary = client.parseResponse(resp);
-                        } catch (Exception ex) {
-                            Map<String, Object> r = client.parseResponse(resp);
-                            if (r != null && r.containsKey("data") && r.get("data") instanceof Map) {
-                                summary = (Map<String, Object>) r.get("data");
-                            } else {
-                                summary = r;
-                            }
-                        }
-                    }
+                    LocalDate date = LocalDate.parse(dateStr, dateFormatter);
+                    List<Map<String, Object>> rows = reports.rows(DailySummaryStore.Report.DAILY, date, date);
+                    summary = rows.isEmpty() ? null : rows.get(0);
                 } catch (Exception ex) {
                     error = ex;
                     ex.printStackTrace();
@@ -567,7 +565,7 @@ public class ReportingPanel extends JPanel {
                 }
 
                 dailyData.clear();
-                dailyModel.setRowCount(0);
+                dailyModel.clear();
 
                 if (summary != null) {
                     dailyData.add(summary);
@@ -595,7 +593,7 @@ public class ReportingPanel extends JPanel {
             }
         };
 
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void loadDailySummaryForRange() {
@@ -631,26 +629,15 @@ public class ReportingPanel extends JPanel {
         SwingWorker<Void, Void> worker = new SwingWorker<>() {
             private Exception error = null;
             private List<Map<String, Object>> summaries = new ArrayList<>();
+            private Map<String, Double> totals = new HashMap<>();
 
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get(
-                            "/api/secure/reports/daily/range?from=" + fromStr + "&to=" + toStr
-                    );
-
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        try {
-                            summaries = client.parseResponseList(resp);
-                        } catch (Exception ex) {
-                            Map<String, Object> r = client.parseResponse(resp);
-                            if (r != null && r.containsKey("data") && r.get("data") instanceof List) {
-                                summaries = (List<Map<String, Object>>) r.get("data");
-                            } else {
-                                summaries = new ArrayList<>();
-                            }
-                        }
-                    }
+                    LocalDate from = LocalDate.parse(fromStr, dateFormatter);
+                    LocalDate to = LocalDate.parse(toStr, dateFormatter);
+                    summaries = reports.rows(DailySummaryStore.Report.DAILY, from, to);
+                    totals = reports.totals(DailySummaryStore.Report.DAILY, from, to);
                 } catch (Exception ex) {
                     error = ex;
                     ex.printStackTrace();
@@ -666,34 +653,20 @@ public class ReportingPanel extends JPanel {
                 }
 
                 dailyData.clear();
-                dailyModel.setRowCount(0);
+                dailyModel.clear();
 
                 if (summaries != null && !summaries.isEmpty()) {
                     dailyData.addAll(summaries);
                     updateDailyTable();
 
-                    double totalSales = 0;
-                    double totalProfit = 0;
-                    int totalTransactions = 0;
-
-                    for (Map<String, Object> summary : summaries) {
-                        totalSales += safeDoubleFromObject(summary.get("totalSales"), 0.0);
-                        totalProfit += safeDoubleFromObject(summary.get("totalProfit"), 0.0);
-                        totalTransactions += safeIntegerFromObject(summary.get("totalTransactions"), 0);
-                    }
-
-                    double avgSale = totalTransactions > 0
-                            ? totalSales / totalTransactions
-                            : 0;
-
                     String summaryText = String.format(
                             "Range: %s to %s | Days: %d | Total Sales: ksh %,.2f | Total Profit: ksh %,.2f | Avg/Day: ksh %,.2f",
                             formatDisplayDate(fromStr),
                             formatDisplayDate(toStr),
-                            summaries.size(),
-                            totalSales,
-                            totalProfit,
-                            totalSales / summaries.size()
+                            totals.getOrDefault("days", 0.0).intValue(),
+                            totals.getOrDefault("totalSales", 0.0),
+                            totals.getOrDefault("totalProfit", 0.0),
+                            totals.getOrDefault("totalSalesPerDay", 0.0)
                     );
 
                     SwingUtilities.invokeLater(() -> {
@@ -709,7 +682,7 @@ public class ReportingPanel extends JPanel {
             }
         };
 
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
 
@@ -735,19 +708,8 @@ public class ReportingPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/reports/products?date=" + dateStr);
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        try {
-                            stats = client.parseResponseList(resp);
-                        } catch (Exception ex) {
-                            Map<String, Object> r = client.parseResponse(resp);
-                            if (r != null && r.containsKey("data") && r.get("data") instanceof List) {
-                                stats = (List<Map<String, Object>>) r.get("data");
-                            } else {
-                                stats = new ArrayList<>();
-                            }
-                        }
-                    }
+                    LocalDate date = LocalDate.parse(dateStr, dateFormatter);
+                    stats = reports.rollup(DailySummaryStore.Report.PRODUCTS, date, date);
                 } catch (Exception ex) {
                     error = ex;
                     ex.printStackTrace();
@@ -763,7 +725,7 @@ public class ReportingPanel extends JPanel {
                 }
 
                 productData.clear();
-                productModel.setRowCount(0);
+                productModel.clear();
 
                 if (stats != null && !stats.isEmpty()) {
                     productData.addAll(stats);
@@ -799,7 +761,7 @@ public class ReportingPanel extends JPanel {
             }
         };
 
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void loadProductStatsForRange() {
@@ -836,19 +798,8 @@ public class ReportingPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/reports/products/range?from=" + fromStr + "&to=" + toStr);
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        try {
-                            stats = client.parseResponseList(resp);
-                        } catch (Exception ex) {
-                            Map<String, Object> r = client.parseResponse(resp);
-                            if (r != null && r.containsKey("data") && r.get("data") instanceof List) {
-                                stats = (List<Map<String, Object>>) r.get("data");
-                            } else {
-                                stats = new ArrayList<>();
-                            }
-                        }
-                    }
+                    stats = reports.rollup(DailySummaryStore.Report.PRODUCTS,
+                            LocalDate.parse(fromStr, dateFormatter), LocalDate.parse(toStr, dateFormatter));
                 } catch (Exception ex) {
                     error = ex;
                     ex.printStackTrace();
@@ -864,7 +815,7 @@ public class ReportingPanel extends JPanel {
                 }
 
                 productData.clear();
-                productModel.setRowCount(0);
+                productModel.clear();
 
                 if (stats != null && !stats.isEmpty()) {
                     productData.addAll(stats);
@@ -892,7 +843,7 @@ public class ReportingPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void loadCashierPerformanceForDate() {
@@ -917,19 +868,8 @@ public class ReportingPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/reports/cashiers?date=" + dateStr);
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        try {
-                            performances = client.parseResponseList(resp);
-                        } catch (Exception ex) {
-                            Map<String, Object> r = client.parseResponse(resp);
-                            if (r != null && r.containsKey("data") && r.get("data") instanceof List) {
-                                performances = (List<Map<String, Object>>) r.get("data");
-                            } else {
-                                performances = new ArrayList<>();
-                            }
-                        }
-                    }
+                    LocalDate date = LocalDate.parse(dateStr, dateFormatter);
+                    performances = reports.rollup(DailySummaryStore.Report.CASHIERS, date, date);
                 } catch (Exception ex) {
                     error = ex;
                     ex.printStackTrace();
@@ -945,7 +885,7 @@ public class ReportingPanel extends JPanel {
                 }
 
                 cashierData.clear();
-                cashierModel.setRowCount(0);
+                cashierModel.clear();
 
                 if (performances != null && !performances.isEmpty()) {
                     cashierData.addAll(performances);
@@ -983,7 +923,7 @@ public class ReportingPanel extends JPanel {
             }
         };
 
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void loadCashierPerformanceForRange() {
@@ -1020,19 +960,8 @@ public class ReportingPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/reports/cashiers/range?from=" + fromStr + "&to=" + toStr);
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        try {
-                            performances = client.parseResponseList(resp);
-                        } catch (Exception ex) {
-                            Map<String, Object> r = client.parseResponse(resp);
-                            if (r != null && r.containsKey("data") && r.get("data") instanceof List) {
-                                performances = (List<Map<String, Object>>) r.get("data");
-                            } else {
-                                performances = new ArrayList<>();
-                            }
-                        }
-                    }
+                    performances = reports.rollup(DailySummaryStore.Report.CASHIERS,
+                            LocalDate.parse(fromStr, dateFormatter), LocalDate.parse(toStr, dateFormatter));
                 } catch (Exception ex) {
                     error = ex;
                     ex.printStackTrace();
@@ -1048,7 +977,7 @@ public class ReportingPanel extends JPanel {
                 }
 
                 cashierData.clear();
-                cashierModel.setRowCount(0);
+                cashierModel.clear();
 
                 if (performances != null && !performances.isEmpty()) {
                     cashierData.addAll(performances);
@@ -1078,7 +1007,7 @@ public class ReportingPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     // ---------- Default Loaders ----------
@@ -1102,82 +1031,62 @@ public class ReportingPanel extends JPanel {
 
     // ---------- UI Update Methods ----------
     private void updateDailyTable() {
-        SwingUtilities.invokeLater(() -> {
-            dailyModel.setRowCount(0);
-            for (Map<String, Object> summary : dailyData) {
-                String date = formatDisplayDate(Objects.toString(summary.get("saleDate"), ""));
-                Double totalSales = safeDoubleFromObject(summary.get("totalSales"));
-                Double totalProfit = safeDoubleFromObject(summary.get("totalProfit"));
-                Double paidSales = safeDoubleFromObject(summary.get("paidSales"));
-                Double creditSales = safeDoubleFromObject(summary.get("creditSales"));
-                Integer transactions = safeIntegerFromObject(summary.get("totalTransactions"));
-
-                dailyModel.addRow(new Object[]{
-                        date,
-                        String.format("ksh %,.2f", totalSales != null ? totalSales : 0.0),
-                        String.format("ksh %,.2f", totalProfit != null ? totalProfit : 0.0),
-                        String.format("ksh %,.2f", paidSales != null ? paidSales : 0.0),
-                        String.format("ksh %,.2f", creditSales != null ? creditSales : 0.0),
-                        transactions != null ? transactions : 0
-                });
-            }
-        });
+        SwingUtilities.invokeLater(() -> dailyModel.setRows(dailyData, (summary, row) -> {
+            Double totalSales = safeDoubleFromObject(summary.get("totalSales"));
+            Double totalProfit = safeDoubleFromObject(summary.get("totalProfit"));
+            Double paidSales = safeDoubleFromObject(summary.get("paidSales"));
+            Double creditSales = safeDoubleFromObject(summary.get("creditSales"));
+            Integer transactions = safeIntegerFromObject(summary.get("totalTransactions"));
+
+            row.set(0, formatDisplayDate(Objects.toString(summary.get("saleDate"), "")))
+                    .set(1, totalSales != null ? totalSales : 0.0)
+                    .set(2, totalProfit != null ? totalProfit : 0.0)
+                    .set(3, paidSales != null ? paidSales : 0.0)
+                    .set(4, creditSales != null ? creditSales : 0.0)
+                    .set(5, transactions != null ? transactions : 0);
+        }));
     }
 
     private void updateProductTable() {
-        SwingUtilities.invokeLater(() -> {
-            productModel.setRowCount(0);
-            for (Map<String, Object> stat : productData) {
-                Integer productId = safeIntegerFromObject(stat.get("productId"));
-                String productName = getProductName(productId);
-                String date = formatDisplayDate(Objects.toString(stat.get("saleDate"), ""));
-                Integer quantity = safeIntegerFromObject(stat.get("quantitySold"));
-                Double revenue = safeDoubleFromObject(stat.get("revenue"));
-                Double profit = safeDoubleFromObject(stat.get("profit"));
-
-                double profitPercent = (revenue != null && revenue > 0 && profit != null) ?
-                        (profit / revenue * 100) : 0;
-
-                productModel.addRow(new Object[]{
-                        productId != null ? productId : "N/A",
-                        productName,
-                        date,
-                        quantity != null ? quantity : 0,
-                        String.format("ksh %,.2f", revenue != null ? revenue : 0.0),
-                        String.format("ksh %,.2f", profit != null ? profit : 0.0),
-                        String.format("%.1f%%", profitPercent)
-                });
-            }
-        });
+        SwingUtilities.invokeLater(() -> productModel.setRows(productData, (stat, row) -> {
+            Integer productId = safeIntegerFromObject(stat.get("productId"));
+            Integer quantity = safeIntegerFromObject(stat.get("quantitySold"));
+            Double revenue = safeDoubleFromObject(stat.get("revenue"));
+            Double profit = safeDoubleFromObject(stat.get("profit"));
+
+            double profitPercent = (revenue != null && revenue > 0 && profit != null) ?
+                    (profit / revenue * 100) : 0;
+
+            row.set(0, productId)
+                    .set(1, getProductName(productId))
+                    .set(2, formatDisplayDate(Objects.toString(stat.get("saleDate"), "")))
+                    .set(3, quantity != null ? quantity : 0)
+                    .set(4, revenue != null ? revenue : 0.0)
+                    .set(5, profit != null ? profit : 0.0)
+                    .set(6, profitPercent);
+        }));
     }
 
     private void updateCashierTable() {
-        SwingUtilities.invokeLater(() -> {
-            cashierModel.setRowCount(0);
-            for (Map<String, Object> perf : cashierData) {
-                Integer cashierId = safeIntegerFromObject(perf.get("cashierId"));
-                String cashierName = getCashierName(cashierId);
-                String date = formatDisplayDate(Objects.toString(perf.get("saleDate"), ""));
-                Double totalSales = safeDoubleFromObject(perf.get("totalSales"));
-                Double paidSales = safeDoubleFromObject(perf.get("paidSales"));
-                Double creditSales = safeDoubleFromObject(perf.get("creditSales"));
-                Integer transactions = safeIntegerFromObject(perf.get("totalTransactions"));
-
-                double avgSale = (totalSales != null && transactions != null && transactions > 0) ?
-                        totalSales / transactions : 0;
-
-                cashierModel.addRow(new Object[]{
-                        cashierId != null ? cashierId : "N/A",
-                        cashierName,
-                        date,
-                        String.format("ksh %,.2f", totalSales != null ? totalSales : 0.0),
-                        String.format("ksh %,.2f", paidSales != null ? paidSales : 0.0),
-                        String.format("ksh %,.2f", creditSales != null ? creditSales : 0.0),
-                        transactions != null ? transactions : 0,
-                        String.format("ksh %,.2f", avgSale)
-                });
-            }
-        });
+        SwingUtilities.invokeLater(() -> cashierModel.setRows(cashierData, (perf, row) -> {
+            Integer cashierId = safeIntegerFromObject(perf.get("cashierId"));
+            Double totalSales = safeDoubleFromObject(perf.get("totalSales"));
+            Double paidSales = safeDoubleFromObject(perf.get("paidSales"));
+            Double creditSales = safeDoubleFromObject(perf.get("creditSales"));
+            Integer transactions = safeIntegerFromObject(perf.get("totalTransactions"));
+
+            double avgSale = (totalSales != null && transactions != null && transactions > 0) ?
+                    totalSales / transactions : 0;
+
+            row.set(0, cashierId)
+                    .set(1, getCashierName(cashierId))
+                    .set(2, formatDisplayDate(Objects.toString(perf.get("saleDate"), "")))
+                    .set(3, totalSales != null ? totalSales : 0.0)
+                    .set(4, paidSales != null ? paidSales : 0.0)
+                    .set(5, creditSales != null ? creditSales : 0.0)
+                    .set(6, transactions != null ? transactions : 0)
+                    .set(7, avgSale);
+        }));
     }
 
     // ---------- Preloading Data Methods ----------
@@ -1186,24 +1095,14 @@ public class ReportingPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/products");
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        List<Map<String, Object>> products = client.parseResponseList(resp);
-                        for (Map<String, Object> product : products) {
-                            Integer id = safeIntegerFromObject(product.get("id"));
-                            String name = Objects.toString(product.get("name"), "");
-                            if (id != null && !name.isEmpty()) {
-                                productNameCache.put(id, name);
-                            }
-                        }
-                    }
+                    productNameCache.putAll(CatalogCache.getInstance().getProductNames());
                 } catch (Exception ex) {
                     ex.printStackTrace();
                 }
                 return null;
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void preloadCashierNames() {
@@ -1229,7 +1128,7 @@ public class ReportingPanel extends JPanel {
                 return null;
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private String getProductName(Integer productId) {
@@ -1262,7 +1161,7 @@ public class ReportingPanel extends JPanel {
             // anchor at start so "12" matches 12, 120, 1234 etc.
             String regex = "^" + Pattern.quote(query);
             try {
-                RowFilter<DefaultTableModel, Object> rf = RowFilter.regexFilter(regex, 0);
+                RowFilter<ColumnarTableModel, Object> rf = RowFilter.regexFilter(regex, 0);
                 productSorter.setRowFilter(rf);
             } catch (Exception ex) {
                 // fallback to no filter on error
@@ -1273,7 +1172,7 @@ public class ReportingPanel extends JPanel {
 
         // Non-numeric -> search product name column (column 1), case-insensitive substring
         try {
-            RowFilter<DefaultTableModel, Object> rf = RowFilter.regexFilter("(?i)" + Pattern.quote(query), 1);
+            RowFilter<ColumnarTableModel, Object> rf = RowFilter.regexFilter("(?i)" + Pattern.quote(query), 1);
             productSorter.setRowFilter(rf);
         } catch (Exception ex) {
             productSorter.setRowFilter(null);
@@ -1282,25 +1181,205 @@ public class ReportingPanel extends JPanel {
 
     // ---------- Event Handlers ----------
     private void refreshAllReports() {
+        // An explicit refresh asks the server again, e.g. after a backdated return
+        reports.invalidate();
         loadDailySummaryForToday();
         loadProductStatsForToday();
         loadCashierPerformanceForToday();
     }
 
     private void exportData() {
+        String[] types = {"Daily Summary", "Product Stats", "Cashier Performance", "Sales"};
+        JComboBox<String> typeCombo = new JComboBox<>(types);
+        JTextField fromField = new JTextField(dailyFromField.getText().trim(), 10);
+        JTextField toField = new JTextField(dailyToField.getText().trim(), 10);
+
+        JPanel options = new JPanel(new GridLayout(3, 2, 5, 5));
+        options.add(new JLabel("Report:"));
+        options.add(typeCombo);
+        options.add(new JLabel("From (yyyy-MM-dd):"));
+        options.add(fromField);
+        options.add(new JLabel("To (yyyy-MM-dd):"));
+        options.add(toField);
+
+        if (JOptionPane.showConfirmDialog(this, options, "Export Report Data",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(fromField.getText().trim(), dateFormatter);
+            to = LocalDate.parse(toField.getText().trim(), dateFormatter);
+        } catch (DateTimeParseException e) {
+            showError("Invalid date format. Use yyyy-MM-dd");
+            return;
+        }
+        if (from.isAfter(to)) {
+            showError("From date must be before or equal to To date");
+            return;
+        }
+
+        int type = typeCombo.getSelectedIndex();
+        String baseName = types[type].toLowerCase().replace(' ', '_') + "_" + from.format(dateFormatter)
+                + "_" + to.format(dateFormatter);
+
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Export Report Data");
-        fileChooser.setSelectedFile(new java.io.File("report_" +
-                LocalDate.now().format(dateFormatter) + ".csv"));
-
-        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            JOptionPane.showMessageDialog(this,
-                    "Export functionality would be implemented here.\n" +
-                            "Selected file: " + fileChooser.getSelectedFile().getName(),
-                    "Export", JOptionPane.INFORMATION_MESSAGE);
+        javax.swing.filechooser.FileNameExtensionFilter csv =
+                new javax.swing.filechooser.FileNameExtensionFilter("CSV (*.csv)", "csv");
+        javax.swing.filechooser.FileNameExtensionFilter xlsx =
+                new javax.swing.filechooser.FileNameExtensionFilter("Excel workbook (*.xlsx)", "xlsx");
+        fileChooser.addChoosableFileFilter(csv);
+        fileChooser.addChoosableFileFilter(xlsx);
+        fileChooser.setFileFilter(csv);
+        fileChooser.setSelectedFile(new java.io.File(baseName + ".csv"));
+
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        java.io.File chosen = fileChooser.getSelectedFile();
+        String name = chosen.getName().toLowerCase();
+        if (!name.endsWith(".csv") && !name.endsWith(".xlsx")) {
+            chosen = new java.io.File(chosen.getParentFile(),
+                    chosen.getName() + (fileChooser.getFileFilter() == xlsx ? ".xlsx" : ".csv"));
+        }
+        if (chosen.exists() && JOptionPane.showConfirmDialog(this, chosen.getName() + " exists. Replace it?",
+                "Export", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        runExport(type, from, to, chosen.toPath());
+    }
+
+    // Daily or range report rendered locally, e.g. for printing the end of day without the server's email
+    private void savePdf() {
+        String[] types = {"Daily Report", "Range Report"};
+        JComboBox<String> typeCombo = new JComboBox<>(types);
+        JTextField fromField = new JTextField(dailyDateField.getText().trim(), 10);
+        JTextField toField = new JTextField(dailyToField.getText().trim(), 10);
+        toField.setEnabled(false);
+        typeCombo.addActionListener(e -> {
+            boolean range = typeCombo.getSelectedIndex() == 1;
+            toField.setEnabled(range);
+            fromField.setText((range ? dailyFromField : dailyDateField).getText().trim());
+        });
+
+        JPanel options = new JPanel(new GridLayout(3, 2, 5, 5));
+        options.add(new JLabel("Report:"));
+        options.add(typeCombo);
+        options.add(new JLabel("Date / From (yyyy-MM-dd):"));
+        options.add(fromField);
+        options.add(new JLabel("To (yyyy-MM-dd):"));
+        options.add(toField);
+
+        if (JOptionPane.showConfirmDialog(this, options, "Save PDF",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        boolean range = typeCombo.getSelectedIndex() == 1;
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(fromField.getText().trim(), dateFormatter);
+            to = range ? LocalDate.parse(toField.getText().trim(), dateFormatter) : from;
+        } catch (DateTimeParseException e) {
+            showError("Invalid date format. Use yyyy-MM-dd");
+            return;
+        }
+        if (from.isAfter(to)) {
+            showError("From date must be before or equal to To date");
+            return;
+        }
+
+        Map<Integer, String> products = new HashMap<>(productNameCache);
+        Map<Integer, String> cashiers = new HashMap<>(cashierNameCache);
+        if (range) {
+            PdfOutput.save(this, "sales_report_" + from.format(dateFormatter) + "_" + to.format(dateFormatter),
+                    (renderer, file) -> renderer.renderRange(from, to, products, cashiers, file));
+        } else {
+            PdfOutput.save(this, "daily_report_" + from.format(dateFormatter),
+                    (renderer, file) -> renderer.renderDaily(from, products, cashiers, file));
         }
     }
 
+    // Streams the export on a background worker behind a progress dialog that can cancel it
+    private void runExport(int type, LocalDate from, LocalDate to, java.nio.file.Path file) {
+        Map<Integer, String> names = type == 1 ? new HashMap<>(productNameCache)
+                : type == 2 ? new HashMap<>(cashierNameCache) : Map.of();
+
+        JDialog progressDialog = new JDialog(SwingUtilities.getWindowAncestor(this), "Exporting",
+                Dialog.ModalityType.MODELESS);
+        JLabel rowsLabel = new JLabel("Preparing " + file.getFileName() + "...");
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        JButton cancelBtn = new JButton("Cancel");
+
+        JPanel content = new JPanel(new BorderLayout(10, 10));
+        content.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        content.add(rowsLabel, BorderLayout.NORTH);
+        content.add(bar, BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(cancelBtn);
+        content.add(buttons, BorderLayout.SOUTH);
+        progressDialog.setContentPane(content);
+        progressDialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        progressDialog.pack();
+        progressDialog.setLocationRelativeTo(this);
+
+        SwingWorker<Long, Long> worker = new SwingWorker<>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                ReportExporter exporter = new ReportExporter();
+                ReportExporter.Progress progress = this::publish;
+                switch (type) {
+                    case 0:
+                        return exporter.exportReport(DailySummaryStore.Report.DAILY, from, to, names, file, progress);
+                    case 1:
+                        return exporter.exportReport(DailySummaryStore.Report.PRODUCTS, from, to, names, file, progress);
+                    case 2:
+                        return exporter.exportReport(DailySummaryStore.Report.CASHIERS, from, to, names, file, progress);
+                    default:
+                        return exporter.exportSales(from, to, file, progress);
+                }
+            }
+
+            @Override
+            protected void process(List<Long> chunks) {
+                rowsLabel.setText(String.format("Writing %s: %,d rows", file.getFileName(), chunks.get(chunks.size() - 1)));
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                if (isCancelled()) {
+                    JOptionPane.showMessageDialog(ReportingPanel.this, "Export cancelled.",
+                            "Export", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
+                try {
+                    long rows = get();
+                    JOptionPane.showMessageDialog(ReportingPanel.this,
+                            String.format("Exported %,d rows to%n%s", rows, file),
+                            "Export", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    showError("Export failed: " + cause.getMessage());
+                }
+            }
+        };
+
+        cancelBtn.addActionListener(e -> {
+            cancelBtn.setEnabled(false);
+            rowsLabel.setText("Cancelling...");
+            worker.cancel(true);
+        });
+
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
+        progressDialog.setVisible(true);
+    }
+
     private void showDailySummaryDetails() {
         int selectedRow = dailyTable.getSelectedRow();
         if (selectedRow >= 0) {
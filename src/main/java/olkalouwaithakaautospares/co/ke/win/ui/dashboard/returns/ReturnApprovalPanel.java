@@ -1,11 +1,13 @@
 package olkalouwaithakaautospares.co.ke.win.ui.dashboard.returns;
 
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel.Column;
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.*;
 import java.util.List;
@@ -27,7 +29,7 @@ public class ReturnApprovalPanel extends JPanel {
 
     // Pending returns components
     private JTable pendingTable;
-    private DefaultTableModel pendingModel;
+    private ColumnarTableModel pendingModel;
 
     // Approval form components
     private JTextField returnIdField;
@@ -41,7 +43,7 @@ public class ReturnApprovalPanel extends JPanel {
 
     // Approval history components
     private JTable historyTable;
-    private DefaultTableModel historyModel;
+    private ColumnarTableModel historyModel;
     private JLabel historySummaryLabel;
     private JScrollPane historyScrollPane;
 
@@ -146,10 +148,10 @@ public class ReturnApprovalPanel extends JPanel {
         title.setFont(new Font("Segoe UI", Font.BOLD, 16));
         title.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
 
-        String[] columns = {"Return ID", "Sale ID", "Customer", "Item", "Quantity", "Reason", "Created", "Cashier"};
-        pendingModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int column) { return false; }
-        };
+        pendingModel = new ColumnarTableModel(
+                Column.integer("Return ID").orElse("N/A"), Column.integer("Sale ID").orElse("N/A"), Column.text("Customer"),
+                Column.text("Item"), Column.integer("Quantity").orElse("N/A"), Column.text("Reason"), Column.text("Created"),
+                Column.text("Cashier"));
 
         pendingTable = new JTable(pendingModel);
         pendingTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -158,6 +160,7 @@ public class ReturnApprovalPanel extends JPanel {
         pendingTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         pendingTable.setFillsViewportHeight(true);
         pendingTable.setAutoCreateRowSorter(true);
+        pendingModel.installRenderers(pendingTable);
 
         // IMPORTANT: selecting a pending return should NOT call any API.
         // It should only copy data into the form and filter locally-loaded history.
@@ -278,10 +281,9 @@ public class ReturnApprovalPanel extends JPanel {
         historySummaryLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         historySummaryLabel.setForeground(new Color(100, 100, 100));
 
-        String[] columns = {"ID", "Return ID", "Admin", "Decision", "Remarks", "Decided At"};
-        historyModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int column) { return false; }
-        };
+        historyModel = new ColumnarTableModel(
+                Column.integer("ID"), Column.integer("Return ID"), Column.text("Admin"),
+                Column.text("Decision"), Column.text("Remarks"), Column.text("Decided At"));
 
         historyTable = new JTable(historyModel);
         historyTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -289,6 +291,7 @@ public class ReturnApprovalPanel extends JPanel {
         historyTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
         historyTable.setFillsViewportHeight(true);
         historyTable.setAutoCreateRowSorter(true);
+        historyModel.installRenderers(historyTable);
 
         historyScrollPane = new JScrollPane(historyTable);
         historyScrollPane.setBorder(null);
@@ -351,44 +354,37 @@ public class ReturnApprovalPanel extends JPanel {
                     return;
                 }
                 pendingReturns.clear();
-                pendingModel.setRowCount(0);
+                pendingModel.clear();
                 if (returns != null && !returns.isEmpty()) {
                     pendingReturns.addAll(returns);
                     updatePendingTable();
                 } else {
-                    pendingModel.addRow(new Object[]{"N/A", "N/A", "No pending", "returns", "N/A", "N/A", "N/A", "N/A"});
+                    pendingModel.addRow(null, null, "No pending", "returns", null, "N/A", "N/A", "N/A");
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void updatePendingTable() {
         SwingUtilities.invokeLater(() -> {
-            pendingModel.setRowCount(0);
-            for (Map<String, Object> ret : pendingReturns) {
-                Integer id = safeIntegerFromObject(ret.get("id"));
-                Integer saleId = safeIntegerFromObject(ret.get("saleId"));
+            pendingModel.setRows(pendingReturns, (ret, row) -> {
                 String customer = Objects.toString(ret.get("customerName"), "") +
                         (ret.get("customerPhone") != null ? " (" + Objects.toString(ret.get("customerPhone"), "") + ")" : "");
                 String item = Objects.toString(ret.get("productName"), "");
                 if (item.isEmpty()) item = "Item #" + Objects.toString(ret.get("saleItemId"), "N/A");
                 Integer qty = safeIntegerFromObject(ret.get("quantity"));
-                String reason = Objects.toString(ret.get("reason"), "");
                 String created = formatDate(Objects.toString(ret.get("createdAt"), ""));
-                String cashier = Objects.toString(ret.get("saleCashierName"), "N/A");
-
-                pendingModel.addRow(new Object[]{
-                        id,
-                        saleId,
-                        customer.isEmpty() ? "N/A" : customer,
-                        item,
-                        qty != null ? qty : 0,
-                        reason,
-                        created.length() > 16 ? created.substring(0, 16) : created,
-                        cashier
-                });
-            }
+
+                row.set(0, safeIntegerFromObject(ret.get("id")))
+                        .set(1, safeIntegerFromObject(ret.get("saleId")))
+                        .set(2, customer.isEmpty() ? "N/A" : customer)
+                        .set(3, item)
+                        .set(4, qty != null ? qty : 0)
+                        .set(5, Objects.toString(ret.get("reason"), ""))
+                        .set(6, created.length() > 16 ? created.substring(0, 16) : created)
+                        .set(7, Objects.toString(ret.get("saleCashierName"), "N/A"));
+            });
             pendingTable.revalidate();
             pendingTable.repaint();
         });
@@ -499,7 +495,7 @@ public class ReturnApprovalPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     /**
@@ -575,19 +571,19 @@ public class ReturnApprovalPanel extends JPanel {
                     return;
                 }
                 approvalHistory.clear();
-                historyModel.setRowCount(0);
+                historyModel.clear();
                 if (approvals != null && !approvals.isEmpty()) {
                     approvalHistory.addAll(approvals);
                     updateHistoryTableFromList(approvalHistory);
                     historySummaryLabel.setText(String.format("All approvals (%d records)", approvals.size()));
                 } else {
                     historySummaryLabel.setText("No approval history found");
-                    historyModel.setRowCount(0);
+                    historyModel.clear();
                     if (historyScrollPane != null) historyScrollPane.getViewport().setViewPosition(new Point(0,0));
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     /**
@@ -604,7 +600,7 @@ public class ReturnApprovalPanel extends JPanel {
             updateHistoryTableFromList(filtered);
             historySummaryLabel.setText(String.format("Approval history for Return ID: %d (%d records)", returnId, filtered.size()));
         } else {
-            historyModel.setRowCount(0);
+            historyModel.clear();
             historySummaryLabel.setText("No approval history found for Return ID: " + returnId);
             if (historyScrollPane != null) historyScrollPane.getViewport().setViewPosition(new Point(0,0));
         }
@@ -612,26 +608,20 @@ public class ReturnApprovalPanel extends JPanel {
 
     private void updateHistoryTableFromList(List<Map<String, Object>> list) {
         SwingUtilities.invokeLater(() -> {
-            historyModel.setRowCount(0);
-            for (Map<String, Object> approval : list) {
-                Integer id = safeIntegerFromObject(approval.get("id"));
-                Integer returnId = safeIntegerFromObject(approval.get("returnId"));
+            historyModel.setRows(list, (approval, row) -> {
                 Integer adminId = safeIntegerFromObject(approval.get("adminId"));
                 String adminName = Objects.toString(approval.get("adminName"), "").trim();
                 String adminDisplay = !adminName.isEmpty() ? adminName : (adminId != null ? "Admin #" + adminId : "N/A");
-                String decision = Objects.toString(approval.get("decision"), "N/A");
                 String remarks = Objects.toString(approval.get("remarks"), "");
                 String decidedAt = formatDate(Objects.toString(approval.get("decidedAt"), ""));
 
-                historyModel.addRow(new Object[]{
-                        id,
-                        returnId,
-                        adminDisplay,
-                        decision,
-                        remarks.length() > 30 ? remarks.substring(0, 30) + "..." : remarks,
-                        decidedAt.length() > 16 ? decidedAt.substring(0, 16) : decidedAt
-                });
-            }
+                row.set(0, safeIntegerFromObject(approval.get("id")))
+                        .set(1, safeIntegerFromObject(approval.get("returnId")))
+                        .set(2, adminDisplay)
+                        .set(3, Objects.toString(approval.get("decision"), "N/A"))
+                        .set(4, remarks.length() > 30 ? remarks.substring(0, 30) + "..." : remarks)
+                        .set(5, decidedAt.length() > 16 ? decidedAt.substring(0, 16) : decidedAt);
+            });
 
             historyTable.revalidate();
             historyTable.repaint();
@@ -814,7 +804,7 @@ public class ReturnApprovalPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void clearApprovalForm() {
@@ -826,7 +816,7 @@ public class ReturnApprovalPanel extends JPanel {
         reasonField.setText("");
         decisionCombo.setSelectedIndex(0);
         remarksArea.setText("");
-        historyModel.setRowCount(0);
+        historyModel.clear();
         historySummaryLabel.setText("Approval history — loaded automatically");
         if (historyScrollPane != null) historyScrollPane.getViewport().setViewPosition(new Point(0,0));
     }
@@ -1,7 +1,11 @@
 package olkalouwaithakaautospares.co.ke.win.ui.dashboard.returns;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.ColumnarTableModel.Column;
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.CatalogCache;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -35,7 +39,7 @@ public class ReturnPanel extends JPanel {
 
     // Sales list components
     private JTable salesTable;
-    private DefaultTableModel salesModel;
+    private ColumnarTableModel salesModel;
     private JTextField searchField;
     private JLabel selectedSaleLabel;
 
@@ -49,7 +53,7 @@ public class ReturnPanel extends JPanel {
 
     // Returns History components
     private JTable returnsTable;
-    private DefaultTableModel returnsModel;
+    private ColumnarTableModel returnsModel;
     private JLabel returnsSummaryLabel;
     private JCheckBox showAllReturnsCheckbox;
 
@@ -74,6 +78,10 @@ public class ReturnPanel extends JPanel {
         loadRecentSales();
         loadAllProducts(); // Preload product names
         loadAllReturns(); // Load all returns initially
+
+        CatalogCache.getInstance().addListener(section -> {
+            if (section == CatalogCache.Section.PRODUCTS) loadAllProducts();
+        });
     }
 
     // ---------- UI Initialization ----------
@@ -177,19 +185,16 @@ public class ReturnPanel extends JPanel {
         searchPanel.add(searchBtn, BorderLayout.EAST);
 
         // Sales table
-        String[] columns = {"Sale ID", "Sale #", "Customer", "Total", "Status", "Date"};
-        salesModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        salesModel = new ColumnarTableModel(
+                Column.integer("Sale ID"), Column.text("Sale #"), Column.text("Customer"),
+                Column.money("Total"), Column.text("Status"), Column.text("Date"));
 
         salesTable = new JTable(salesModel);
         salesTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         salesTable.setRowHeight(36);
         salesTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
         salesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        salesModel.installRenderers(salesTable);
 
         salesTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
             @Override
@@ -347,7 +352,7 @@ public class ReturnPanel extends JPanel {
             } else if (selectedSaleId != null) {
                 loadReturnsForSelectedSale();
             } else {
-                returnsModel.setRowCount(0);
+                returnsModel.clear();
                 returnsSummaryLabel.setText("Select a sale to view its returns, or check 'Show All Returns'");
             }
         });
@@ -388,13 +393,10 @@ public class ReturnPanel extends JPanel {
         filterPanel.add(refreshReturnsBtn);
 
         // Returns table
-        String[] columns = {"Return ID", "Sale ID", "Product", "Quantity", "Reason", "Status", "Created", "Customer", "Cashier"};
-        returnsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        returnsModel = new ColumnarTableModel(
+                Column.integer("Return ID"), Column.integer("Sale ID"), Column.text("Product"), Column.integer("Quantity"),
+                Column.text("Reason"), Column.text("Status"), Column.text("Created"), Column.text("Customer"),
+                Column.text("Cashier"));
 
         returnsTable = new JTable(returnsModel);
         returnsTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -406,6 +408,7 @@ public class ReturnPanel extends JPanel {
 
         // Set up custom renderer for status column (column 5)
         returnsTable.getColumnModel().getColumn(5).setCellRenderer(new StatusCellRenderer());
+        returnsModel.installRenderers(returnsTable);
 
         returnsTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -445,19 +448,12 @@ public class ReturnPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/sales");
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        try {
-                            sales = client.parseResponseList(resp);
-                        } catch (Exception ex) {
-                            Map<String, Object> r = client.parseResponse(resp);
-                            if (r != null && r.containsKey("data") && r.get("data") instanceof List) {
-                                sales = (List<Map<String, Object>>) r.get("data");
-                            } else {
-                                sales = new ArrayList<>();
-                            }
-                        }
-                    }
+                    // Decoded straight off the response stream; pending sales are dropped as they arrive
+                    List<Map<String, Object>> returnable = new ArrayList<>();
+                    client.streamMaps("/api/secure/sales", sale -> {
+                        if (!isSalePending(sale)) returnable.add(sale);
+                    });
+                    sales = returnable;
                 } catch (Exception ex) {
                     error = ex;
                     ex.printStackTrace();
@@ -472,15 +468,9 @@ public class ReturnPanel extends JPanel {
                     return;
                 }
 
-                // Filter out sales that are in PENDING status
+                // PENDING sales were already filtered out while streaming
                 recentSales.clear();
-                if (sales != null && !sales.isEmpty()) {
-                    for (Map<String, Object> sale : sales) {
-                        if (!isSalePending(sale)) {
-                            recentSales.add(sale);
-                        }
-                    }
-                }
+                recentSales.addAll(sales);
 
                 updateSalesTable();
 
@@ -491,7 +481,7 @@ public class ReturnPanel extends JPanel {
                 clearReturnForm();
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void loadAllProducts() {
@@ -499,25 +489,16 @@ public class ReturnPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/products");
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        List<Map<String, Object>> products = client.parseResponseList(resp);
-                        productNameCache.clear();
-                        for (Map<String, Object> product : products) {
-                            Integer id = safeIntegerFromObject(product.get("id"));
-                            String name = Objects.toString(product.get("name"), "");
-                            if (id != null && !name.isEmpty()) {
-                                productNameCache.put(id, name);
-                            }
-                        }
-                    }
+                    Map<Integer, String> names = CatalogCache.getInstance().getProductNames();
+                    productNameCache.clear();
+                    productNameCache.putAll(names);
                 } catch (Exception ex) {
                     ex.printStackTrace();
                 }
                 return null;
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     private void loadAllReturns() {
@@ -528,27 +509,10 @@ public class ReturnPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/returns");
-                    System.out.println("DEBUG - Response from /api/secure/returns: " + resp); // Debug line
-
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        // Try to parse as JSON array first
-                        try {
-                            returns = mapper.readValue(resp, new TypeReference<List<Map<String, Object>>>() {});
-                            System.out.println("DEBUG - Parsed as array, size: " + returns.size()); // Debug
-                        } catch (Exception ex) {
-                            System.out.println("DEBUG - Not an array, trying as object: " + ex.getMessage()); // Debug
-                            // Try as object with data field
-                            Map<String, Object> responseMap = mapper.readValue(resp, new TypeReference<Map<String, Object>>() {});
-                            if (responseMap != null && responseMap.containsKey("data")) {
-                                Object data = responseMap.get("data");
-                                if (data instanceof List) {
-                                    returns = (List<Map<String, Object>>) data;
-                                    System.out.println("DEBUG - Found data in object, size: " + returns.size()); // Debug
-                                }
-                            }
-                        }
-                    }
+                    // Bare array or { "data": [...] }, decoded in one pass off the response stream
+                    List<Map<String, Object>> streamed = new ArrayList<>();
+                    client.streamMaps("/api/secure/returns", streamed::add);
+                    returns = streamed;
                 } catch (Exception ex) {
                     error = ex;
                     ex.printStackTrace();
@@ -564,7 +528,7 @@ public class ReturnPanel extends JPanel {
                 }
 
                 returnsList.clear();
-                returnsModel.setRowCount(0);
+                returnsModel.clear();
 
                 if (returns != null && !returns.isEmpty()) {
                     System.out.println("DEBUG - Adding " + returns.size() + " returns to table"); // Debug
@@ -591,7 +555,7 @@ public class ReturnPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
     private String getProductName(Integer productId) {
         if (productId == null) return "Unknown Product";
@@ -618,12 +582,7 @@ public class ReturnPanel extends JPanel {
             }
         }
 
-        SwingUtilities.invokeLater(() -> {
-            salesModel.setRowCount(0);
-            for (Map<String, Object> sale : filtered) {
-                addSaleToTable(sale);
-            }
-        });
+        SwingUtilities.invokeLater(() -> salesModel.setRows(filtered, this::writeSaleRow));
     }
 
     private void searchReturns(String query) {
@@ -685,10 +644,7 @@ public class ReturnPanel extends JPanel {
         }
 
         SwingUtilities.invokeLater(() -> {
-            returnsModel.setRowCount(0);
-            for (Map<String, Object> ret : filtered) {
-                addReturnToTable(ret);
-            }
+            returnsModel.setRows(filtered, this::writeReturnRow);
 
             returnsSummaryLabel.setText(String.format(
                     "Showing %d of %d returns for search: '%s'",
@@ -698,15 +654,10 @@ public class ReturnPanel extends JPanel {
     }
 
     private void updateSalesTable() {
-        SwingUtilities.invokeLater(() -> {
-            salesModel.setRowCount(0);
-            for (Map<String, Object> sale : recentSales) {
-                addSaleToTable(sale);
-            }
-        });
+        SwingUtilities.invokeLater(() -> salesModel.setRows(recentSales, this::writeSaleRow));
     }
 
-    private void addSaleToTable(Map<String, Object> sale) {
+    private void writeSaleRow(Map<String, Object> sale, ColumnarTableModel.Row row) {
         Integer saleId = safeIntegerFromObject(sale.get("saleId") != null ? sale.get("saleId") : sale.get("id"));
         String saleNumber = Objects.toString(sale.get("saleNumber"), Objects.toString(sale.get("saleNo"), "N/A"));
         String customerDisplay = getCustomerDisplay(sale);
@@ -714,14 +665,12 @@ public class ReturnPanel extends JPanel {
         String status = Objects.toString(sale.get("paymentStatus"), "N/A");
         String date = Objects.toString(sale.get("saleDate"), "");
 
-        salesModel.addRow(new Object[]{
-                saleId,
-                saleNumber,
-                customerDisplay,
-                String.format("ksh %,.2f", total != null ? total : 0.0),
-                status,
-                date.length() > 16 ? date.substring(0, 16) : date
-        });
+        row.set(0, saleId)
+                .set(1, saleNumber)
+                .set(2, customerDisplay)
+                .set(3, total != null ? total : 0.0)
+                .set(4, status)
+                .set(5, date.length() > 16 ? date.substring(0, 16) : date);
     }
 
     private String getCustomerDisplay(Map<String, Object> sale) {
@@ -815,7 +764,7 @@ public class ReturnPanel extends JPanel {
                 clearReturnForm();
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void updateSaleItemsTable() {
@@ -870,7 +819,7 @@ public class ReturnPanel extends JPanel {
 
     private void loadReturnsForSelectedSale() {
         if (selectedSaleId == null) {
-            returnsModel.setRowCount(0);
+            returnsModel.clear();
             returnsSummaryLabel.setText("Select a sale to view its returns, or check 'Show All Returns'");
             return;
         }
@@ -915,7 +864,7 @@ public class ReturnPanel extends JPanel {
                 }
 
                 returnsList.clear();
-                returnsModel.setRowCount(0);
+                returnsModel.clear();
 
                 if (returns != null && !returns.isEmpty()) {
                     returnsList.addAll(returns);
@@ -941,22 +890,19 @@ public class ReturnPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     private void updateReturnsTable() {
         SwingUtilities.invokeLater(() -> {
-            returnsModel.setRowCount(0);
-            for (Map<String, Object> ret : returnsList) {
-                addReturnToTable(ret);
-            }
+            returnsModel.setRows(returnsList, this::writeReturnRow);
             // Refresh UI explicitly
             returnsTable.revalidate();
             returnsTable.repaint();
         });
     }
 
-    private void addReturnToTable(Map<String, Object> ret) {
+    private void writeReturnRow(Map<String, Object> ret, ColumnarTableModel.Row row) {
         Integer id = safeIntegerFromObject(ret.get("id"));
         Integer saleId = safeIntegerFromObject(ret.get("saleId"));
 
@@ -986,17 +932,15 @@ public class ReturnPanel extends JPanel {
 
         // Store status as a string - the renderer will handle the coloring
         // Text color is handled by the StatusCellRenderer to ensure it's black
-        returnsModel.addRow(new Object[]{
-                id,
-                saleId,
-                productName,
-                quantity,
-                reason,
-                status,  // Just the string, renderer will color it
-                createdAt.length() > 16 ? createdAt.substring(0, 16) : createdAt,
-                customerDisplay,
-                cashierName
-        });
+        row.set(0, id)
+                .set(1, saleId)
+                .set(2, productName)
+                .set(3, quantity)
+                .set(4, reason)
+                .set(5, status)  // Just the string, renderer will color it
+                .set(6, createdAt.length() > 16 ? createdAt.substring(0, 16) : createdAt)
+                .set(7, customerDisplay)
+                .set(8, cashierName);
     }
 
     private void createReturn() {
@@ -1157,7 +1101,7 @@ public class ReturnPanel extends JPanel {
                 }
             }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, worker);
     }
 
     // ---------- Helper Methods ----------
@@ -0,0 +1,116 @@
+package olkalouwaithakaautospares.co.ke.win.ui.dashboard.sales;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read-only table model for the paid / credit sales history.
+ * - Backed by the panel's sale list; row i of the model is sale i of the list
+ * - Rows are converted once when added, pages are appended with a single insert event
+ *   instead of clearing and re-adding every row
+ * - A changed sale can be replaced or removed in place by its sale id
+ */
+public class SalesHistoryTableModel extends AbstractTableModel {
+
+    private final String[] columns;
+    private final Function<Map<String, Object>, Object[]> rowMapper;
+    private final Function<Map<String, Object>, Integer> idOf;
+    private final List<Map<String, Object>> sales;
+    private final List<Object[]> rows = new ArrayList<>();
+
+    public SalesHistoryTableModel(String[] columns, List<Map<String, Object>> sales,
+                                  Function<Map<String, Object>, Object[]> rowMapper,
+                                  Function<Map<String, Object>, Integer> idOf) {
+        this.columns = columns;
+        this.sales = sales;
+        this.rowMapper = rowMapper;
+        this.idOf = idOf;
+        for (Map<String, Object> sale : sales) {
+            rows.add(rowMapper.apply(sale));
+        }
+    }
+
+    // Replaces every row (first page of a reload)
+    public void setSales(List<Map<String, Object>> replacement) {
+        sales.clear();
+        rows.clear();
+        for (Map<String, Object> sale : replacement) {
+            sales.add(sale);
+            rows.add(rowMapper.apply(sale));
+        }
+        fireTableDataChanged();
+    }
+
+    // Appends a page below the rows already loaded
+    public void appendSales(List<Map<String, Object>> page) {
+        if (page.isEmpty()) return;
+        int first = sales.size();
+        for (Map<String, Object> sale : page) {
+            sales.add(sale);
+            rows.add(rowMapper.apply(sale));
+        }
+        fireTableRowsInserted(first, sales.size() - 1);
+    }
+
+    // Newest sale goes on top
+    public void prependSale(Map<String, Object> sale) {
+        sales.add(0, sale);
+        rows.add(0, rowMapper.apply(sale));
+        fireTableRowsInserted(0, 0);
+    }
+
+    // Replaces the sale at the row and repaints only that row
+    public void updateSale(int modelRow, Map<String, Object> sale) {
+        sales.set(modelRow, sale);
+        rows.set(modelRow, rowMapper.apply(sale));
+        fireTableRowsUpdated(modelRow, modelRow);
+    }
+
+    public void removeSale(int modelRow) {
+        sales.remove(modelRow);
+        rows.remove(modelRow);
+        fireTableRowsDeleted(modelRow, modelRow);
+    }
+
+    // Model row of the sale with the id, or -1
+    public int indexOf(Integer saleId) {
+        if (saleId == null) return -1;
+        for (int i = 0; i < sales.size(); i++) {
+            if (saleId.equals(idOf.apply(sales.get(i)))) return i;
+        }
+        return -1;
+    }
+
+    public Map<String, Object> getSale(int modelRow) {
+        return sales.get(modelRow);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Object[] row = rows.get(rowIndex);
+        return columnIndex < row.length ? row[columnIndex] : null;
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+}
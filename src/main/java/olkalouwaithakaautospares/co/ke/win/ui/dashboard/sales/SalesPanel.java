@@ -1,9 +1,15 @@
 package olkalouwaithakaautospares.co.ke.win.ui.dashboard.sales;
 
+import olkalouwaithakaautospares.co.ke.win.models.Product;
+import olkalouwaithakaautospares.co.ke.win.ui.dashboard.PdfOutput;
 import olkalouwaithakaautospares.co.ke.win.utils.BaseClient;
+import olkalouwaithakaautospares.co.ke.win.utils.CatalogCache;
+import olkalouwaithakaautospares.co.ke.win.utils.CheckoutJournal;
+import olkalouwaithakaautospares.co.ke.win.utils.CheckoutReplicator;
+import olkalouwaithakaautospares.co.ke.win.utils.ProductSearchIndex;
+import olkalouwaithakaautospares.co.ke.win.utils.TaskScheduler;
 import olkalouwaithakaautospares.co.ke.win.utils.UserSessionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
@@ -17,7 +23,14 @@ import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.List;
 
@@ -35,8 +48,12 @@ public class SalesPanel extends JPanel {
     private final BaseClient client;
     private final ObjectMapper mapper;
     private final UserSessionManager session;
+    private final CatalogCache catalog;
+    private final CheckoutJournal journal;
+    private final CheckoutReplicator replicator;
 
-    private final List<Map<String, Object>> products = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private final Map<Integer, Product> productsById = new HashMap<>();
     private final List<CartItem> cartItems = new ArrayList<>();
     private final List<Map<String, Object>> paidSales = new ArrayList<>();
     private final List<Map<String, Object>> creditSales = new ArrayList<>();
@@ -46,19 +63,49 @@ public class SalesPanel extends JPanel {
     private final Map<Integer, String> categoriesMap = new HashMap<>();
     private final Map<Integer, String> brandsMap = new HashMap<>();
     private final Map<Integer, String> productCategoriesMap = new HashMap<>();
+    private volatile ProductSearchIndex searchIndex;
 
     // POS components
     private JTable cartTable;
     private DefaultTableModel cartModel;
     private JLabel totalLabel;
     private JComboBox<String> paymentMethodCombo;
-    private JPanel productGrid;
+    private VirtualProductGrid productGrid;
     private JTextField searchField;
+    // "All brands" first, then one entry per vehicle brand; brandFilterIds[i] is the id of entry i (null for all)
+    private JComboBox<String> brandFilterCombo;
+    private final List<Integer> brandFilterIds = new ArrayList<>();
+
+    // Product search pipeline: keystrokes are debounced, matching runs off the EDT and only the
+    // newest query is allowed to repaint the grid
+    private static final int SEARCH_DEBOUNCE_MS = 200;
+    private javax.swing.Timer searchDebounce;
+    private SwingWorker<List<Product>, Void> searchWorker;
+    private int searchSeq = 0;
+
+    // Sales history paging: the first page replaces both tables, later pages are appended when either
+    // table is scrolled near its end. A reload bumps the generation so late pages of an older load are dropped.
+    private static final int SALES_PAGE_SIZE = 50;
+    private static final int SALES_AUTOFILL_PAGES = 5;
+    private final Set<Integer> loadedSaleIds = new HashSet<>();
+    private int salesGeneration = 0;
+    private int nextSalesPage = 0;
+    private boolean moreSales = true;
+    private boolean loadingSales = false;
+    private int autoFillPages = 0;
+    // Newest change stamp seen on any loaded sale; incremental syncs ask the server for sales changed after it.
+    // Only SYNC_STAMP_FIELD is used, the field the server filters ?since= on; it is compared parsed, and
+    // sent back exactly as the server wrote it.
+    private static final String SYNC_STAMP_FIELD = "updatedAt";
+    private String salesSyncCursor = null;
+    private Instant salesSyncStamp = null;
 
     // New customer / receipt components
     private JCheckBox sendReceiptCheckbox;
     private JTextField emailField;
     private JButton checkoutBtn;
+    private JLabel syncStatusLabel;
+    private JButton reviewSalesBtn;
 
     // Tabs
     private JTabbedPane rightTabs;
@@ -67,14 +114,14 @@ public class SalesPanel extends JPanel {
 
     // Paid Sales components
     private JTable paidSalesTable;
-    private DefaultTableModel paidSalesModel;
-    private TableRowSorter<DefaultTableModel> paidSalesSorter;
+    private SalesHistoryTableModel paidSalesModel;
+    private TableRowSorter<SalesHistoryTableModel> paidSalesSorter;
     private JTextField paidSalesSearchField;
 
     // Credit Sales components
     private JTable creditSalesTable;
-    private DefaultTableModel creditSalesModel;
-    private TableRowSorter<DefaultTableModel> creditSalesSorter;
+    private SalesHistoryTableModel creditSalesModel;
+    private TableRowSorter<SalesHistoryTableModel> creditSalesSorter;
     private JTextField creditSalesSearchField;
     private JLabel selectedCreditSaleLabel;
     private JTable creditPaymentsTable;
@@ -106,10 +153,60 @@ public class SalesPanel extends JPanel {
         this.client = BaseClient.getInstance();
         this.mapper = client.getMapper();
         this.session = UserSessionManager.getInstance();
+        this.catalog = CatalogCache.getInstance();
+        this.journal = CheckoutJournal.getInstance();
+        this.replicator = CheckoutReplicator.getInstance();
         initUI();
         loadCategoriesAndBrands(); // Load categories and brands for search
         loadProducts();
         loadRecentSales();
+
+        // Re-render the grid when another panel changes the catalog (e.g. Inventory edits)
+        catalog.addListener(section -> {
+            if (section == CatalogCache.Section.PRODUCTS) loadProducts();
+            else loadCategoriesAndBrands();
+        });
+
+        // Checkouts are journaled locally and pushed to the server in the background
+        replicator.addListener(new CheckoutReplicator.Listener() {
+            @Override
+            public void checkoutSynced(CheckoutJournal.Entry entry, Map<String, Object> saleData, String message) {
+                // The server's answer is the sale's final state; no read-back needed
+                syncStatusLabel.setText(entry.reference() + ": " + message);
+                if (saleData.isEmpty()) {
+                    syncRecentSales(); // recorded earlier; the server did not send it back
+                } else {
+                    addSaleToHistory(saleData);
+                }
+            }
+
+            @Override
+            public void checkoutFailed(CheckoutJournal.Entry entry, String message) {
+                JOptionPane.showMessageDialog(SalesPanel.this,
+                        "Queued sale " + entry.reference() + " for "
+                                + Objects.toString(entry.sale().get("customerPhone"), "N/A")
+                                + " could not be recorded:\n" + message,
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
+
+            @Override
+            public void checkoutNeedsReview(CheckoutJournal.Entry entry, String message) {
+                updateSyncStatus(journal.pendingCount());
+                JOptionPane.showMessageDialog(SalesPanel.this,
+                        "Queued sale " + entry.reference() + " for "
+                                + Objects.toString(entry.sale().get("customerPhone"), "N/A")
+                                + " may or may not have reached the server:\n" + message
+                                + "\n\nIt will not be sent again automatically. Use \"Review\" under the cart once you have"
+                                + "\nchecked the sales history.",
+                        "Sale Needs Review", JOptionPane.WARNING_MESSAGE);
+            }
+
+            @Override
+            public void pendingChanged(int pending) {
+                updateSyncStatus(pending);
+            }
+        });
+        replicator.kick();
     }
 
     // ---------- UI Initialization ----------
@@ -133,6 +230,11 @@ public class SalesPanel extends JPanel {
         rightTabs.addTab("Cart", cartPanel);
         rightTabs.addTab("Paid Sales", paidSalesPanel);
         rightTabs.addTab("Credit Sales", creditSalesPanel);
+        rightTabs.addChangeListener(e -> {
+            autoFillPages = 0;
+            checkSalesScroll(paidSalesTable);
+            checkSalesScroll(creditSalesTable);
+        });
 
         JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, productPanel, rightTabs);
         splitPane.setDividerLocation(600);
@@ -161,6 +263,7 @@ public class SalesPanel extends JPanel {
 
         newSaleBtn.addActionListener(e -> clearCart());
         refreshBtn.addActionListener(e -> {
+            catalog.invalidateAll();
             loadCategoriesAndBrands();
             loadProducts();
             loadRecentSales();
@@ -204,10 +307,12 @@ public class SalesPanel extends JPanel {
                 BorderFactory.createEmptyBorder(8, 12, 8, 12)
         ));
         searchField.putClientProperty("JTextField.placeholderText", "Search by name, SKU, category, brands, description, or price...");
+        searchDebounce = new javax.swing.Timer(SEARCH_DEBOUNCE_MS, e -> searchProducts(searchField.getText()));
+        searchDebounce.setRepeats(false);
         searchField.getDocument().addDocumentListener(new DocumentListener() {
-            @Override public void insertUpdate(DocumentEvent e) { searchProducts(searchField.getText()); }
-            @Override public void removeUpdate(DocumentEvent e) { searchProducts(searchField.getText()); }
-            @Override public void changedUpdate(DocumentEvent e) { searchProducts(searchField.getText()); }
+            @Override public void insertUpdate(DocumentEvent e) { searchDebounce.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { searchDebounce.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { searchDebounce.restart(); }
         });
 
         JButton clearSearchBtn = new JButton("Clear");
@@ -217,16 +322,24 @@ public class SalesPanel extends JPanel {
             searchProducts("");
         });
 
+        brandFilterCombo = new JComboBox<>(new String[]{"All brands"});
+        brandFilterIds.add(null);
+        brandFilterCombo.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        brandFilterCombo.setToolTipText("Only parts compatible with this vehicle brand");
+        brandFilterCombo.addActionListener(e -> searchProducts(searchField.getText()));
+
         JPanel searchButtonPanel = new JPanel(new GridLayout(1, 2, 5, 0));
         searchButtonPanel.setOpaque(false);
+        searchButtonPanel.add(brandFilterCombo);
         searchButtonPanel.add(clearSearchBtn);
 
         searchPanel.add(searchField, BorderLayout.CENTER);
         searchPanel.add(searchButtonPanel, BorderLayout.EAST);
 
-        // PRODUCT GRID: Fixed size grid with consistent button sizes
+        // PRODUCT GRID: Fixed size cards, only the visible rows are materialized and recycled while scrolling
         final int COLUMNS = 4; // Increased to 4 columns for better space usage
-        productGrid = new JPanel(new GridBagLayout()); // Changed to GridBagLayout for better control
+        productGrid = new VirtualProductGrid(COLUMNS, new Dimension(180, 150), 10,
+                this::createProductCard, this::bindProductCard);
         productGrid.setBorder(BorderFactory.createEmptyBorder(15, 0, 0, 0));
         productGrid.setOpaque(false);
 
@@ -243,14 +356,13 @@ public class SalesPanel extends JPanel {
         return panel;
     }
 
-    private JButton createProductButton(
-            String name,
-            String description,
-            double price,
-            Integer productId,
-            String categoryName,
-            String brandNames
-    ) {
+    // Fills a (possibly recycled) card with a product's details
+    private void bindProductCard(JButton button, Product product) {
+        String name = product.displayName();
+        String description = product.description();
+        String categoryName = product.categoryId() != null ? categoriesMap.get(product.categoryId()) : "";
+        String brandNames = brandLabel(product);
+
         // Truncate name if too long
         String displayName = name.length() > 25 ? name.substring(0, 22) + "..." : name;
 
@@ -280,11 +392,15 @@ public class SalesPanel extends JPanel {
                 + "<b>" + displayName + "</b><br/>"
                 + safeDescription
                 + extraInfo
-                + "<span style='font-size:12px;font-weight:bold;color:#E91E63;'>ksh " + String.format("%,.2f", price)
+                + "<span style='font-size:12px;font-weight:bold;color:#E91E63;'>ksh " + String.format("%,.2f", product.minimumSellingPrice())
                 + "</span></center></html>";
 
-        JButton button = new JButton(html);
-        button.putClientProperty("productId", productId);
+        button.setText(html);
+    }
+
+    // Creates an empty product card; the grid binds products to it as it scrolls into view
+    private JButton createProductCard() {
+        JButton button = new JButton();
 
         // Style - Fixed size for all buttons
         button.setFont(new Font("Segoe UI", Font.PLAIN, 11));
@@ -324,260 +440,97 @@ public class SalesPanel extends JPanel {
 
         // Click handler
         button.addActionListener(e -> {
-            Integer id = (Integer) button.getClientProperty("productId");
-            Double minPrice = price;
-
-            // Search in products list for the actual minimumSellingPrice
-            for (Map<String, Object> product : products) {
-                Integer prodId = getIntegerValue(product, "id", 0);
-                if (prodId.equals(id)) {
-                    minPrice = getDoubleValue(product, "minimumSellingPrice", price);
-                    break;
-                }
-            }
+            Product bound = VirtualProductGrid.productOf(button);
+            if (bound == null) return;
+
+            // Look up the actual minimumSellingPrice from the product index
+            Product product = productsById.getOrDefault(bound.id(), bound);
+            double price = bound.minimumSellingPrice();
 
-            addToCart(id, name, price, minPrice);
+            addToCart(bound.id(), bound.displayName(), price, product.minimumSellingPrice());
             rightTabs.setSelectedIndex(0); // switch to cart tab
         });
 
         return button;
     }
 
+    // Runs the query in the background, superseding any search still in flight. Must be called on the EDT.
     private void searchProducts(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            // Show all products
-            productGrid.removeAll();
-            GridBagConstraints gbc = new GridBagConstraints();
-            gbc.insets = new Insets(5, 5, 5, 5);
-            gbc.fill = GridBagConstraints.NONE;
-            gbc.anchor = GridBagConstraints.NORTHWEST;
-
-            int col = 0;
-            int row = 0;
-
-            for (Map<String, Object> product : products) {
-                String name = getStringValue(product, "name", "Unknown Product");
-                Double price = getDoubleValue(product, "minimumSellingPrice", 0.0);
-                Integer productId = getIntegerValue(product, "id", 0);
-                String description = getStringValue(product, "description", "");
-
-                // Get category name
-                Integer categoryId = getIntegerValue(product, "categoryId", null);
-                String categoryName = categoryId != null ? categoriesMap.get(categoryId) : "";
-
-                // Get brand names
-                String brandNames = "";
-                try {
-                    String compatibleBrandsJson = getStringValue(product, "compatibleBrandIds", "[]");
-                    if (!compatibleBrandsJson.isEmpty()) {
-                        List<Integer> brandIds = mapper.readValue(compatibleBrandsJson, new TypeReference<List<Integer>>() {});
-                        StringBuilder brands = new StringBuilder();
-                        for (Integer brandId : brandIds) {
-                            String brandName = brandsMap.get(brandId);
-                            if (brandName != null) {
-                                if (brands.length() > 0) {
-                                    brands.append(", ");
-                                }
-                                brands.append(brandName);
-                            }
-                        }
-                        brandNames = brands.toString();
-                    }
-                } catch (Exception e) {
-                    // Ignore JSON parsing errors
-                }
-
-                JButton button = createProductButton(name, description, price, productId, categoryName, brandNames);
+        if (searchDebounce != null) searchDebounce.stop();
+        if (searchWorker != null && !searchWorker.isDone()) {
+            searchWorker.cancel(true);
+        }
+        final int seq = ++searchSeq;
+        final Integer brandId = selectedBrandFilter();
 
-                gbc.gridx = col;
-                gbc.gridy = row;
-                productGrid.add(button, gbc);
+        if ((query == null || query.trim().isEmpty()) && brandId == null) {
+            // Show all products
+            searchWorker = null;
+            renderProductGrid(query, products);
+            return;
+        }
 
-                col++;
-                if (col >= 4) { // 4 columns
-                    col = 0;
-                    row++;
-                }
+        final ProductSearchIndex index = searchIndex;
+        searchWorker = new SwingWorker<>() {
+            @Override
+            protected List<Product> doInBackground() {
+                // Name, SKU, description, category, brand and price lookups all go through the index;
+                // the brand filter is an AND with the index's brand -> products bitset
+                return index != null ? index.search(query, brandId) : Collections.emptyList();
             }
 
-            // Fill remaining space if needed
-            gbc.gridx = 0;
-            gbc.gridy = row + 1;
-            gbc.weightx = 1.0;
-            gbc.weighty = 1.0;
-            gbc.fill = GridBagConstraints.BOTH;
-            productGrid.add(Box.createGlue(), gbc);
-
-        } else {
-            List<Map<String, Object>> filtered = new ArrayList<>();
-            String lowerQuery = query.toLowerCase();
-
-            for (Map<String, Object> product : products) {
-                String name = getStringValue(product, "name", "").toLowerCase();
-                String sku = getStringValue(product, "sku", "").toLowerCase();
-                String description = getStringValue(product, "description", "").toLowerCase();
-                Double price = getDoubleValue(product, "minimumSellingPrice", 0.0);
-
-                // Get category name
-                Integer categoryId = getIntegerValue(product, "categoryId", null);
-                String categoryName = (categoryId != null ? categoriesMap.get(categoryId) : "").toLowerCase();
-
-                // Get brand names
-                String brandNames = "";
+            @Override
+            protected void done() {
+                // A newer query has already been issued; drop this result
+                if (isCancelled() || seq != searchSeq) return;
                 try {
-                    String compatibleBrandsJson = getStringValue(product, "compatibleBrandIds", "[]");
-                    if (!compatibleBrandsJson.isEmpty()) {
-                        List<Integer> brandIds = mapper.readValue(compatibleBrandsJson, new TypeReference<List<Integer>>() {});
-                        StringBuilder brands = new StringBuilder();
-                        for (Integer brandId : brandIds) {
-                            String brandName = brandsMap.get(brandId);
-                            if (brandName != null) {
-                                if (brands.length() > 0) {
-                                    brands.append(", ");
-                                }
-                                brands.append(brandName);
-                            }
-                        }
-                        brandNames = brands.toString().toLowerCase();
-                    }
+                    renderProductGrid(query, get());
                 } catch (Exception e) {
-                    // Ignore JSON parsing errors
-                }
-
-                // Check price as string
-                String priceStr = String.format("%.2f", price).toLowerCase();
-
-                // Enhanced search: check all fields
-                if (name.contains(lowerQuery) ||
-                        sku.contains(lowerQuery) ||
-                        description.contains(lowerQuery) ||
-                        categoryName.contains(lowerQuery) ||
-                        brandNames.contains(lowerQuery) ||
-                        priceStr.contains(lowerQuery.replace("ksh", "").replace(",", "").trim()) ||
-                        matchesPriceRange(query, price)) {
-                    filtered.add(product);
+                    e.printStackTrace();
                 }
             }
+        };
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, searchWorker);
+    }
 
-            productGrid.removeAll();
-            GridBagConstraints gbc = new GridBagConstraints();
-            gbc.insets = new Insets(5, 5, 5, 5);
-            gbc.fill = GridBagConstraints.NONE;
-            gbc.anchor = GridBagConstraints.NORTHWEST;
-
-            if (filtered.isEmpty()) {
-                JLabel noResultsLabel = new JLabel("No products found for: \"" + query + "\"", SwingConstants.CENTER);
-                noResultsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-                noResultsLabel.setForeground(new Color(150, 150, 150));
-                noResultsLabel.setPreferredSize(new Dimension(600, 100));
-
-                gbc.gridx = 0;
-                gbc.gridy = 0;
-                gbc.gridwidth = 4;
-                gbc.fill = GridBagConstraints.BOTH;
-                productGrid.add(noResultsLabel, gbc);
-            } else {
-                int col = 0;
-                int row = 0;
-
-                for (Map<String, Object> product : filtered) {
-                    String name = getStringValue(product, "name", "Unknown Product");
-                    Double price = getDoubleValue(product, "minimumSellingPrice", 0.0);
-                    Integer productId = getIntegerValue(product, "id", 0);
-                    String description = getStringValue(product, "description", "");
-
-                    // Get category name
-                    Integer categoryId = getIntegerValue(product, "categoryId", null);
-                    String categoryName = categoryId != null ? categoriesMap.get(categoryId) : "";
-
-                    // Get brand names
-                    String brandNames = "";
-                    try {
-                        String compatibleBrandsJson = getStringValue(product, "compatibleBrandIds", "[]");
-                        if (!compatibleBrandsJson.isEmpty()) {
-                            List<Integer> brandIds = mapper.readValue(compatibleBrandsJson, new TypeReference<List<Integer>>() {});
-                            StringBuilder brands = new StringBuilder();
-                            for (Integer brandId : brandIds) {
-                                String brandName = brandsMap.get(brandId);
-                                if (brandName != null) {
-                                    if (brands.length() > 0) {
-                                        brands.append(", ");
-                                    }
-                                    brands.append(brandName);
-                                }
-                            }
-                            brandNames = brands.toString();
-                        }
-                    } catch (Exception e) {
-                        // Ignore JSON parsing errors
-                    }
-
-                    JButton button = createProductButton(name, description, price, productId, categoryName, brandNames);
-
-                    gbc.gridx = col;
-                    gbc.gridy = row;
-                    gbc.gridwidth = 1;
-                    gbc.fill = GridBagConstraints.NONE;
-                    productGrid.add(button, gbc);
-
-                    col++;
-                    if (col >= 4) { // 4 columns
-                        col = 0;
-                        row++;
-                    }
-                }
-
-                // Fill remaining space
-                gbc.gridx = 0;
-                gbc.gridy = row + 1;
-                gbc.weightx = 1.0;
-                gbc.weighty = 1.0;
-                gbc.fill = GridBagConstraints.BOTH;
-                productGrid.add(Box.createGlue(), gbc);
-            }
+    private void renderProductGrid(String query, List<Product> filtered) {
+        String emptyMessage = query != null && !query.trim().isEmpty()
+                ? "No products found for: \"" + query + "\"" : null;
+        if (emptyMessage == null && selectedBrandFilter() != null) {
+            emptyMessage = "No products for " + brandFilterCombo.getSelectedItem();
         }
-
-        productGrid.revalidate();
-        productGrid.repaint();
+        productGrid.setProducts(filtered, emptyMessage);
     }
 
-    private boolean matchesPriceRange(String query, Double price) {
-        try {
-            // Remove currency symbols and commas
-            String cleanQuery = query.replace("ksh", "").replace(",", "").trim();
-
-            // Check for price range (e.g., "1000-2000")
-            if (cleanQuery.contains("-")) {
-                String[] parts = cleanQuery.split("-");
-                if (parts.length == 2) {
-                    double min = Double.parseDouble(parts[0].trim());
-                    double max = Double.parseDouble(parts[1].trim());
-                    return price >= min && price <= max;
-                }
-            }
-
-            // Check for comparison operators
-            if (cleanQuery.startsWith(">")) {
-                double value = Double.parseDouble(cleanQuery.substring(1).trim());
-                return price > value;
-            } else if (cleanQuery.startsWith("<")) {
-                double value = Double.parseDouble(cleanQuery.substring(1).trim());
-                return price < value;
-            } else if (cleanQuery.startsWith(">=")) {
-                double value = Double.parseDouble(cleanQuery.substring(2).trim());
-                return price >= value;
-            } else if (cleanQuery.startsWith("<=")) {
-                double value = Double.parseDouble(cleanQuery.substring(2).trim());
-                return price <= value;
-            }
-
-            // Check exact price match
-            double queryPrice = Double.parseDouble(cleanQuery);
-            return Math.abs(price - queryPrice) < 0.01; // Allow small rounding difference
+    private Integer selectedBrandFilter() {
+        int selected = brandFilterCombo != null ? brandFilterCombo.getSelectedIndex() : -1;
+        return selected > 0 && selected < brandFilterIds.size() ? brandFilterIds.get(selected) : null;
+    }
 
-        } catch (NumberFormatException e) {
-            return false;
+    // Refills the brand filter from brandsMap, keeping the current choice when the brand still exists
+    private void refreshBrandFilter() {
+        if (brandFilterCombo == null) return;
+        Integer current = selectedBrandFilter();
+
+        List<Map.Entry<Integer, String>> brands = new ArrayList<>(brandsMap.entrySet());
+        brands.sort(Map.Entry.comparingByValue(String.CASE_INSENSITIVE_ORDER));
+
+        // One model swap instead of item-by-item changes, so the filter fires a single search
+        DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
+        brandFilterIds.clear();
+        model.addElement("All brands");
+        brandFilterIds.add(null);
+        for (Map.Entry<Integer, String> brand : brands) {
+            model.addElement(brand.getValue());
+            brandFilterIds.add(brand.getKey());
+            if (brand.getKey().equals(current)) model.setSelectedItem(brand.getValue());
         }
+        brandFilterCombo.setModel(model);
+    }
+
+    // Comma-separated names of the vehicle brands a product is compatible with
+    private String brandLabel(Product product) {
+        return searchIndex != null ? searchIndex.brandLabel(product.id()) : "";
     }
 
     // ---------- Cart / Checkout ----------
@@ -795,8 +748,24 @@ public class SalesPanel extends JPanel {
             );
         });
 
+        syncStatusLabel = new JLabel(" ");
+        syncStatusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        syncStatusLabel.setForeground(new Color(120, 120, 120));
+
         checkoutPanel.add(totalLabel, BorderLayout.CENTER);
         checkoutPanel.add(checkoutBtn, BorderLayout.EAST);
+        reviewSalesBtn = new JButton("Review");
+        reviewSalesBtn.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        reviewSalesBtn.setMargin(new Insets(1, 6, 1, 6));
+        reviewSalesBtn.setFocusPainted(false);
+        reviewSalesBtn.setVisible(false);
+        reviewSalesBtn.addActionListener(e -> showSalesNeedingReview());
+
+        JPanel syncPanel = new JPanel(new BorderLayout(6, 0));
+        syncPanel.setOpaque(false);
+        syncPanel.add(syncStatusLabel, BorderLayout.CENTER);
+        syncPanel.add(reviewSalesBtn, BorderLayout.EAST);
+        checkoutPanel.add(syncPanel, BorderLayout.SOUTH);
 
         bottomArea.add(customerPanel);
         bottomArea.add(Box.createRigidArea(new Dimension(0, 8)));
@@ -830,8 +799,17 @@ public class SalesPanel extends JPanel {
         styleButton(refreshBtn, new Color(96, 125, 139));
         refreshBtn.addActionListener(e -> loadRecentSales());
 
+        JButton receiptBtn = new JButton("Receipt PDF");
+        styleButton(receiptBtn, new Color(121, 85, 72));
+        receiptBtn.addActionListener(e -> saveReceiptPdf());
+
+        JPanel headerButtons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        headerButtons.setOpaque(false);
+        headerButtons.add(receiptBtn);
+        headerButtons.add(refreshBtn);
+
         headerPanel.add(title, BorderLayout.WEST);
-        headerPanel.add(refreshBtn, BorderLayout.EAST);
+        headerPanel.add(headerButtons, BorderLayout.EAST);
 
         // Compact search bar for Paid Sales
         JPanel searchPanel = new JPanel(new BorderLayout(5, 0));
@@ -850,12 +828,7 @@ public class SalesPanel extends JPanel {
 
         // Paid sales table - read only
         String[] paidCols = {"Sale ID", "Sale #", "Customer", "Total", "Payment Method", "Date"};
-        paidSalesModel = new DefaultTableModel(paidCols, 0) {
-            @Override
-            public boolean isCellEditable(int row, int col) {
-                return false; // No editing allowed for paid sales
-            }
-        };
+        paidSalesModel = new SalesHistoryTableModel(paidCols, paidSales, this::paidSaleRow, this::saleIdOf);
         paidSalesTable = new JTable(paidSalesModel);
         paidSalesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         paidSalesTable.setEnabled(true);
@@ -887,6 +860,7 @@ public class SalesPanel extends JPanel {
 
         JScrollPane paidSalesScroll = new JScrollPane(paidSalesTable);
         paidSalesScroll.setBorder(BorderFactory.createTitledBorder("Paid Sales List"));
+        paidSalesScroll.getViewport().addChangeListener(e -> checkSalesScroll(paidSalesTable));
 
         panel.add(topPanel, BorderLayout.NORTH);
         panel.add(paidSalesScroll, BorderLayout.CENTER);
@@ -894,11 +868,29 @@ public class SalesPanel extends JPanel {
         return panel;
     }
 
+    // Receipt of the selected paid sale as a PDF, for reprinting without the server
+    private void saveReceiptPdf() {
+        int viewRow = paidSalesTable.getSelectedRow();
+        if (viewRow < 0) {
+            showError("Select a sale first");
+            return;
+        }
+        Map<String, Object> sale = paidSales.get(paidSalesTable.convertRowIndexToModel(viewRow));
+        Integer saleId = saleIdOf(sale);
+        if (saleId == null) {
+            showError("This sale has not reached the server yet");
+            return;
+        }
+        String number = Objects.toString(sale.get("saleNumber"), String.valueOf(saleId));
+        PdfOutput.save(this, "receipt_" + number.replaceAll("[^A-Za-z0-9_-]", "_"),
+                (renderer, file) -> renderer.renderReceipt(saleId, CatalogCache.getInstance().getProductNames(), file));
+    }
+
     private void filterPaidSales(String query) {
         if (query == null || query.trim().isEmpty()) {
             paidSalesSorter.setRowFilter(null);
         } else {
-            RowFilter<DefaultTableModel, Integer> rowFilter = RowFilter.regexFilter("(?i)" + query);
+            RowFilter<SalesHistoryTableModel, Integer> rowFilter = RowFilter.regexFilter("(?i)" + query);
             paidSalesSorter.setRowFilter(rowFilter);
         }
     }
@@ -986,9 +978,7 @@ public class SalesPanel extends JPanel {
 
         // ========== CREDIT SALES TABLE SECTION ==========
         String[] creditCols = {"Sale ID", "Sale #", "Customer", "Phone", "Total", "Balance", "Date"};
-        creditSalesModel = new DefaultTableModel(creditCols, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        creditSalesModel = new SalesHistoryTableModel(creditCols, creditSales, this::creditSaleRow, this::saleIdOf);
         creditSalesTable = new JTable(creditSalesModel);
         creditSalesTable.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         creditSalesTable.setRowHeight(30);
@@ -1015,6 +1005,7 @@ public class SalesPanel extends JPanel {
         JScrollPane creditSalesScroll = new JScrollPane(creditSalesTable);
         creditSalesScroll.setBorder(BorderFactory.createTitledBorder("Credit Sales List"));
         creditSalesScroll.setPreferredSize(new Dimension(0, 200)); // Flexible height
+        creditSalesScroll.getViewport().addChangeListener(e -> checkSalesScroll(creditSalesTable));
 
         // ========== SELECTED SALE INFO SECTION ==========
         JPanel selectedSalePanel = new JPanel(new BorderLayout());
@@ -1084,9 +1075,6 @@ public class SalesPanel extends JPanel {
 
         panel.add(wrapper, BorderLayout.CENTER);
 
-        // Load initial data
-        loadRecentSales();
-
         return panel;
     }
 
@@ -1106,7 +1094,7 @@ public class SalesPanel extends JPanel {
         if (query == null || query.trim().isEmpty()) {
             creditSalesSorter.setRowFilter(null);
         } else {
-            RowFilter<DefaultTableModel, Integer> rowFilter = RowFilter.regexFilter("(?i)" + query);
+            RowFilter<SalesHistoryTableModel, Integer> rowFilter = RowFilter.regexFilter("(?i)" + query);
             creditSalesSorter.setRowFilter(rowFilter);
         }
     }
@@ -1118,13 +1106,13 @@ public class SalesPanel extends JPanel {
         // Convert view row to model row
         int modelRow = creditSalesTable.convertRowIndexToModel(row);
 
-        if (modelRow < 0 || modelRow >= creditSales.size()) {
+        if (modelRow < 0 || modelRow >= creditSalesModel.getRowCount()) {
             selectedCreditSaleLabel.setText("No credit sale selected");
             creditPaymentsModel.setRowCount(0);
             recentPayments.clear();
             return;
         }
-        Map<String, Object> sale = creditSales.get(modelRow);
+        Map<String, Object> sale = creditSalesModel.getSale(modelRow);
         String saleNumber = Objects.toString(sale.get("saleNumber"), "N/A");
         String status = Objects.toString(sale.get("paymentStatus"), "N/A");
         Object saleIdObj = sale.get("saleId") != null ? sale.get("saleId") : sale.get("id");
@@ -1143,12 +1131,12 @@ public class SalesPanel extends JPanel {
         // Convert view row to model row
         int modelRow = creditSalesTable.convertRowIndexToModel(row);
 
-        if (modelRow < 0 || modelRow >= creditSales.size()) {
+        if (modelRow < 0 || modelRow >= creditSalesModel.getRowCount()) {
             showError("Select a credit sale first");
             return;
         }
 
-        Map<String, Object> sale = creditSales.get(modelRow);
+        Map<String, Object> sale = creditSalesModel.getSale(modelRow);
         Integer saleId = safeIntegerFromObject(sale.get("saleId") != null ? sale.get("saleId") : sale.get("id"));
         if (saleId == null) {
             showError("Sale has no valid ID");
@@ -1259,61 +1247,41 @@ public class SalesPanel extends JPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    // Load categories
-                    String catResp = client.get("/api/secure/categories");
-                    if (catResp != null && !catResp.trim().isEmpty()) {
-                        List<Map<String, Object>> categories = mapper.readValue(catResp, new TypeReference<List<Map<String, Object>>>() {});
-                        categoriesMap.clear();
-                        for (Map<String, Object> cat : categories) {
-                            Integer id = safeIntegerFromObject(cat.get("id"));
-                            String name = Objects.toString(cat.get("name"), "");
-                            if (id != null && !name.isEmpty()) {
-                                categoriesMap.put(id, name);
-                            }
-                        }
-                    }
+                    // Categories and brands come from the shared catalog cache
+                    Map<Integer, String> categories = catalog.getCategoryNames();
+                    categoriesMap.clear();
+                    categoriesMap.putAll(categories);
 
-                    // Load brands
-                    String brandResp = client.get("/api/secure/brands");
-                    if (brandResp != null && !brandResp.trim().isEmpty()) {
-                        List<Map<String, Object>> brands = mapper.readValue(brandResp, new TypeReference<List<Map<String, Object>>>() {});
-                        brandsMap.clear();
-                        for (Map<String, Object> brand : brands) {
-                            Integer id = safeIntegerFromObject(brand.get("id"));
-                            String name = Objects.toString(brand.get("name"), "");
-                            if (id != null && !name.isEmpty()) {
-                                brandsMap.put(id, name);
-                            }
-                        }
-                    }
+                    Map<Integer, String> brands = catalog.getBrandNames();
+                    brandsMap.clear();
+                    brandsMap.putAll(brands);
+
+                    searchIndex = catalog.getSearchIndex();
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
                 return null;
             }
+
+            @Override
+            protected void done() {
+                refreshBrandFilter();
+                updateProductGrid();
+            }
         };
-        worker.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, worker);
     }
 
     // ---------- Networking / Data ----------
     private void loadProducts() {
         SwingWorker<Void, Void> w = new SwingWorker<>() {
             private Exception error = null;
-            private List<Map<String, Object>> loaded = new ArrayList<>();
+            private List<Product> loaded = new ArrayList<>();
 
             @Override protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/products");
-                    if (resp != null && !resp.trim().isEmpty()) {
-                        try {
-                            loaded = client.parseResponseList(resp);
-                        } catch (Exception ex) {
-                            Map<String, Object> r = client.parseResponse(resp);
-                            if (r != null && r.containsKey("data") && r.get("data") instanceof List) {
-                                loaded = (List<Map<String, Object>>) r.get("data");
-                            } else throw ex;
-                        }
-                    }
+                    loaded = catalog.getProducts();
+                    searchIndex = catalog.getSearchIndex();
                 } catch (Exception ex) { error = ex; ex.printStackTrace(); }
                 return null;
             }
@@ -1323,37 +1291,67 @@ public class SalesPanel extends JPanel {
                 products.clear();
                 products.addAll(loaded);
 
-                // Build product categories map
+                // Build product index and categories map
+                productsById.clear();
                 productCategoriesMap.clear();
-                for (Map<String, Object> product : products) {
-                    Integer productId = getIntegerValue(product, "id", 0);
-                    Integer categoryId = getIntegerValue(product, "categoryId", null);
+                for (Product product : products) {
+                    productsById.put(product.id(), product);
+                    Integer categoryId = product.categoryId();
                     if (categoryId != null && categoriesMap.containsKey(categoryId)) {
-                        productCategoriesMap.put(productId, categoriesMap.get(categoryId));
+                        productCategoriesMap.put(product.id(), categoriesMap.get(categoryId));
                     }
                 }
 
                 updateProductGrid();
             }
         };
-        w.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, w);
     }
 
+    /**
+     * Reloads the sales history from the first page. Further pages are fetched by {@link #checkSalesScroll}.
+     */
     private void loadRecentSales() {
+        salesGeneration++;
+        loadedSaleIds.clear();
+        nextSalesPage = 0;
+        moreSales = true;
+        loadingSales = false;
+        autoFillPages = 0;
+        salesSyncCursor = null;
+        salesSyncStamp = null;
+        loadSalesPage(0);
+    }
+
+    /**
+     * Fetches only the sales changed since the last load or sync and merges them into the tables in place.
+     * Rows not stamped after the cursor are dropped. Falls back to a full reload when there is no cursor yet,
+     * the sync fails, or more than a page comes back (a server that ignores ?since= sends everything).
+     */
+    private void syncRecentSales() {
+        if (salesSyncCursor == null || (loadingSales && nextSalesPage == 0)) {
+            if (!loadingSales) loadRecentSales();
+            return;
+        }
+        int generation = salesGeneration;
+        String since = salesSyncCursor;
+        Instant sinceStamp = salesSyncStamp;
+
         SwingWorker<Void, Void> w = new SwingWorker<>() {
             private Exception error = null;
-            private List<Map<String, Object>> fetched = new ArrayList<>();
+            private List<Map<String, Object>> changed = new ArrayList<>();
+            private boolean ignored = false;
 
             @Override protected Void doInBackground() {
                 try {
-                    String resp = client.get("/api/secure/sales");
-                    if (resp == null || resp.trim().isEmpty()) return null;
-                    try {
-                        fetched = client.parseResponseList(resp);
-                    } catch (Exception e) {
-                        Map<String, Object> r = client.parseResponse(resp);
-                        if (r != null && r.containsKey("data") && r.get("data") instanceof List) {
-                            fetched = (List<Map<String, Object>>) r.get("data");
+                    String resp = client.get("/api/secure/sales?since=" + URLEncoder.encode(since, StandardCharsets.UTF_8));
+                    if (resp != null && !resp.trim().isEmpty()) {
+                        Map<String, Object> pageInfo = new HashMap<>();
+                        List<Map<String, Object>> fetched = readSalesList(resp, pageInfo);
+                        ignored = fetched.size() > SALES_PAGE_SIZE || Boolean.FALSE.equals(pageInfo.get("last"));
+                        for (Map<String, Object> sale : fetched) {
+                            Instant stamp = parseSyncStamp(sale.get(SYNC_STAMP_FIELD));
+                            if (stamp != null && stamp.isAfter(sinceStamp)) changed.add(sale);
                         }
                     }
                 } catch (Exception ex) { error = ex; ex.printStackTrace(); }
@@ -1361,44 +1359,179 @@ public class SalesPanel extends JPanel {
             }
 
             @Override protected void done() {
+                if (generation != salesGeneration) return; // a full reload started meanwhile
+                if (error != null || ignored) {
+                    loadRecentSales();
+                    return;
+                }
+                // Oldest first, so the newest sale ends up on top of its table
+                for (int i = changed.size() - 1; i >= 0; i--) {
+                    addSaleToHistory(changed.get(i));
+                }
+            }
+        };
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, w);
+    }
+
+    private void loadNextSalesPage() {
+        if (loadingSales || !moreSales) return;
+        loadSalesPage(nextSalesPage);
+    }
+
+    // Loads the next page once the table is scrolled near its end, or while its rows do not fill the viewport
+    private void checkSalesScroll(JTable table) {
+        if (table == null || loadingSales || !moreSales || !table.isShowing()) return;
+        if (!(table.getParent() instanceof JViewport)) return;
+
+        JViewport viewport = (JViewport) table.getParent();
+        Rectangle view = viewport.getViewRect();
+        if (table.getHeight() < viewport.getHeight()) {
+            if (autoFillPages >= SALES_AUTOFILL_PAGES) return;
+            autoFillPages++;
+        } else if (table.getHeight() - (view.y + view.height) > table.getRowHeight() * 10) {
+            return;
+        }
+        loadNextSalesPage();
+    }
+
+    private void loadSalesPage(int page) {
+        loadingSales = true;
+        int generation = salesGeneration;
+
+        SwingWorker<Void, Void> w = new SwingWorker<>() {
+            private Exception error = null;
+            private List<Map<String, Object>> fetched = new ArrayList<>();
+            private boolean last = false;
+
+            @Override protected Void doInBackground() {
+                try {
+                    String resp = client.get("/api/secure/sales?page=" + page + "&size=" + SALES_PAGE_SIZE);
+                    if (resp == null || resp.trim().isEmpty()) {
+                        last = true;
+                        return null;
+                    }
+
+                    Map<String, Object> pageInfo = new HashMap<>();
+                    fetched = readSalesList(resp, pageInfo);
+                    Boolean lastFlag = pageInfo.get("last") instanceof Boolean ? (Boolean) pageInfo.get("last") : null;
+
+                    // A server that ignores the paging parameters returns everything at once
+                    last = lastFlag != null ? lastFlag
+                            : fetched.size() < SALES_PAGE_SIZE || fetched.size() > SALES_PAGE_SIZE;
+                } catch (Exception ex) { error = ex; ex.printStackTrace(); }
+                return null;
+            }
+
+            @Override protected void done() {
+                if (generation != salesGeneration) return; // superseded by a newer reload
+                loadingSales = false;
+
                 if (error != null) {
+                    moreSales = false;
                     showError("Failed to load sales from server: " + error.getMessage());
                     return;
                 }
 
-                // Separate sales into paid and credit based on payment_status
-                paidSales.clear();
-                creditSales.clear();
-
-                if (fetched != null) {
-                    for (Map<String, Object> sale : fetched) {
-                        String status = Objects.toString(sale.get("paymentStatus"), "").toLowerCase();
-
-                        // Check for pending/credit status (based on your requirements)
-                        if ("paid".equals(status) || "completed".equals(status) || "cash".equals(status)) {
-                            paidSales.add(sale);
-                        } else if ("pending".equals(status) || "credit".equals(status) ||
-                                "partially paid".equals(status) || "unpaid".equals(status) ||
-                                "partial".equals(status)) {
-                            creditSales.add(sale);
-                        } else {
-                            // Default: if status is not recognized, check if there's a total payment
-                            Double total = safeDoubleFromObject(sale.get("totalAmount"));
-                            Double paid = calculatePaidAmountForSale(sale);
-                            if (paid != null && total != null && Math.abs(paid - total) < 0.01) {
-                                paidSales.add(sale);
-                            } else {
-                                creditSales.add(sale);
-                            }
-                        }
+                // Separate sales into paid and credit based on payment_status, skipping rows shifted
+                // onto this page by sales recorded since the previous page was read
+                List<Map<String, Object>> pagePaid = new ArrayList<>();
+                List<Map<String, Object>> pageCredit = new ArrayList<>();
+                for (Map<String, Object> sale : fetched) {
+                    Integer saleId = safeIntegerFromObject(sale.get("saleId") != null ? sale.get("saleId") : sale.get("id"));
+                    if (saleId != null && !loadedSaleIds.add(saleId)) continue;
+
+                    if (isPaidSale(sale)) {
+                        pagePaid.add(sale);
+                    } else {
+                        pageCredit.add(sale);
                     }
                 }
 
-                updatePaidSalesTable();
-                updateCreditSalesTable();
+                if (page == 0) {
+                    paidSalesModel.setSales(pagePaid);
+                    creditSalesModel.setSales(pageCredit);
+                } else {
+                    paidSalesModel.appendSales(pagePaid);
+                    creditSalesModel.appendSales(pageCredit);
+                }
+
+                for (Map<String, Object> sale : fetched) {
+                    advanceSyncCursor(sale);
+                }
+                nextSalesPage = page + 1;
+                moreSales = !last && !(pagePaid.isEmpty() && pageCredit.isEmpty());
+                checkSalesScroll(paidSalesTable);
+                checkSalesScroll(creditSalesTable);
             }
         };
-        w.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.BACKGROUND, w);
+    }
+
+    private List<Map<String, Object>> readSalesList(String resp) throws Exception {
+        return readSalesList(resp, new HashMap<>());
+    }
+
+    // Accepts a bare array, a {data} envelope or a Spring page ({content, last}, optionally inside {data});
+    // the page's "last" flag, when present, is copied into pageInfo
+    private List<Map<String, Object>> readSalesList(String resp, Map<String, Object> pageInfo) throws Exception {
+        if (!resp.trim().startsWith("{")) {
+            return client.parseResponseList(resp);
+        }
+        Map<String, Object> r = client.parseResponse(resp);
+        Object content = r.get("content") != null ? r.get("content") : r.get("data");
+        if (content instanceof Map && ((Map<String, Object>) content).get("content") instanceof List) {
+            r = (Map<String, Object>) content;
+            content = r.get("content");
+        }
+        if (r.get("last") != null) pageInfo.put("last", r.get("last"));
+        return content instanceof List ? (List<Map<String, Object>>) content : new ArrayList<>();
+    }
+
+    private void advanceSyncCursor(Map<String, Object> sale) {
+        Object value = sale.get(SYNC_STAMP_FIELD);
+        Instant stamp = parseSyncStamp(value);
+        if (stamp == null) return;
+        if (salesSyncStamp == null || stamp.isAfter(salesSyncStamp)) {
+            salesSyncStamp = stamp;
+            salesSyncCursor = value.toString();
+        }
+    }
+
+    // ISO date-time with or without offset, fraction or seconds ("2024-05-01T10:00", "...T10:00:00.123Z");
+    // local times are taken in this machine's zone. Date-only values are too coarse to sync on: null.
+    private static Instant parseSyncStamp(Object value) {
+        if (value == null) return null;
+        String text = value.toString().trim().replace(' ', 'T');
+        try {
+            return OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant();
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private Integer saleIdOf(Map<String, Object> sale) {
+        return safeIntegerFromObject(sale.get("saleId") != null ? sale.get("saleId") : sale.get("id"));
+    }
+
+    private boolean isPaidSale(Map<String, Object> sale) {
+        String status = Objects.toString(sale.get("paymentStatus"), "").toLowerCase();
+
+        // Check for pending/credit status (based on your requirements)
+        if ("paid".equals(status) || "completed".equals(status) || "cash".equals(status)) {
+            return true;
+        } else if ("pending".equals(status) || "credit".equals(status) ||
+                "partially paid".equals(status) || "unpaid".equals(status) ||
+                "partial".equals(status)) {
+            return false;
+        }
+        // Default: if status is not recognized, check if there's a total payment
+        Double total = safeDoubleFromObject(sale.get("totalAmount"));
+        Double paid = calculatePaidAmountForSale(sale);
+        return paid != null && total != null && Math.abs(paid - total) < 0.01;
     }
 
     private Double calculatePaidAmountForSale(Map<String, Object> sale) {
@@ -1424,54 +1557,38 @@ public class SalesPanel extends JPanel {
         searchProducts(searchField != null ? searchField.getText() : "");
     }
 
-    private void updatePaidSalesTable() {
-        SwingUtilities.invokeLater(() -> {
-            paidSalesModel.setRowCount(0);
-            for (Map<String, Object> sale : paidSales) {
-                addSaleToTable(paidSalesModel, sale);
-            }
-            filterPaidSales(paidSalesSearchField != null ? paidSalesSearchField.getText() : "");
-        });
-    }
+    private Object[] paidSaleRow(Map<String, Object> sale) {
+        Integer saleId = safeIntegerFromObject(sale.get("saleId") != null ? sale.get("saleId") : sale.get("id"));
+        String saleNumber = Objects.toString(sale.get("saleNumber"), Objects.toString(sale.get("saleNo"), "N/A"));
+        Double total = safeDoubleFromObject(sale.get("totalAmount") != null ? sale.get("totalAmount") : sale.get("total"));
+        String date = Objects.toString(sale.get("saleDate"), "");
 
-    private void updateCreditSalesTable() {
-        SwingUtilities.invokeLater(() -> {
-            creditSalesModel.setRowCount(0);
-            for (Map<String, Object> sale : creditSales) {
-                addSaleToTable(creditSalesModel, sale);
-            }
-            filterCreditSales(creditSalesSearchField != null ? creditSalesSearchField.getText() : "");
-        });
+        return new Object[]{
+                saleId,
+                saleNumber,
+                getCustomerDisplay(sale),
+                total != null ? total : 0.0,
+                getPaymentMethod(sale),
+                date.length() > 16 ? date.substring(0, 16) : date
+        };
     }
 
-    private void addSaleToTable(DefaultTableModel model, Map<String, Object> sale) {
+    private Object[] creditSaleRow(Map<String, Object> sale) {
         Integer saleId = safeIntegerFromObject(sale.get("saleId") != null ? sale.get("saleId") : sale.get("id"));
         String saleNumber = Objects.toString(sale.get("saleNumber"), Objects.toString(sale.get("saleNo"), "N/A"));
-
-        String customerDisplay = getCustomerDisplay(sale);
         Double total = safeDoubleFromObject(sale.get("totalAmount") != null ? sale.get("totalAmount") : sale.get("total"));
+        double amount = total != null ? total : 0.0;
         String date = Objects.toString(sale.get("saleDate"), "");
 
-        if (model == paidSalesModel) {
-            String paymentMethod = getPaymentMethod(sale);
-            model.addRow(new Object[]{
-                    saleId,
-                    saleNumber,
-                    customerDisplay,
-                    total != null ? total : 0.0,
-                    paymentMethod,
-                    date.length() > 16 ? date.substring(0, 16) : date
-            });
-        } else if (model == creditSalesModel) {
-            // REMOVED Balance Due column and calculation
-            model.addRow(new Object[]{
-                    saleId,
-                    saleNumber,
-                    customerDisplay,
-                    total != null ? total : 0.0,
-                    date.length() > 16 ? date.substring(0, 16) : date
-            });
-        }
+        return new Object[]{
+                saleId,
+                saleNumber,
+                getCustomerDisplay(sale),
+                getCustomerPhone(sale),
+                amount,
+                Math.max(0.0, amount - calculatePaidAmountForSale(sale)),
+                date.length() > 16 ? date.substring(0, 16) : date
+        };
     }
 
     private String getCustomerDisplay(Map<String, Object> sale) {
@@ -1502,6 +1619,15 @@ public class SalesPanel extends JPanel {
         return method;
     }
 
+    private String getCustomerPhone(Map<String, Object> sale) {
+        if (sale.get("customerPhone") != null) return Objects.toString(sale.get("customerPhone")).trim();
+        if (sale.containsKey("customer") && sale.get("customer") instanceof Map) {
+            Map<String, Object> c = (Map<String, Object>) sale.get("customer");
+            return Objects.toString(c.get("phone"), "").trim();
+        }
+        return "";
+    }
+
     private String getCustomerEmail(Map<String, Object> sale) {
         if (sale.containsKey("customer") && sale.get("customer") instanceof Map) {
             Map<String, Object> c = (Map<String, Object>) sale.get("customer");
@@ -1557,7 +1683,7 @@ public class SalesPanel extends JPanel {
                 }
             }
         };
-        w.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.INTERACTIVE, w);
     }
 
     // ---------- Process Sale ----------
@@ -1572,132 +1698,177 @@ public class SalesPanel extends JPanel {
             showError("Please provide an email address to send receipt"); return;
         }
 
-        SwingUtilities.invokeLater(() -> checkoutBtn.setEnabled(false));
+        Map<String, Object> saleRequest = new HashMap<>();
+        saleRequest.put("customerPhone", phone);
+        if (name != null && !name.trim().isEmpty()) saleRequest.put("customerName", name.trim());
+        saleRequest.put("discountTotal", 0);
 
-        SwingWorker<Void, Void> w = new SwingWorker<>() {
-            private String resultMessage = "Unknown error";
-            private boolean success = false;
-            private Map<String, Object> createdSaleData = null;
-
-            @Override protected Void doInBackground() {
-                try {
-                    Map<String, Object> saleRequest = new HashMap<>();
-                    saleRequest.put("customerPhone", phone);
-                    if (name != null && !name.trim().isEmpty()) saleRequest.put("customerName", name.trim());
-                    saleRequest.put("discountTotal", 0);
-
-                    List<Map<String, Object>> items = new ArrayList<>();
-                    for (CartItem item : cartItems) {
-                        Map<String, Object> saleItem = new HashMap<>();
-                        saleItem.put("productId", item.productId);
-                        saleItem.put("quantity", item.quantity);
-                        saleItem.put("unitPrice", item.unitPrice);
-                        saleItem.put("discount", 0);
-                        items.add(saleItem);
-                    }
-                    saleRequest.put("items", items);
-
-                    String saleResponse = client.post("/api/secure/sales", saleRequest);
-                    Map<String, Object> saleResult = client.parseResponse(saleResponse);
-
-                    success = client.isResponseSuccessful(saleResponse);
-                    resultMessage = client.getResponseMessage(saleResponse);
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (CartItem item : cartItems) {
+            Map<String, Object> saleItem = new HashMap<>();
+            saleItem.put("productId", item.productId);
+            saleItem.put("quantity", item.quantity);
+            saleItem.put("unitPrice", item.unitPrice);
+            saleItem.put("discount", 0);
+            items.add(saleItem);
+        }
+        saleRequest.put("items", items);
+
+        // Payment recorded once the sale exists; the replicator swaps in the server's total
+        String method = paymentMethod.toUpperCase();
+        Map<String, Object> payment = new HashMap<>();
+        payment.put("paymentMethod", method);
+        payment.put("amount", calculateTotalAmount());
+        payment.put("reference", method + "-" + System.currentTimeMillis());
+        if (sendReceipt && email != null && !email.trim().isEmpty()) {
+            payment.put("email", email.trim());
+        }
 
-                    if (!success) return null;
+        // The cart is safe on disk before the till is released; the server is updated in the background
+        CheckoutJournal.Entry entry;
+        try {
+            entry = journal.append(session.getUserId(), saleRequest, payment);
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Could not record the sale locally: " + e.getMessage());
+            return;
+        }
 
-                    Map<String, Object> saleData = null;
-                    if (saleResult != null) {
-                        if (saleResult.containsKey("data") && saleResult.get("data") instanceof Map) {
-                            saleData = (Map<String, Object>) saleResult.get("data");
-                        } else {
-                            saleData = saleResult;
-                        }
-                    }
-                    if (saleData == null) { success = false; resultMessage = "Sale created but server returned no sale data."; return null; }
+        double total = calculateTotalAmount();
+        clearCart();
+        if (searchField != null) searchField.setText("");
+        updateSyncStatus(journal.pendingCount());
+        replicator.kick();
+
+        // The sale id only exists once the server has the sale; until then the cashier quotes this reference
+        JOptionPane.showMessageDialog(this,
+                String.format("Sale queued as %s (%s, ksh %,.2f).%n"
+                                + "It is being sent to the server; the sync status shows its Sale ID once it is recorded.",
+                        entry.reference(), method, total),
+                "Sale Queued", JOptionPane.INFORMATION_MESSAGE);
+    }
 
-                    createdSaleData = new HashMap<>(saleData);
+    private void updateSyncStatus(int pending) {
+        int review = journal.reviewCount();
+        reviewSalesBtn.setVisible(review > 0);
+        if (pending > 0) {
+            String text = pending == 1 ? "1 sale waiting to sync" : pending + " sales waiting to sync";
+            if (review > 0) text += " (" + review + " need review)";
+            syncStatusLabel.setText(text);
+        } else if (syncStatusLabel.getText().contains("waiting to sync")) {
+            syncStatusLabel.setText("All sales synced");
+        }
+    }
 
-                    Integer saleId = safeIntegerFromObject(saleData.get("saleId") != null ? saleData.get("saleId") : saleData.get("id"));
-                    Double authoritativeTotal = safeDoubleFromObject(saleData.get("totalAmount") != null ? saleData.get("totalAmount") : saleData.get("total"));
+    /**
+     * Checkouts parked by the replicator because their last request may have reached the server. Whoever
+     * checks the sales history either marks one as recorded (it is there) or sends it again (it is not).
+     */
+    private void showSalesNeedingReview() {
+        List<CheckoutJournal.Entry> parked = new ArrayList<>();
+        try {
+            for (CheckoutJournal.Entry entry : journal.pending()) {
+                if (entry.needsReview()) parked.add(entry);
+            }
+        } catch (Exception e) {
+            showError("Could not read the local checkout journal: " + e.getMessage());
+            return;
+        }
+        if (parked.isEmpty()) {
+            updateSyncStatus(journal.pendingCount());
+            return;
+        }
 
-                    if ("CASH".equalsIgnoreCase(paymentMethod)) {
-                        if (saleId == null) {
-                            resultMessage = "Sale created but server did not return sale id; cannot record payment automatically.";
-                            success = true;
-                            return null;
-                        }
-                        double amountToPay = authoritativeTotal != null ? authoritativeTotal : calculateTotalAmount();
-                        Map<String, Object> paymentRequest = new HashMap<>();
-                        paymentRequest.put("saleId", saleId);
-                        paymentRequest.put("paymentMethod", "CASH");
-                        paymentRequest.put("amount", amountToPay);
-                        paymentRequest.put("reference", "CASH-" + System.currentTimeMillis());
-
-                        if (sendReceipt && email != null && !email.trim().isEmpty()) {
-                            paymentRequest.put("email", email.trim());
-                        }
+        DefaultTableModel model = new DefaultTableModel(
+                new String[] {"Reference", "Customer", "Method", "Amount", "Queued At", "Problem"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        DateTimeFormatter queuedFmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        for (CheckoutJournal.Entry entry : parked) {
+            Map<String, Object> payment = entry.payment() != null ? entry.payment() : Map.of();
+            Double amount = safeDoubleFromObject(payment.get("amount"));
+            model.addRow(new Object[] {
+                    entry.reference(),
+                    Objects.toString(entry.sale().get("customerPhone"), "N/A"),
+                    Objects.toString(payment.get("paymentMethod"), "N/A"),
+                    String.format("ksh %,.2f", amount != null ? amount : 0.0),
+                    Instant.ofEpochMilli(entry.createdAt()).atZone(ZoneId.systemDefault()).format(queuedFmt),
+                    entry.reviewReason()
+            });
+        }
 
-                        String payResp = client.post("/api/secure/payments", paymentRequest);
-                        boolean paySuccess = client.isResponseSuccessful(payResp);
-                        String payMsg = client.getResponseMessage(payResp);
-
-                        if (paySuccess) {
-                            resultMessage = "Sale and payment recorded successfully (Sale ID: " + saleId + ").";
-                            success = true;
-                            try { refreshSaleFromServer(saleId); } catch (Exception ignored) {}
-                        } else {
-                            double amountToVerify = amountToPay;
-                            boolean verified = verifyPaymentByListing(saleId, amountToVerify);
-                            if (verified) {
-                                resultMessage = "Sale and payment recorded (verified) (Sale ID: " + saleId + ").";
-                                success = true;
-                                try { refreshSaleFromServer(saleId); } catch (Exception ignored) {}
-                            } else {
-                                resultMessage = "Sale created (ID: " + saleId + ") but payment failed: " + payMsg;
-                                success = false;
-                            }
-                        }
-                    } else { // CREDIT
-                        double amountToPay = authoritativeTotal != null ? authoritativeTotal : calculateTotalAmount();
-                        if (saleId != null) {
-                            Map<String, Object> creditPayment = new HashMap<>();
-                            creditPayment.put("saleId", saleId);
-                            creditPayment.put("paymentMethod", "CREDIT");
-                            creditPayment.put("amount", amountToPay);
-                            creditPayment.put("reference", "CREDIT-" + System.currentTimeMillis());
-
-                            if (sendReceipt && email != null && !email.trim().isEmpty()) {
-                                creditPayment.put("email", email.trim());
-                            }
-                            try {
-                                client.post("/api/secure/payments", creditPayment);
-                            } catch (Exception ignored) {}
-                        }
-                        resultMessage = "Sale recorded as CREDIT.";
-                        success = true;
-                    }
-                } catch (Exception e) {
-                    success = false;
-                    resultMessage = "Error: " + e.getMessage();
-                    e.printStackTrace();
-                }
-                return null;
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Sales Needing Review", true);
+        dialog.setLayout(new BorderLayout());
+        dialog.setMinimumSize(new Dimension(760, 300));
+
+        JLabel help = new JLabel("<html>These sales may or may not have reached the server. Look for each one in the sales"
+                + " history first: mark it recorded if it is there, send it again only if it is not.</html>");
+        help.setBorder(BorderFactory.createEmptyBorder(10, 12, 6, 12));
+
+        JTable table = new JTable(model);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        if (model.getRowCount() > 0) table.setRowSelectionInterval(0, 0);
+
+        JButton recordedBtn = new JButton("Mark Recorded");
+        JButton resendBtn = new JButton("Send Again");
+        JButton closeBtn = new JButton("Close");
+        recordedBtn.addActionListener(e -> {
+            int row = table.getSelectedRow();
+            if (row < 0) return;
+            CheckoutJournal.Entry entry = parked.get(row);
+            int confirm = JOptionPane.showConfirmDialog(dialog,
+                    "Sale " + entry.reference() + " is in the sales history? It will be removed from the queue.",
+                    "Mark Recorded", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) return;
+            try {
+                journal.markDone(entry.key());
+            } catch (Exception ex) {
+                showError("Could not update the local checkout journal: " + ex.getMessage());
+                return;
             }
+            parked.remove(row);
+            model.removeRow(row);
+            if (parked.isEmpty()) dialog.dispose();
+            updateSyncStatus(journal.pendingCount());
+            syncRecentSales();
+        });
+        resendBtn.addActionListener(e -> {
+            int row = table.getSelectedRow();
+            if (row < 0) return;
+            CheckoutJournal.Entry entry = parked.get(row);
+            int confirm = JOptionPane.showConfirmDialog(dialog,
+                    "Sale " + entry.reference() + " is NOT in the sales history? Sending it again while it is there"
+                            + " records it twice.",
+                    "Send Again", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (confirm != JOptionPane.YES_OPTION) return;
+            try {
+                journal.retry(entry.key());
+            } catch (Exception ex) {
+                showError("Could not update the local checkout journal: " + ex.getMessage());
+                return;
+            }
+            parked.remove(row);
+            model.removeRow(row);
+            if (parked.isEmpty()) dialog.dispose();
+            updateSyncStatus(journal.pendingCount());
+            replicator.kick();
+        });
+        closeBtn.addActionListener(e -> dialog.dispose());
 
-            @Override protected void done() {
-                SwingUtilities.invokeLater(() -> checkoutBtn.setEnabled(true));
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(recordedBtn);
+        buttons.add(resendBtn);
+        buttons.add(closeBtn);
 
-                if (success) {
-                    JOptionPane.showMessageDialog(SalesPanel.this, resultMessage, "Success", JOptionPane.INFORMATION_MESSAGE);
-                    clearCart();
-                    if (searchField != null) searchField.setText("");
-                    loadRecentSales();
-                } else {
-                    JOptionPane.showMessageDialog(SalesPanel.this, resultMessage, "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        };
-        w.execute();
+        dialog.add(help, BorderLayout.NORTH);
+        dialog.add(new JScrollPane(table), BorderLayout.CENTER);
+        dialog.add(buttons, BorderLayout.SOUTH);
+        dialog.pack();
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
     }
 
     private void processPaymentUpdate(Integer saleId, double paymentAmount, String email) {
@@ -1727,7 +1898,7 @@ public class SalesPanel extends JPanel {
 
                         // Refresh data
                         fetchPaymentsForSale(saleId);
-                        loadRecentSales();
+                        SwingUtilities.invokeLater(() -> syncRecentSales());
                     } else {
                         resultMessage = "Payment update failed: " + payMsg;
                         success = false;
@@ -1750,82 +1921,30 @@ public class SalesPanel extends JPanel {
                 }
             }
         };
-        w.execute();
+        TaskScheduler.getInstance().submit(TaskScheduler.Lane.CHECKOUT, w);
     }
 
+    /**
+     * Merges a new or changed sale into the history: an existing row is updated in place, a sale whose
+     * payment status moved between paid and credit is moved to the other table, a new sale goes on top.
+     */
     private void addSaleToHistory(Map<String, Object> saleData) {
-        String status = Objects.toString(saleData.get("paymentStatus"), "").toLowerCase();
-        Integer incomingId = safeIntegerFromObject(saleData.get("saleId") != null ? saleData.get("saleId") : saleData.get("id"));
+        Integer saleId = saleIdOf(saleData);
+        boolean paid = isPaidSale(saleData);
+        SalesHistoryTableModel target = paid ? paidSalesModel : creditSalesModel;
+        SalesHistoryTableModel other = paid ? creditSalesModel : paidSalesModel;
 
-        if ("paid".equals(status) || "completed".equals(status) || "cash".equals(status)) {
-            // Add to paid sales
-            boolean exists = false;
-            for (Map<String, Object> s : paidSales) {
-                Integer sid = safeIntegerFromObject(s.get("saleId") != null ? s.get("saleId") : s.get("id"));
-                if (sid != null && sid.equals(incomingId)) { exists = true; break; }
-            }
-            if (!exists) {
-                paidSales.add(0, saleData);
-                updatePaidSalesTable();
-            }
-        } else if ("pending".equals(status) || "credit".equals(status) ||
-                "partially paid".equals(status) || "unpaid".equals(status) ||
-                "partial".equals(status)) {
-            // Add to credit sales
-            boolean exists = false;
-            for (Map<String, Object> s : creditSales) {
-                Integer sid = safeIntegerFromObject(s.get("saleId") != null ? s.get("saleId") : s.get("id"));
-                if (sid != null && sid.equals(incomingId)) { exists = true; break; }
-            }
-            if (!exists) {
-                creditSales.add(0, saleData);
-                updateCreditSalesTable();
-            }
-        }
-    }
+        int otherRow = other.indexOf(saleId);
+        if (otherRow >= 0) other.removeSale(otherRow);
 
-    private void refreshSaleFromServer(Integer saleId) {
-        if (saleId == null) return;
-        try {
-            String resp = client.get("/api/secure/sales/" + saleId);
-            if (resp == null || resp.trim().isEmpty()) return;
-            Map<String, Object> result = client.parseResponse(resp);
-            Map<String, Object> saleData = null;
-            if (result != null) {
-                if (result.containsKey("data") && result.get("data") instanceof Map) {
-                    saleData = (Map<String, Object>) result.get("data");
-                } else {
-                    saleData = result;
-                }
-            }
-            if (saleData != null) {
-                addSaleToHistory(saleData);
-            }
-        } catch (Exception ignored) {}
-    }
-
-    private boolean verifyPaymentByListing(Integer saleId, double expectedAmount) {
-        if (saleId == null) return false;
-        try {
-            String paymentsResp = client.get("/api/secure/payments/sale/" + saleId);
-            List<Map<String, Object>> payments = null;
-            try {
-                payments = client.parseResponseList(paymentsResp);
-            } catch (Exception ex) {
-                Map<String, Object> maybe = client.parseResponse(paymentsResp);
-                if (maybe != null && maybe.containsKey("data") && maybe.get("data") instanceof List) {
-                    payments = (List<Map<String, Object>>) maybe.get("data");
-                }
-            }
-            if (payments == null || payments.isEmpty()) return false;
-            double EPS = 0.01;
-            for (Map<String, Object> p : payments) {
-                String method = Objects.toString(p.get("paymentMethod"), "");
-                Double amt = safeDoubleFromObject(p.get("amount"));
-                if (method.equalsIgnoreCase("CASH") && amt != null && Math.abs(amt - expectedAmount) <= EPS) return true;
-            }
-        } catch (Exception ignored) {}
-        return false;
+        int row = target.indexOf(saleId);
+        if (row >= 0) {
+            target.updateSale(row, saleData);
+        } else {
+            if (saleId != null) loadedSaleIds.add(saleId);
+            target.prependSale(saleData);
+        }
+        advanceSyncCursor(saleData);
     }
 
     // ---------- Helpers ----------
@@ -1872,26 +1991,6 @@ public class SalesPanel extends JPanel {
         calculateTotal();
     }
 
-    private String getStringValue(Map<String, Object> map, String key, String defaultValue) {
-        if (map == null || !map.containsKey(key)) return defaultValue;
-        Object v = map.get(key);
-        return v != null ? v.toString() : defaultValue;
-    }
-
-    private Double getDoubleValue(Map<String, Object> map, String key, Double defaultValue) {
-        if (map == null || !map.containsKey(key)) return defaultValue;
-        Object v = map.get(key);
-        if (v instanceof Number) return ((Number) v).doubleValue();
-        try { return Double.parseDouble(v.toString()); } catch (Exception e) { return defaultValue; }
-    }
-
-    private Integer getIntegerValue(Map<String, Object> map, String key, Integer defaultValue) {
-        if (map == null || !map.containsKey(key)) return defaultValue;
-        Object v = map.get(key);
-        if (v instanceof Number) return ((Number) v).intValue();
-        try { return Integer.parseInt(v.toString()); } catch (Exception e) { return defaultValue; }
-    }
-
     private Integer safeIntegerFromObject(Object o) {
         if (o == null) return null;
         if (o instanceof Number) return ((Number) o).intValue();
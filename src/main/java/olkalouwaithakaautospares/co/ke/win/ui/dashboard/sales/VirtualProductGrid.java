@@ -0,0 +1,197 @@
+package olkalouwaithakaautospares.co.ke.win.ui.dashboard.sales;
+
+import olkalouwaithakaautospares.co.ke.win.models.Product;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size card grid for the POS product list.
+ * - Only the rows inside the viewport get a card; cards are recycled as the user scrolls
+ * - The pool grows to one screen of cards (plus a spare row) and never with the number of matches
+ * - Cards are created by the supplied factory once and re-bound to a product through the binder
+ *
+ * Must be placed directly inside a JScrollPane.
+ */
+public class VirtualProductGrid extends JPanel implements Scrollable {
+
+    public interface CardBinder {
+        void bind(JButton card, Product product);
+    }
+
+    private static final String PRODUCT_KEY = "product";
+
+    private final int columns;
+    private final Dimension cellSize;
+    private final int gap;
+    private final Supplier<JButton> cardFactory;
+    private final CardBinder binder;
+
+    private final List<JButton> pool = new ArrayList<>();
+    private final JLabel emptyLabel = new JLabel("", SwingConstants.CENTER);
+    private List<Product> items = Collections.emptyList();
+    private JViewport watchedViewport;
+
+    public VirtualProductGrid(int columns, Dimension cellSize, int gap, Supplier<JButton> cardFactory, CardBinder binder) {
+        super(null);
+        this.columns = columns;
+        this.cellSize = cellSize;
+        this.gap = gap;
+        this.cardFactory = cardFactory;
+        this.binder = binder;
+
+        emptyLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        emptyLabel.setForeground(new Color(150, 150, 150));
+        emptyLabel.setVisible(false);
+        add(emptyLabel);
+    }
+
+    /**
+     * Replaces the products shown. When the list is empty and a message is given, the message is shown instead.
+     */
+    public void setProducts(List<Product> products, String emptyMessage) {
+        this.items = products != null ? products : Collections.emptyList();
+
+        boolean showEmpty = items.isEmpty() && emptyMessage != null;
+        emptyLabel.setText(showEmpty ? emptyMessage : "");
+        emptyLabel.setVisible(showEmpty);
+
+        // Force every visible card to re-bind, the same product may sit at a different position now
+        for (JButton card : pool) {
+            card.putClientProperty(PRODUCT_KEY, null);
+        }
+        watchViewport();
+        scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+        revalidate();
+        layoutVisibleCards();
+        repaint();
+    }
+
+    // Product currently bound to a card, for click handlers
+    public static Product productOf(JButton card) {
+        return (Product) card.getClientProperty(PRODUCT_KEY);
+    }
+
+    public int getPoolSize() {
+        return pool.size();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        watchViewport();
+    }
+
+    // Re-lay out the cards whenever the viewport scrolls or resizes
+    private void watchViewport() {
+        if (getParent() instanceof JViewport && getParent() != watchedViewport) {
+            watchedViewport = (JViewport) getParent();
+            watchedViewport.addChangeListener(e -> layoutVisibleCards());
+        }
+    }
+
+    @Override
+    public void doLayout() {
+        layoutVisibleCards();
+    }
+
+    private int rowCount() {
+        return (items.size() + columns - 1) / columns;
+    }
+
+    private int pitchX() {
+        return cellSize.width + gap;
+    }
+
+    private int pitchY() {
+        return cellSize.height + gap;
+    }
+
+    private void layoutVisibleCards() {
+        Insets insets = getInsets();
+        if (emptyLabel.isVisible()) {
+            emptyLabel.setBounds(insets.left, insets.top, Math.max(600, getWidth() - insets.left - insets.right), 100);
+        }
+
+        Rectangle visible = getVisibleRect();
+        int rows = rowCount();
+        int firstRow = Math.max(0, (visible.y - insets.top) / pitchY());
+        int lastRow = Math.min(rows - 1, (visible.y + visible.height - insets.top) / pitchY());
+
+        int used = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = 0; col < columns; col++) {
+                int index = row * columns + col;
+                if (index >= items.size()) break;
+
+                JButton card = cardAt(used++);
+                Product product = items.get(index);
+                if (productOf(card) != product) {
+                    binder.bind(card, product);
+                    card.putClientProperty(PRODUCT_KEY, product);
+                }
+                card.setBounds(insets.left + col * pitchX() + gap / 2,
+                        insets.top + row * pitchY() + gap / 2,
+                        cellSize.width, cellSize.height);
+                card.setVisible(true);
+            }
+        }
+
+        // Park the cards that are not needed for this viewport
+        for (int i = used; i < pool.size(); i++) {
+            JButton card = pool.get(i);
+            card.setVisible(false);
+            card.putClientProperty(PRODUCT_KEY, null);
+        }
+    }
+
+    private JButton cardAt(int i) {
+        while (pool.size() <= i) {
+            JButton card = cardFactory.get();
+            card.setVisible(false);
+            pool.add(card);
+            add(card);
+        }
+        return pool.get(i);
+    }
+
+    // ---------- Sizing / Scrollable ----------
+    @Override
+    public Dimension getPreferredSize() {
+        Insets insets = getInsets();
+        int height = emptyLabel.isVisible() ? 100 : rowCount() * pitchY();
+        return new Dimension(columns * pitchX() + insets.left + insets.right, height + insets.top + insets.bottom);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? pitchY() / 4 : pitchX() / 4;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL
+                ? Math.max(pitchY(), visibleRect.height - pitchY())
+                : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        // Stretch to the viewport when there are fewer rows than fit
+        return getParent() instanceof JViewport && getParent().getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,131 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Client settings, read once at start-up from layers; a higher layer wins:
+ * 1. -Dkey=value system properties, e.g. -Dhttp.baseUrl=https://pos.example.com
+ * 2. POS_* environment variables, e.g. POS_HTTP_BASE_URL
+ * 3. POS_* lines of an env file: ./.env, or the file named by -Dpos.envFile
+ * 4. ~/.olkalou-pos/application.properties, or the file named by -Dpos.config
+ * 5. application.properties on the classpath (the shipped defaults)
+ *
+ * Env names map to keys by dropping the POS_ prefix, the dots and the underscores and ignoring case,
+ * so POS_HTTP_BASE_URL and POS_HTTPBASEURL both set http.baseUrl.
+ */
+public class AppConfig {
+
+    private static final String ENV_PREFIX = "POS_";
+
+    private static AppConfig instance;
+
+    private final Properties files = new Properties();
+    // Normalized key -> value
+    private final Map<String, String> envFile = new HashMap<>();
+    private final Map<String, String> environment = new HashMap<>();
+
+    private AppConfig() {
+        try (InputStream in = AppConfig.class.getResourceAsStream("/application.properties")) {
+            if (in != null) files.load(in);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        String configPath = System.getProperty("pos.config");
+        Path local = configPath != null
+                ? Paths.get(configPath)
+                : Paths.get(System.getProperty("user.home"), ".olkalou-pos", "application.properties");
+        if (Files.isReadable(local)) {
+            try (Reader reader = Files.newBufferedReader(local, StandardCharsets.UTF_8)) {
+                files.load(reader);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        Path env = Paths.get(System.getProperty("pos.envFile", ".env"));
+        if (Files.isReadable(env)) {
+            try {
+                readEnvFile(Files.readAllLines(env, StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        for (Map.Entry<String, String> var : System.getenv().entrySet()) {
+            if (var.getKey().startsWith(ENV_PREFIX)) {
+                environment.put(normalize(var.getKey().substring(ENV_PREFIX.length())), var.getValue());
+            }
+        }
+    }
+
+    public static synchronized AppConfig getInstance() {
+        if (instance == null) {
+            instance = new AppConfig();
+        }
+        return instance;
+    }
+
+    // ---------- Lookups ----------
+    public String getString(String key, String fallback) {
+        String value = System.getProperty(key);
+        if (value == null) value = environment.get(normalize(key));
+        if (value == null) value = envFile.get(normalize(key));
+        if (value == null) value = files.getProperty(key);
+        return value != null && !value.trim().isEmpty() ? value.trim() : fallback;
+    }
+
+    public int getInt(String key, int fallback) {
+        return (int) getLong(key, fallback);
+    }
+
+    public long getLong(String key, long fallback) {
+        try {
+            String value = getString(key, null);
+            return value != null ? Long.parseLong(value) : fallback;
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid number for " + key + ": " + e.getMessage());
+            return fallback;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean fallback) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : fallback;
+    }
+
+    // ---------- Env file ----------
+    // KEY=VALUE lines; blank lines, # comments, "export " and surrounding quotes are allowed
+    private void readEnvFile(List<String> lines) {
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            if (trimmed.startsWith("export ")) trimmed = trimmed.substring(7).trim();
+
+            int eq = trimmed.indexOf('=');
+            if (eq <= 0) continue;
+            String name = trimmed.substring(0, eq).trim();
+            String value = trimmed.substring(eq + 1).trim();
+            if (value.length() >= 2 && (value.startsWith("\"") && value.endsWith("\"")
+                    || value.startsWith("'") && value.endsWith("'"))) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if (name.startsWith(ENV_PREFIX)) {
+                envFile.put(normalize(name.substring(ENV_PREFIX.length())), value);
+            }
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.replace(".", "").replace("_", "").toLowerCase();
+    }
+}
@@ -3,7 +3,12 @@ package olkalouwaithakaautospares.co.ke.win.utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import javax.swing.JOptionPane;
+import java.io.InputStream;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
 import java.net.CookieStore;
@@ -11,18 +16,34 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
 import java.util.List;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class BaseClient {
     private static BaseClient instance;
     private final HttpClient httpClient;
     private final ObjectMapper mapper;
     private final String baseUrl;
+    private final TransportConfig transport;
     private static final CookieManager cookieManager;
+    // GETs currently on the wire, keyed by endpoint; identical concurrent GETs share one call
+    private final ConcurrentHashMap<String, CompletableFuture<ResponseCache.Entry>> inFlightGets = new ConcurrentHashMap<>();
+    // Validated GET responses (ETag / Last-Modified), revalidated with conditional requests
+    private final ResponseCache responseCache;
+    // Retry policies by endpoint prefix; the longest matching prefix wins, the configured default otherwise.
+    // Writes only follow a prefix policy set here; by default they are retried on connect failures alone.
+    private final ConcurrentHashMap<String, RetryPolicy> retryPolicies = new ConcurrentHashMap<>();
 
     static {
         cookieManager = new CookieManager();
@@ -30,13 +51,19 @@ public class BaseClient {
     }
 
     private BaseClient() {
+        this.transport = TransportConfig.from(AppConfig.getInstance());
+        transport.applyPoolSettings();
         this.httpClient = HttpClient.newBuilder()
                 .cookieHandler(cookieManager)
-                .connectTimeout(Duration.ofSeconds(30))
-                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(transport.getConnectTimeout())
+                .version(transport.getVersion())
                 .build();
         this.mapper = new ObjectMapper();
-        this.baseUrl = "http://localhost:8080";
+        this.baseUrl = transport.getBaseUrl();
+        this.responseCache = new ResponseCache(transport.getCacheEntries(), transport.getCacheBytes());
+
+        // Login / signup / password errors go straight to the user
+        retryPolicies.put("/api/auth/", RetryPolicy.NONE);
     }
 
     public static BaseClient getInstance() {
@@ -67,67 +94,420 @@ public class BaseClient {
         return baseUrl;
     }
 
-    // Safe POST method that handles empty responses
+    public TransportConfig getTransportConfig() {
+        return transport;
+    }
+
+    // ---------- Retry policies ----------
+    // Sets the retry policy of every endpoint starting with the prefix, e.g. "/api/secure/payments".
+    // This opts writes under the prefix in to full retries too: only do so where the server deduplicates
+    // on Idempotency-Key.
+    public void setRetryPolicy(String endpointPrefix, RetryPolicy policy) {
+        retryPolicies.put(endpointPrefix, policy);
+    }
+
+    public RetryPolicy getRetryPolicy(String endpoint) {
+        RetryPolicy policy = matchRetryPolicy(endpoint);
+        return policy != null ? policy : transport.getRetryPolicy();
+    }
+
+    // Writes carrying the caller's own key are replayed by the caller (CheckoutReplicator), never here
+    private RetryPolicy getWriteRetryPolicy(String endpoint, String idempotencyKey) {
+        if (idempotencyKey != null) return RetryPolicy.NONE;
+        RetryPolicy policy = matchRetryPolicy(endpoint);
+        return policy != null ? policy : transport.getRetryPolicy().forWrites();
+    }
+
+    private RetryPolicy matchRetryPolicy(String endpoint) {
+        RetryPolicy policy = null;
+        int matched = -1;
+        for (Map.Entry<String, RetryPolicy> entry : retryPolicies.entrySet()) {
+            String prefix = entry.getKey();
+            if (endpoint.startsWith(prefix) && prefix.length() > matched) {
+                policy = entry.getValue();
+                matched = prefix.length();
+            }
+        }
+        return policy;
+    }
+
+    private interface Attempt<T> {
+        T run() throws Exception;
+    }
+
+    // Runs the attempt until it succeeds, fails for good, or the policy gives up
+    private <T> T withRetry(RetryPolicy policy, Attempt<T> attempt) throws Exception {
+        for (int n = 1; ; n++) {
+            try {
+                return attempt.run();
+            } catch (Exception e) {
+                if (!policy.shouldRetry(e, n)) throw e;
+                Thread.sleep(policy.backoffMs(n));
+            }
+        }
+    }
+
+    // Async counterpart of withRetry; waits between attempts without holding a thread
+    private <T> CompletableFuture<T> withRetryAsync(RetryPolicy policy, Supplier<CompletableFuture<T>> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        retryAsync(policy, attempt, 1, result);
+        return result;
+    }
+
+    private <T> void retryAsync(RetryPolicy policy, Supplier<CompletableFuture<T>> attempt, int n, CompletableFuture<T> result) {
+        attempt.get().whenComplete((value, ex) -> {
+            if (ex == null) {
+                result.complete(value);
+            } else if (policy.shouldRetry(ex, n)) {
+                CompletableFuture.delayedExecutor(policy.backoffMs(n), TimeUnit.MILLISECONDS)
+                        .execute(() -> retryAsync(policy, attempt, n + 1, result));
+            } else {
+                result.completeExceptionally(ex);
+            }
+        });
+    }
+
+    // Safe POST method that handles empty responses; carries a fresh Idempotency-Key, reused by its retries
+    // (connect failures only, unless the endpoint opted in through setRetryPolicy)
     public String post(String endpoint, Object body) throws Exception {
-        return safeRequest("POST", endpoint, body);
+        return safeRequest("POST", endpoint, body, null);
+    }
+
+    // POST with the caller's Idempotency-Key, for callers that replay a request across restarts; single attempt.
+    // Error statuses always throw HttpStatusException, even without a body, so the caller can act on the code.
+    public String post(String endpoint, Object body, String idempotencyKey) throws Exception {
+        return safeRequest("POST", endpoint, body, idempotencyKey);
     }
 
-    // Safe GET method that handles empty responses
+    // Safe GET method that handles empty responses; unchanged responses (304) are served from the response cache
     public String get(String endpoint) throws Exception {
-        return safeRequest("GET", endpoint, null);
+        return safeGet(endpoint).body();
     }
 
-    // Safe PUT method that handles empty responses
+    // Safe PUT method that handles empty responses; carries a fresh Idempotency-Key, retried like POST
     public String put(String endpoint, Object body) throws Exception {
-        return safeRequest("PUT", endpoint, body);
+        return safeRequest("PUT", endpoint, body, null);
     }
 
     // Safe DELETE method that handles empty responses
     public String delete(String endpoint) throws Exception {
-        return safeRequest("DELETE", endpoint, null);
+        return safeRequest("DELETE", endpoint, null, null);
     }
 
-    // Safe request method with better error handling
-    private String safeRequest(String method, String endpoint, Object body) throws Exception {
+    // ---------- Async API ----------
+    // Non-blocking variants built on HttpClient.sendAsync. Futures complete on the HttpClient's executor,
+    // so UI code must hop back to the EDT (SwingUtilities.invokeLater) before touching components.
+
+    // GET without blocking; callers asking for the same endpoint while a call is in flight share its result
+    public CompletableFuture<String> getAsync(String endpoint) {
+        return getEntryAsync(endpoint).thenApply(ResponseCache.Entry::body);
+    }
+
+    // GET an endpoint and decode it as a typed, read-only list, without blocking
+    public <T> CompletableFuture<List<T>> getListAsync(String endpoint, Class<T> type) {
+        return getEntryAsync(endpoint).thenApply(entry -> {
+            try {
+                return entry.listOf(type, json -> parseResponseList(json, type));
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private CompletableFuture<ResponseCache.Entry> getEntryAsync(String endpoint) {
+        CompletableFuture<ResponseCache.Entry> created = new CompletableFuture<>();
+        CompletableFuture<ResponseCache.Entry> existing = inFlightGets.putIfAbsent(endpoint, created);
+        if (existing != null) {
+            // Dependent stage, so one caller cancelling does not cancel the shared call
+            return existing.thenApply(entry -> entry);
+        }
+
+        ResponseCache.Entry cached = responseCache.get(endpoint);
+        HttpRequest request;
         try {
-            String url = baseUrl + endpoint;
-            HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Content-Type", "application/json")
-                    .header("Accept", "application/json");
+            request = buildRequest("GET", endpoint, null, cached);
+        } catch (Exception e) {
+            inFlightGets.remove(endpoint, created);
+            return CompletableFuture.failedFuture(new Exception("Request failed: " + e.getMessage(), e));
+        }
 
-            if (body != null) {
-                String json = mapper.writeValueAsString(body);
-                requestBuilder.method(method, HttpRequest.BodyPublishers.ofString(json));
+        withRetryAsync(getRetryPolicy(endpoint), () -> httpClient.sendAsync(request, ContentDecoding.ofString())
+                .thenApply(response -> {
+                    try {
+                        return cacheResponse(endpoint, cached, response);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                })).whenComplete((entry, ex) -> {
+            inFlightGets.remove(endpoint, created);
+            if (ex == null) {
+                created.complete(entry);
             } else {
-                requestBuilder.method(method, HttpRequest.BodyPublishers.noBody());
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                created.completeExceptionally(new Exception("Request failed: " + cause.getMessage(), cause));
             }
+        });
+        return created.thenApply(entry -> entry);
+    }
 
-            HttpRequest request = requestBuilder.build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    public CompletableFuture<String> postAsync(String endpoint, Object body) {
+        return requestAsync("POST", endpoint, body);
+    }
+
+    public CompletableFuture<String> putAsync(String endpoint, Object body) {
+        return requestAsync("PUT", endpoint, body);
+    }
+
+    public CompletableFuture<String> deleteAsync(String endpoint) {
+        return requestAsync("DELETE", endpoint, null);
+    }
+
+    private CompletableFuture<String> requestAsync(String method, String endpoint, Object body) {
+        HttpRequest request;
+        try {
+            request = buildRequest(method, endpoint, body, null, idempotencyKeyFor(method, null));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new Exception("Request failed: " + e.getMessage(), e));
+        }
+
+        return withRetryAsync(getWriteRetryPolicy(endpoint, null), () -> httpClient.sendAsync(request, ContentDecoding.ofString())
+                .thenApply(response -> {
+                    try {
+                        return checkResponse(response);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }))
+                .handle((json, ex) -> {
+                    if (ex == null) return json;
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    throw new CompletionException(new Exception("Request failed: " + cause.getMessage(), cause));
+                });
+    }
+
+    // Safe request method with better error handling; failures are retried with the same request per the write policy
+    private String safeRequest(String method, String endpoint, Object body, String idempotencyKey) throws Exception {
+        try {
+            HttpRequest request = buildRequest(method, endpoint, body, null, idempotencyKeyFor(method, idempotencyKey));
+            boolean strict = idempotencyKey != null;
+            return withRetry(getWriteRetryPolicy(endpoint, idempotencyKey), () -> {
+                HttpResponse<String> response = httpClient.send(request, ContentDecoding.ofString());
+                return checkStatus(response.statusCode(), response.body(), strict);
+            });
+        } catch (Exception e) {
+            throw new Exception("Request failed: " + e.getMessage(), e);
+        }
+    }
+
+    // POST and PUT always carry a key, for servers that deduplicate on it
+    private static String idempotencyKeyFor(String method, String idempotencyKey) {
+        if (idempotencyKey != null) return idempotencyKey;
+        return "POST".equals(method) || "PUT".equals(method) ? UUID.randomUUID().toString() : null;
+    }
+
+    // Conditional GET: sends the cached validators and reuses the cached entry on 304
+    private ResponseCache.Entry safeGet(String endpoint) throws Exception {
+        try {
+            ResponseCache.Entry cached = responseCache.get(endpoint);
+            HttpRequest request = buildRequest("GET", endpoint, null, cached);
+            return withRetry(getRetryPolicy(endpoint), () -> cacheResponse(endpoint, cached, httpClient.send(request, ContentDecoding.ofString())));
+        } catch (Exception e) {
+            throw new Exception("Request failed: " + e.getMessage(), e);
+        }
+    }
+
+    private ResponseCache.Entry cacheResponse(String endpoint, ResponseCache.Entry cached, HttpResponse<String> response) throws Exception {
+        if (response.statusCode() == 304 && cached != null) {
+            return cached;
+        }
+
+        String body = checkResponse(response);
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
 
-            // Handle empty responses
-            if (response.body() == null || response.body().trim().isEmpty()) {
+        ResponseCache.Entry entry = new ResponseCache.Entry(body, etag, lastModified);
+        if (etag != null || lastModified != null) {
+            responseCache.put(endpoint, entry);
+        } else {
+            // Server stopped sending validators; do not revalidate against a stale copy
+            responseCache.remove(endpoint);
+        }
+        return entry;
+    }
+
+    private HttpRequest buildRequest(String method, String endpoint, Object body, ResponseCache.Entry cached) throws Exception {
+        return buildRequest(method, endpoint, body, cached, null);
+    }
+
+    private HttpRequest buildRequest(String method, String endpoint, Object body, ResponseCache.Entry cached,
+                                     String idempotencyKey) throws Exception {
+        String url = baseUrl + endpoint;
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(transport.getRequestTimeout())
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+
+        if (idempotencyKey != null) {
+            requestBuilder.header("Idempotency-Key", idempotencyKey);
+        }
+
+        if (transport.isCompression()) {
+            requestBuilder.header("Accept-Encoding", ContentDecoding.ACCEPT_ENCODING);
+        }
+
+        if (cached != null) {
+            if (cached.etag() != null) requestBuilder.header("If-None-Match", cached.etag());
+            if (cached.lastModified() != null) requestBuilder.header("If-Modified-Since", cached.lastModified());
+        }
+
+        if (body != null) {
+            String json = mapper.writeValueAsString(body);
+            requestBuilder.method(method, HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            requestBuilder.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        return requestBuilder.build();
+    }
+
+    // Returns the body of a successful response; throws for session expiry and error statuses
+    private String checkResponse(HttpResponse<String> response) throws Exception {
+        return checkStatus(response.statusCode(), response.body());
+    }
+
+    private String checkStatus(int statusCode, String body) throws Exception {
+        return checkStatus(statusCode, body, false);
+    }
+
+    // strict: an error status without a body throws too, instead of reading as an empty "{}" answer
+    private String checkStatus(int statusCode, String body, boolean strict) throws Exception {
+        // Overload / gateway errors are reported even without a body, so they can be retried
+        if (RetryPolicy.isTransientStatus(statusCode)) {
+            throw new HttpStatusException(statusCode, "HTTP " + statusCode + ": " + extractErrorMessage(body));
+        }
+
+        // Handle empty responses
+        if (body == null || body.trim().isEmpty()) {
+            if (!strict || statusCode < 400) {
                 return "{}"; // Return empty JSON object instead of empty string
             }
+            body = "";
+        }
 
-            // Check for session expiration
-            if (response.statusCode() == 401) {
-                handleSessionExpired();
-                throw new Exception("Session expired. Please login again.");
-            }
+        // Check for session expiration
+        if (statusCode == 401) {
+            handleSessionExpired();
+            throw new HttpStatusException(statusCode, "Session expired. Please login again.");
+        }
 
-            // Check for other error statuses
-            if (response.statusCode() >= 400) {
-                String errorMessage = extractErrorMessage(response.body());
-                throw new Exception("HTTP " + response.statusCode() + ": " + errorMessage);
-            }
+        // Check for other error statuses
+        if (statusCode >= 400) {
+            String errorMessage = extractErrorMessage(body);
+            throw new HttpStatusException(statusCode, "HTTP " + statusCode + ": " + errorMessage);
+        }
+
+        return body;
+    }
 
-            return response.body();
+    // ---------- Streaming decode ----------
+    // Reads a list endpoint straight off the response stream and hands each record to the sink as soon as it
+    // is parsed, so large lists are never held as a String nor parsed twice. Returns the number of records.
+    // Streamed responses bypass the response cache.
+    public <T> int streamList(String endpoint, Class<T> type, Consumer<? super T> sink) throws Exception {
+        return streamRecords(endpoint, mapper.constructType(type), sink);
+    }
 
+    // Untyped variant for endpoints that panels still consume as maps
+    public int streamMaps(String endpoint, Consumer<? super Map<String, Object>> sink) throws Exception {
+        return streamRecords(endpoint, mapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class), sink);
+    }
+
+    private <T> int streamRecords(String endpoint, JavaType type, Consumer<? super T> sink) throws Exception {
+        HttpResponse<InputStream> response;
+        try {
+            HttpRequest request = buildRequest("GET", endpoint, null, null);
+            // Only the connect is retried; once records reach the sink the stream is not replayed
+            response = withRetry(getRetryPolicy(endpoint), () -> {
+                HttpResponse<InputStream> sent = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                if (RetryPolicy.isTransientStatus(sent.statusCode())) {
+                    try (InputStream in = ContentDecoding.decode(sent.body(), sent.headers())) {
+                        checkStatus(sent.statusCode(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                }
+                return sent;
+            });
         } catch (Exception e) {
             throw new Exception("Request failed: " + e.getMessage(), e);
         }
+
+        // Inflated while the parser reads, so a compressed list is never held in memory whole
+        try (InputStream in = ContentDecoding.decode(response.body(), response.headers())) {
+            if (response.statusCode() >= 400) {
+                // Error bodies are small; reuse the regular status handling (throws unless the body is empty)
+                checkStatus(response.statusCode(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                return 0;
+            }
+            try (JsonParser parser = mapper.getFactory().createParser(in)) {
+                return decodeList(parser, type, sink);
+            }
+        } catch (Exception e) {
+            throw new Exception("Failed to stream " + endpoint + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Single-pass list decoder. Detects the shape from the first tokens:
+    // - bare array [ ... ]                -> each element
+    // - envelope { "data": [ ... ] }      -> each element of data (other envelope fields are skipped)
+    // - envelope { "data": { ... } }      -> that one object
+    // - any other object { ... }          -> the object itself, unless it is empty
+    @SuppressWarnings("unchecked")
+    private <T> int decodeList(JsonParser parser, JavaType type, Consumer<? super T> sink) throws Exception {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.VALUE_NULL) return 0;
+
+        if (token == JsonToken.START_ARRAY) {
+            return decodeArray(parser, type, sink);
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new Exception("Response is not a list or wrapped list");
+        }
+
+        ObjectNode fields = mapper.createObjectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(name)) {
+                if (value == JsonToken.START_ARRAY) {
+                    return decodeArray(parser, type, sink);
+                }
+                if (value == JsonToken.VALUE_NULL) return 0;
+                JsonNode single = mapper.readTree(parser);
+                if (single.isObject()) {
+                    if (single.isEmpty()) return 0;
+                    sink.accept((T) mapper.treeToValue(single, type));
+                    return 1;
+                }
+                // { "data": <scalar> }: the envelope itself is the item, as it always was
+                fields.set(name, single);
+                continue;
+            }
+            fields.set(name, mapper.readTree(parser));
+        }
+
+        if (fields.isEmpty()) return 0;
+        sink.accept((T) mapper.treeToValue(fields, type));
+        return 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> int decodeArray(JsonParser parser, JavaType type, Consumer<? super T> sink) throws Exception {
+        int count = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            sink.accept((T) mapper.readValue(parser, type));
+            count++;
+        }
+        return count;
     }
 
     // Extract error message safely
@@ -174,49 +554,63 @@ public class BaseClient {
             throw new Exception("Empty response received");
         }
         try {
-            // Try parsing directly as a JSON array first
-            return mapper.readValue(jsonResponse, new TypeReference<List<Map<String, Object>>>() {});
-        } catch (Exception e1) {
-            try {
-                // Try as a wrapped object: { "data": ... }
-                Map<String, Object> responseMap = null;
-                try {
-                    responseMap = parseResponse(jsonResponse);
-                } catch (Exception ex) {
-                    // parseResponse failed - maybe top-level is not an object, continue to fallback
+            // Parse once, then pick the list out of whichever shape came back
+            JsonNode root = mapper.readTree(jsonResponse);
+            JavaType mapType = mapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class);
+            JsonNode items = root;
+            if (root != null && root.isObject() && root.has("data")) {
+                items = root.get("data");
+                if (items == null || items.isNull()) {
+                    return new ArrayList<>(); // empty list if data is null
                 }
+            }
 
-                if (responseMap != null && responseMap.containsKey("data")) {
-                    Object data = responseMap.get("data");
-                    if (data instanceof List) {
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> list = (List<Map<String, Object>>) data;
-                        return list;
-                    } else if (data instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> single = (Map<String, Object>) data;
-                        List<Map<String, Object>> wrapped = new ArrayList<>();
-                        wrapped.add(single);
-                        return wrapped;
-                    } else if (data == null) {
-                        return new ArrayList<>(); // empty list if data is null
-                    }
+            if (items != null && items.isArray()) {
+                List<Map<String, Object>> list = new ArrayList<>(items.size());
+                for (JsonNode item : items) {
+                    list.add(mapper.treeToValue(item, mapType));
                 }
+                return list;
+            }
+            if (items != null && items.isObject()) {
+                // Wrap a single object as a list (useful when server returns { id:..., name:... })
+                List<Map<String, Object>> wrapped = new ArrayList<>();
+                wrapped.add(mapper.treeToValue(items, mapType));
+                return wrapped;
+            }
+            if (root != null && root.isObject()) {
+                // { "data": <scalar> }: wrap the envelope itself, as it always was
+                List<Map<String, Object>> wrapped = new ArrayList<>();
+                wrapped.add(mapper.treeToValue(root, mapType));
+                return wrapped;
+            }
 
-                // As a last resort: maybe the top-level is a single object that directly represents the item.
-                if (responseMap != null) {
-                    // Wrap the top-level object as a list (useful when server returns { id:..., name:... })
-                    List<Map<String, Object>> wrapped = new ArrayList<>();
-                    wrapped.add(responseMap);
-                    return wrapped;
-                }
+            // Nothing matched
+            throw new Exception("Response is not a list or wrapped list: " + jsonResponse);
+        } catch (Exception e) {
+            throw new Exception("Failed to parse as list: " + e.getMessage(), e);
+        }
+    }
 
-                // Nothing matched: rethrow with helpful message
-                throw new Exception("Response is not a list or wrapped list: " + jsonResponse);
-            } catch (Exception e2) {
-                throw new Exception("Failed to parse as list: " + e1.getMessage() + " | " + e2.getMessage(), e2);
-            }
+    // Typed variant of parseResponseList: binds straight into model records.
+    // Accepts the same shapes (bare array, { "data": [...] }, { "data": {...} }, single object) in one pass.
+    public <T> List<T> parseResponseList(String jsonResponse, Class<T> type) throws Exception {
+        if (jsonResponse == null || jsonResponse.trim().isEmpty()) {
+            throw new Exception("Empty response received");
         }
+        try (JsonParser parser = mapper.getFactory().createParser(jsonResponse)) {
+            List<T> items = new ArrayList<>();
+            Consumer<T> sink = items::add;
+            decodeList(parser, mapper.constructType(type), sink);
+            return items;
+        } catch (Exception e) {
+            throw new Exception("Failed to parse " + type.getSimpleName() + " list: " + e.getMessage(), e);
+        }
+    }
+
+    // GET an endpoint and decode it as a typed, read-only list; a 304 reuses the list decoded last time
+    public <T> List<T> getList(String endpoint, Class<T> type) throws Exception {
+        return safeGet(endpoint).listOf(type, json -> parseResponseList(json, type));
     }
 
     // Check if response is successful
@@ -243,6 +637,7 @@ public class BaseClient {
     private void handleSessionExpired() {
         // Clear cookies
         getCookieStore().removeAll();
+        responseCache.clear();
 
         // Show message
         javax.swing.SwingUtilities.invokeLater(() -> {
@@ -256,8 +651,9 @@ public class BaseClient {
     // Clear session (logout)
     public void logout() throws Exception {
         try {
-            // Clear local cookies
+            // Clear local cookies and cached responses of this user
             getCookieStore().removeAll();
+            responseCache.clear();
 
             // Call logout endpoint
             post("/api/auth/logout", new HashMap<>());
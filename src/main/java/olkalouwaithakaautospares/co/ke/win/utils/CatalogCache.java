@@ -0,0 +1,242 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import olkalouwaithakaautospares.co.ke.win.models.Product;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Process-wide cache for the product catalog (products, categories, brands).
+ * - One download per section, shared by every panel
+ * - Products are decoded once into {@link Product} records with an id index
+ * - A {@link ProductSearchIndex} follows product, category and brand reloads incrementally
+ * - TTL-based refresh, explicit invalidation after catalog writes
+ * - Listeners are notified on the EDT whenever a section is reloaded after its first download
+ *
+ * The get* methods may hit the network and must be called off the EDT (e.g. from a SwingWorker).
+ */
+public class CatalogCache {
+
+    public enum Section {
+        PRODUCTS("/api/secure/products"),
+        CATEGORIES("/api/secure/categories"),
+        BRANDS("/api/secure/brands");
+
+        private final String endpoint;
+
+        Section(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    public interface Listener {
+        void catalogChanged(Section section);
+    }
+
+    private interface Decoder<T> {
+        List<T> decode(String json) throws Exception;
+    }
+
+    private static final long DEFAULT_TTL_MS = 5 * 60 * 1000L;
+
+    private static CatalogCache instance;
+
+    private final BaseClient client;
+    private final Entry<Product> products;
+    private final Entry<Map<String, Object>> categories;
+    private final Entry<Map<String, Object>> brands;
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long ttlMillis = AppConfig.getInstance().getLong("cache.catalogTtlSeconds", DEFAULT_TTL_MS / 1000) * 1000;
+
+    private CatalogCache() {
+        this.client = BaseClient.getInstance();
+        this.products = new Entry<>(Section.PRODUCTS,
+                json -> client.parseResponseList(json, Product.class),
+                Product::id, Product::name);
+        this.categories = new Entry<>(Section.CATEGORIES, client::parseResponseList,
+                m -> safeInteger(m.get("id")), m -> Objects.toString(m.get("name"), ""));
+        this.brands = new Entry<>(Section.BRANDS, client::parseResponseList,
+                m -> safeInteger(m.get("id")), m -> Objects.toString(m.get("name"), ""));
+    }
+
+    public static synchronized CatalogCache getInstance() {
+        if (instance == null) {
+            instance = new CatalogCache();
+        }
+        return instance;
+    }
+
+    // ---------- Accessors (blocking, call off the EDT) ----------
+    public List<Product> getProducts() throws Exception {
+        return products.load();
+    }
+
+    public Map<Integer, Product> getProductsById() throws Exception {
+        products.load();
+        return products.byId;
+    }
+
+    public List<Map<String, Object>> getCategories() throws Exception {
+        return categories.load();
+    }
+
+    public List<Map<String, Object>> getBrands() throws Exception {
+        return brands.load();
+    }
+
+    public Map<Integer, String> getProductNames() throws Exception {
+        products.load();
+        return products.names;
+    }
+
+    public Map<Integer, String> getCategoryNames() throws Exception {
+        categories.load();
+        return categories.names;
+    }
+
+    public Map<Integer, String> getBrandNames() throws Exception {
+        brands.load();
+        return brands.names;
+    }
+
+    // Search index over the current products, brought up to date with any reloaded section
+    public ProductSearchIndex getSearchIndex() throws Exception {
+        List<Product> list = products.load();
+        Map<Integer, String> categoryNames = getCategoryNames();
+        Map<Integer, String> brandNames = getBrandNames();
+        searchIndex.sync(list, categoryNames, brandNames);
+        return searchIndex;
+    }
+
+    // ---------- Invalidation ----------
+    // Marks a section stale; the next get* call re-downloads it and notifies listeners.
+    public void invalidate(Section section) {
+        entry(section).invalidate();
+    }
+
+    public void invalidateAll() {
+        for (Section section : Section.values()) {
+            entry(section).invalidate();
+        }
+    }
+
+    public void clear() {
+        for (Section section : Section.values()) {
+            entry(section).clear();
+        }
+        searchIndex.clear();
+    }
+
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    private Entry<?> entry(Section section) {
+        switch (section) {
+            case PRODUCTS: return products;
+            case CATEGORIES: return categories;
+            default: return brands;
+        }
+    }
+
+    // ---------- Listeners ----------
+    public void addListener(Listener listener) {
+        if (listener != null) listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireChanged(Section section) {
+        for (Listener listener : listeners) {
+            SwingUtilities.invokeLater(() -> listener.catalogChanged(section));
+        }
+    }
+
+    // One cached section. Loading is synchronized so concurrent callers share a single download.
+    private class Entry<T> {
+        private final Section section;
+        private final Decoder<T> decoder;
+        private final Function<T, Integer> idOf;
+        private final Function<T, String> nameOf;
+
+        private volatile List<T> items = Collections.emptyList();
+        private volatile Map<Integer, T> byId = Collections.emptyMap();
+        private volatile Map<Integer, String> names = Collections.emptyMap();
+        private long loadedAt = 0L;
+        private boolean loaded = false;
+
+        Entry(Section section, Decoder<T> decoder, Function<T, Integer> idOf, Function<T, String> nameOf) {
+            this.section = section;
+            this.decoder = decoder;
+            this.idOf = idOf;
+            this.nameOf = nameOf;
+        }
+
+        synchronized List<T> load() throws Exception {
+            if (loaded && System.currentTimeMillis() - loadedAt < ttlMillis) {
+                return items;
+            }
+
+            String resp = client.get(section.endpoint);
+            List<T> fetched = new ArrayList<>();
+            if (resp != null && !resp.trim().isEmpty()) {
+                fetched = decoder.decode(resp);
+            }
+
+            Map<Integer, T> index = new HashMap<>();
+            Map<Integer, String> byName = new HashMap<>();
+            for (T item : fetched) {
+                Integer id = idOf.apply(item);
+                if (id == null) continue;
+                index.put(id, item);
+                String name = nameOf.apply(item);
+                if (name != null && !name.isEmpty()) {
+                    byName.put(id, name);
+                }
+            }
+
+            // The first load is returned straight to its callers; only reloads count as changes
+            boolean reload = loaded;
+            items = Collections.unmodifiableList(fetched);
+            byId = Collections.unmodifiableMap(index);
+            names = Collections.unmodifiableMap(byName);
+            loadedAt = System.currentTimeMillis();
+            loaded = true;
+
+            if (reload) fireChanged(section);
+            return items;
+        }
+
+        synchronized void invalidate() {
+            loadedAt = 0L;
+        }
+
+        synchronized void clear() {
+            items = Collections.emptyList();
+            byId = Collections.emptyMap();
+            names = Collections.emptyMap();
+            loadedAt = 0L;
+            loaded = false;
+        }
+    }
+
+    private static Integer safeInteger(Object o) {
+        if (o == null) return null;
+        if (o instanceof Number) return ((Number) o).intValue();
+        try {
+            return Integer.parseInt(o.toString());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only journal of checkouts that still have to reach the server.
+ * - Lives in ~/.olkalou-pos/checkout-journal.jsonl, one JSON record per line, each write is forced to disk
+ * - A checkout is recorded as SALE (cart + payment intent), then POSTED (server sale id) once the sale exists
+ *   on the server, and DONE or FAILED when the replicator is finished with it
+ * - REVIEW parks a checkout whose last request may or may not have reached the server; it is not sent again
+ *   until someone checks the sales history and either RETRYs it or marks it DONE
+ * - Every checkout carries a random key that the replicator sends as Idempotency-Key
+ * - Pending checkouts are rebuilt from the file on start-up; a torn last line from a crash is skipped
+ * - The file is truncated whenever nothing is pending
+ *
+ * All methods are synchronized.
+ */
+public class CheckoutJournal {
+
+    /**
+     * A checkout waiting for the server. {@code saleId} and {@code saleData} are set once the sale was posted.
+     */
+    public static class Entry {
+        private final String key;
+        private final Integer userId;
+        private final long createdAt;
+        private final Map<String, Object> sale;
+        private final Map<String, Object> payment;
+        private Integer saleId;
+        private Map<String, Object> saleData;
+        private String reviewReason;
+
+        Entry(String key, Integer userId, long createdAt, Map<String, Object> sale, Map<String, Object> payment) {
+            this.key = key;
+            this.userId = userId;
+            this.createdAt = createdAt;
+            this.sale = sale;
+            this.payment = payment;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public Integer userId() {
+            return userId;
+        }
+
+        public long createdAt() {
+            return createdAt;
+        }
+
+        public Map<String, Object> sale() {
+            return sale;
+        }
+
+        // Payment to record with the sale, or null
+        public Map<String, Object> payment() {
+            return payment;
+        }
+
+        public Integer saleId() {
+            return saleId;
+        }
+
+        public Map<String, Object> saleData() {
+            return saleData;
+        }
+
+        // Why the checkout is parked for review, or null while the replicator may send it
+        public String reviewReason() {
+            return reviewReason;
+        }
+
+        public boolean needsReview() {
+            return reviewReason != null;
+        }
+
+        // Short reference shown to the cashier until the server assigns a sale id, e.g. "Q-3F2A9C1D"
+        public String reference() {
+            return "Q-" + key.substring(0, 8).toUpperCase();
+        }
+    }
+
+    private static final String SALE = "SALE";
+    private static final String POSTED = "POSTED";
+    private static final String DONE = "DONE";
+    private static final String FAILED = "FAILED";
+    private static final String REVIEW = "REVIEW";
+    private static final String RETRY = "RETRY";
+
+    private static CheckoutJournal instance;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Path file;
+    private final LinkedHashMap<String, Entry> pending = new LinkedHashMap<>();
+    private FileChannel channel;
+
+    CheckoutJournal(Path file) {
+        this.file = file;
+    }
+
+    public static synchronized CheckoutJournal getInstance() {
+        if (instance == null) {
+            instance = new CheckoutJournal(Paths.get(System.getProperty("user.home"), ".olkalou-pos", "checkout-journal.jsonl"));
+        }
+        return instance;
+    }
+
+    // ---------- Writes ----------
+    /**
+     * Records a checkout and returns once it is on disk.
+     */
+    public synchronized Entry append(Integer userId, Map<String, Object> sale, Map<String, Object> payment) throws IOException {
+        open();
+        Entry entry = new Entry(UUID.randomUUID().toString(), userId, System.currentTimeMillis(), sale, payment);
+
+        Map<String, Object> record = record(SALE, entry.key);
+        record.put("userId", userId);
+        record.put("createdAt", entry.createdAt);
+        record.put("sale", sale);
+        record.put("payment", payment);
+        write(record);
+
+        pending.put(entry.key, entry);
+        return entry;
+    }
+
+    public synchronized void markPosted(String key, int saleId, Map<String, Object> saleData) throws IOException {
+        Entry entry = pending.get(key);
+        if (entry == null) return;
+
+        Map<String, Object> record = record(POSTED, key);
+        record.put("saleId", saleId);
+        record.put("saleData", saleData);
+        write(record);
+
+        entry.saleId = saleId;
+        entry.saleData = saleData;
+    }
+
+    public synchronized void markDone(String key) throws IOException {
+        finish(record(DONE, key));
+    }
+
+    public synchronized void markFailed(String key, String message) throws IOException {
+        Map<String, Object> record = record(FAILED, key);
+        record.put("message", message);
+        finish(record);
+    }
+
+    // Parks the checkout: the replicator skips it until retry() or markDone()
+    public synchronized void markForReview(String key, String message) throws IOException {
+        Entry entry = pending.get(key);
+        if (entry == null) return;
+
+        Map<String, Object> record = record(REVIEW, key);
+        record.put("message", message);
+        write(record);
+        entry.reviewReason = message;
+    }
+
+    // Releases a parked checkout to the replicator again, once it is known not to be on the server
+    public synchronized void retry(String key) throws IOException {
+        Entry entry = pending.get(key);
+        if (entry == null || entry.reviewReason == null) return;
+
+        write(record(RETRY, key));
+        entry.reviewReason = null;
+    }
+
+    // ---------- Reads ----------
+    public synchronized List<Entry> pending() throws IOException {
+        open();
+        return new ArrayList<>(pending.values());
+    }
+
+    // Includes checkouts parked for review
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    public synchronized int reviewCount() {
+        int count = 0;
+        for (Entry entry : pending.values()) {
+            if (entry.reviewReason != null) count++;
+        }
+        return count;
+    }
+
+    // ---------- File handling ----------
+    private void finish(Map<String, Object> record) throws IOException {
+        String key = (String) record.get("key");
+        if (!pending.containsKey(key)) return;
+        write(record);
+        pending.remove(key);
+
+        if (pending.isEmpty()) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    private Map<String, Object> record(String op, String key) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("op", op);
+        record.put("key", key);
+        return record;
+    }
+
+    private void write(Map<String, Object> record) throws IOException {
+        open();
+        byte[] line = (mapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    // Opens the file on first use and replays it into the pending map
+    private void open() throws IOException {
+        if (channel != null) return;
+
+        Files.createDirectories(file.getParent());
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                replay(line);
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (pending.isEmpty() && channel.size() > 0) {
+            channel.truncate(0);
+        }
+    }
+
+    private void replay(String line) {
+        if (line.isBlank()) return;
+        Map<String, Object> record;
+        try {
+            record = mapper.readValue(line, new TypeReference<Map<String, Object>>() {});
+        } catch (IOException e) {
+            // Torn write from a crash; the checkout was never confirmed to the cashier
+            return;
+        }
+
+        String key = (String) record.get("key");
+        switch (String.valueOf(record.get("op"))) {
+            case SALE: {
+                Object userId = record.get("userId");
+                Object createdAt = record.get("createdAt");
+                pending.put(key, new Entry(key,
+                        userId instanceof Number ? ((Number) userId).intValue() : null,
+                        createdAt instanceof Number ? ((Number) createdAt).longValue() : 0L,
+                        asMap(record.get("sale")), record.get("payment") != null ? asMap(record.get("payment")) : null));
+                break;
+            }
+            case POSTED: {
+                Entry entry = pending.get(key);
+                if (entry != null && record.get("saleId") instanceof Number) {
+                    entry.saleId = ((Number) record.get("saleId")).intValue();
+                    entry.saleData = asMap(record.get("saleData"));
+                }
+                break;
+            }
+            case REVIEW: {
+                Entry entry = pending.get(key);
+                if (entry != null) entry.reviewReason = String.valueOf(record.get("message"));
+                break;
+            }
+            case RETRY: {
+                Entry entry = pending.get(key);
+                if (entry != null) entry.reviewReason = null;
+                break;
+            }
+            default:
+                pending.remove(key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : new HashMap<>();
+    }
+}
@@ -0,0 +1,304 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import javax.swing.SwingUtilities;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes checkouts from the {@link CheckoutJournal} to the server on a background thread.
+ * - Oldest first; the sale is posted with the checkout key as Idempotency-Key, the payment with key + "-payment"
+ * - The payment is posted separately with key + "-payment", charged at the server's total; only with
+ *   checkout.embedPayment=true (for servers known to record a "payment" sent inside the sale) does it ride
+ *   along in the sale request instead, and then it is never posted a second time
+ * - Only requests that never reached the server (connect failures) and 429s are replayed, with jittered
+ *   exponential backoff (2s up to 60s); the server is not known to deduplicate on Idempotency-Key
+ * - A 5xx, a read timeout or a dropped connection may come after the server applied the request, so the
+ *   checkout is parked for review (CheckoutJournal REVIEW) instead of replayed; later checkouts still sync
+ * - A 409 means the server already has the request; a 4xx response or an unsuccessful envelope fails the
+ *   checkout for good; a 401 pauses until the next {@link #kick()}
+ * - Only checkouts of the logged-in user are sent, so a sale is never attributed to another cashier
+ * - Listeners are notified on the EDT
+ */
+public class CheckoutReplicator {
+
+    public interface Listener {
+        // saleData is the server's view of the sale after the payment was recorded
+        void checkoutSynced(CheckoutJournal.Entry entry, Map<String, Object> saleData, String message);
+
+        void checkoutFailed(CheckoutJournal.Entry entry, String message);
+
+        // Parked: the server may or may not have it; someone has to check before it is sent again
+        void checkoutNeedsReview(CheckoutJournal.Entry entry, String message);
+
+        void pendingChanged(int pending);
+    }
+
+    private static final long MIN_BACKOFF_MS = 2_000L;
+    private static final long MAX_BACKOFF_MS = 60_000L;
+
+    // checkout.embedPayment=true only where the server is known to apply the embedded payment
+    private final boolean embedPayments = AppConfig.getInstance().getBoolean("checkout.embedPayment", false);
+
+    private static CheckoutReplicator instance;
+
+    private final BaseClient client;
+    private final CheckoutJournal journal;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "checkout-replicator");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Touched only from the worker thread
+    private long backoffMs = MIN_BACKOFF_MS;
+    private boolean retryScheduled = false;
+
+    private CheckoutReplicator() {
+        this.client = BaseClient.getInstance();
+        this.journal = CheckoutJournal.getInstance();
+    }
+
+    public static synchronized CheckoutReplicator getInstance() {
+        if (instance == null) {
+            instance = new CheckoutReplicator();
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sends pending checkouts now, e.g. after a new checkout was journaled or after login.
+     */
+    public void kick() {
+        worker.execute(() -> {
+            backoffMs = MIN_BACKOFF_MS;
+            drain();
+        });
+    }
+
+    // ---------- Worker ----------
+    private void drain() {
+        Integer userId = UserSessionManager.getInstance().getUserId();
+        if (userId == null) return; // logged out; the next kick after login resumes
+
+        List<CheckoutJournal.Entry> pending;
+        try {
+            pending = journal.pending();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+
+        for (CheckoutJournal.Entry entry : pending) {
+            if (entry.userId() != null && !entry.userId().equals(userId)) continue;
+            if (entry.needsReview()) continue;
+
+            try {
+                replicate(entry);
+            } catch (Exception e) {
+                int status = HttpStatusException.statusOf(e);
+                if (status == 401) {
+                    return; // session expired, wait for the cashier to log in again
+                }
+                if (RetryPolicy.isConnectFailure(e) || status == 429) {
+                    // Nothing was applied; send it again later
+                    scheduleRetry();
+                    return;
+                }
+                if (status >= 400 && status < 500) {
+                    fail(entry, e.getMessage());
+                    continue;
+                }
+                // The request may have been applied before the answer was lost: park it rather than replay it,
+                // and give the server a rest before the next checkout
+                review(entry, e.getMessage());
+                scheduleRetry();
+                return;
+            } finally {
+                notifyPending();
+            }
+        }
+        backoffMs = MIN_BACKOFF_MS;
+    }
+
+    private void scheduleRetry() {
+        if (retryScheduled) return;
+        retryScheduled = true;
+        long delay = backoffMs / 2 + ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1);
+        backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+        worker.schedule(() -> {
+            retryScheduled = false;
+            drain();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void replicate(CheckoutJournal.Entry entry) throws Exception {
+        Map<String, Object> saleData = entry.saleData();
+        Integer saleId = entry.saleId();
+        Map<String, Object> intent = entry.payment();
+
+        if (saleId == null) {
+            Map<String, Object> body = entry.sale();
+            if (embedPayments && intent != null) {
+                body = new HashMap<>(body);
+                body.put("payment", intent);
+            }
+
+            String resp;
+            try {
+                resp = client.post("/api/secure/sales", body, entry.key());
+            } catch (Exception e) {
+                if (HttpStatusException.statusOf(e) != 409) throw e;
+                alreadyRecorded(entry, intent);
+                return;
+            }
+            if (!client.isResponseSuccessful(resp)) {
+                fail(entry, client.getResponseMessage(resp));
+                return;
+            }
+            Map<String, Object> result = client.parseResponse(resp);
+            saleData = result.get("data") instanceof Map ? new HashMap<>((Map<String, Object>) result.get("data")) : result;
+            saleId = toInteger(saleData.get("saleId") != null ? saleData.get("saleId") : saleData.get("id"));
+            if (saleId == null) {
+                journal.markDone(entry.key());
+                synced(entry, saleData, "Sale created but server did not return sale id; cannot record payment automatically.");
+                return;
+            }
+
+            // Sale and payment recorded in one request: the response is the final state, nothing to read back.
+            // Whether or not the answer echoes the payment, posting it again could record it twice.
+            if (embedPayments && intent != null) {
+                journal.markDone(entry.key());
+                synced(entry, saleData, isCash(intent)
+                        ? "Sale and payment recorded successfully (Sale ID: " + saleId + ")."
+                        : "Sale recorded as CREDIT (Sale ID: " + saleId + ").");
+                return;
+            }
+            journal.markPosted(entry.key(), saleId, saleData);
+        }
+
+        String message = "Sale recorded (Sale ID: " + saleId + ").";
+        if (intent != null) {
+            Map<String, Object> payment = new HashMap<>(intent);
+            payment.put("saleId", saleId);
+            // Pay what the server charged, not what the till computed
+            Double total = toDouble(saleData.get("totalAmount") != null ? saleData.get("totalAmount") : saleData.get("total"));
+            if (total != null) payment.put("amount", total);
+
+            boolean cash = isCash(payment);
+            try {
+                String payResp = client.post("/api/secure/payments", payment, entry.key() + "-payment");
+                if (client.isResponseSuccessful(payResp)) {
+                    if (cash) {
+                        message = "Sale and payment recorded successfully (Sale ID: " + saleId + ").";
+                        saleData = new HashMap<>(saleData);
+                        saleData.put("paymentStatus", "PAID");
+                    }
+                } else if (cash) {
+                    fail(entry, "Sale created (ID: " + saleId + ") but payment failed: " + client.getResponseMessage(payResp));
+                    return;
+                }
+            } catch (Exception e) {
+                if (HttpStatusException.statusOf(e) == 409) {
+                    // Replay of a payment the server already recorded
+                    if (cash) {
+                        message = "Sale and payment recorded successfully (Sale ID: " + saleId + ").";
+                        saleData = new HashMap<>(saleData);
+                        saleData.put("paymentStatus", "PAID");
+                    }
+                } else if (cash) {
+                    throw e;
+                }
+                // The credit marker payment is best effort, as it always was
+            }
+        }
+
+        journal.markDone(entry.key());
+        synced(entry, saleData, message);
+    }
+
+    // 409 on the sale: the server already has it, but did not say under which id
+    private void alreadyRecorded(CheckoutJournal.Entry entry, Map<String, Object> intent) throws Exception {
+        if (intent != null && isCash(intent) && !embedPayments) {
+            // Its payment goes in a separate request that needs the sale id; whether it was made is unknown
+            review(entry, "The server already has this sale; check in the sales history whether its cash payment was recorded.");
+            return;
+        }
+        journal.markDone(entry.key());
+        // No sale data: listeners reload the history instead of adding a row
+        synced(entry, new HashMap<>(), "Sale " + entry.reference() + " was already recorded on the server.");
+    }
+
+    private void review(CheckoutJournal.Entry entry, String message) {
+        try {
+            journal.markForReview(entry.key(), message);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        for (Listener listener : listeners) {
+            SwingUtilities.invokeLater(() -> listener.checkoutNeedsReview(entry, message));
+        }
+    }
+
+    private static boolean isCash(Map<String, Object> payment) {
+        return "CASH".equalsIgnoreCase(Objects.toString(payment.get("paymentMethod"), ""));
+    }
+
+    private void fail(CheckoutJournal.Entry entry, String message) {
+        try {
+            journal.markFailed(entry.key(), message);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        for (Listener listener : listeners) {
+            SwingUtilities.invokeLater(() -> listener.checkoutFailed(entry, message));
+        }
+    }
+
+    private void synced(CheckoutJournal.Entry entry, Map<String, Object> saleData, String message) {
+        for (Listener listener : listeners) {
+            SwingUtilities.invokeLater(() -> listener.checkoutSynced(entry, saleData, message));
+        }
+    }
+
+    private void notifyPending() {
+        int count = journal.pendingCount();
+        for (Listener listener : listeners) {
+            SwingUtilities.invokeLater(() -> listener.pendingChanged(count));
+        }
+    }
+
+    private static Integer toInteger(Object o) {
+        if (o instanceof Number) return ((Number) o).intValue();
+        try {
+            return o != null ? Integer.parseInt(o.toString()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double toDouble(Object o) {
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        try {
+            return o != null ? Double.parseDouble(o.toString()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Undoes the Content-Encoding of responses; the JDK HttpClient does not.
+ * - gzip and deflate (zlib-wrapped, or raw deflate as some servers send it); anything else is passed through
+ * - {@link #ofString()} inflates a whole body, {@link #decode(InputStream, HttpHeaders)} wraps a stream so
+ *   streamed list decoding inflates as it reads
+ */
+public final class ContentDecoding {
+
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private ContentDecoding() {
+    }
+
+    // Drop-in for BodyHandlers.ofString() that also decompresses
+    public static HttpResponse.BodyHandler<String> ofString() {
+        return info -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+            if (bytes.length == 0) return "";
+            try (InputStream in = decode(new ByteArrayInputStream(bytes), info.headers())) {
+                return new String(in.readAllBytes(), charsetOf(info.headers()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not decompress response: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    public static InputStream decode(InputStream in, HttpHeaders headers) throws IOException {
+        String encoding = headers.firstValue("Content-Encoding").orElse("").trim().toLowerCase();
+        if (!encoding.equals("gzip") && !encoding.equals("x-gzip") && !encoding.equals("deflate")) {
+            return in;
+        }
+
+        // Empty bodies (304, 204) may still carry the header but have no compressed stream to read
+        BufferedInputStream buffered = new BufferedInputStream(in, 8192);
+        buffered.mark(2);
+        if (buffered.read() < 0) return buffered;
+        buffered.reset();
+
+        return encoding.equals("deflate") ? inflate(buffered) : new GZIPInputStream(buffered, 8192);
+    }
+
+    // "deflate" should be zlib-wrapped (RFC 1950), but raw deflate streams are common; tell them apart by the header
+    private static InputStream inflate(BufferedInputStream buffered) throws IOException {
+        buffered.mark(2);
+        int b0 = buffered.read();
+        int b1 = buffered.read();
+        buffered.reset();
+        boolean zlib = b0 >= 0 && b1 >= 0 && (b0 & 0x0F) == 8 && ((b0 << 8) | b1) % 31 == 0;
+        return new InflaterInputStream(buffered, new Inflater(!zlib), 8192);
+    }
+
+    private static Charset charsetOf(HttpHeaders headers) {
+        String type = headers.firstValue("Content-Type").orElse("");
+        int at = type.toLowerCase().indexOf("charset=");
+        if (at >= 0) {
+            String name = type.substring(at + 8).split(";")[0].trim().replace("\"", "");
+            try {
+                return Charset.forName(name);
+            } catch (Exception ignored) {
+                // fall back to UTF-8, the JSON default
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
@@ -0,0 +1,318 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local store of the daily report rows, so range reports are computed on the client.
+ * - One entry per (report, day), kept as columns: the row key (product / cashier id) in an int[],
+ *   every metric in its own double[]
+ * - Only days missing from the store are fetched; consecutive missing days go in one range request,
+ *   so moving a week window forward by a day costs one day's fetch
+ * - Past days are kept (LRU, reports.cacheDays per report); today is refetched after reports.todayTtlSeconds
+ * - Totals and per-product / per-cashier rollups over a range are summed in memory
+ * - Ranges longer than reports.cacheDays are loaded and read a chunk at a time, so a chunk is never
+ *   evicted before it is read
+ *
+ * Loading methods hit the network and must be called off the EDT.
+ */
+public class DailySummaryStore {
+
+    public enum Report {
+        DAILY("/api/secure/reports/daily", null,
+                "totalSales", "totalProfit", "paidSales", "creditSales", "totalTransactions"),
+        PRODUCTS("/api/secure/reports/products", "productId",
+                "quantitySold", "revenue", "profit"),
+        CASHIERS("/api/secure/reports/cashiers", "cashierId",
+                "totalSales", "paidSales", "creditSales", "totalTransactions");
+
+        private final String endpoint;
+        private final String keyField;
+        private final String[] metrics;
+
+        Report(String endpoint, String keyField, String... metrics) {
+            this.endpoint = endpoint;
+            this.keyField = keyField;
+            this.metrics = metrics;
+        }
+
+        public String[] metrics() {
+            return metrics.clone();
+        }
+    }
+
+    // Rows of one report for one day
+    private static final class Day {
+        private final int[] keys;
+        private final double[][] metrics; // [metric][row]
+        private final long loadedAt;
+
+        Day(int[] keys, double[][] metrics, long loadedAt) {
+            this.keys = keys;
+            this.metrics = metrics;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+    // Longest range asked for again day by day when its range answer has rows without a date
+    private static final int DAY_BY_DAY_LIMIT = 31;
+
+    private static DailySummaryStore instance;
+
+    private final BaseClient client;
+    private final int maxDays;
+    private final long todayTtlMs;
+    private final Map<Report, LinkedHashMap<LocalDate, Day>> days = new HashMap<>();
+
+    private DailySummaryStore() {
+        this.client = BaseClient.getInstance();
+        AppConfig config = AppConfig.getInstance();
+        this.maxDays = Math.max(1, config.getInt("reports.cacheDays", 400));
+        this.todayTtlMs = config.getLong("reports.todayTtlSeconds", 60) * 1000;
+        for (Report report : Report.values()) {
+            days.put(report, new LinkedHashMap<LocalDate, Day>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<LocalDate, Day> eldest) {
+                    return size() > maxDays;
+                }
+            });
+        }
+    }
+
+    private interface DayVisitor {
+        void visit(LocalDate date, Day day);
+    }
+
+    public static synchronized DailySummaryStore getInstance() {
+        if (instance == null) {
+            instance = new DailySummaryStore();
+        }
+        return instance;
+    }
+
+    // Days kept per report; callers reading a longer range day by day should go chunk by chunk
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    // Forget everything, e.g. after an explicit refresh or a backdated return
+    public synchronized void invalidate() {
+        for (LinkedHashMap<LocalDate, Day> byDay : days.values()) {
+            byDay.clear();
+        }
+    }
+
+    // ---------- Queries (blocking, call off the EDT) ----------
+    /**
+     * One row per day that has data, oldest first, with the report's fields and "saleDate".
+     * For PRODUCTS / CASHIERS a day has one row per product / cashier.
+     */
+    public List<Map<String, Object>> rows(Report report, LocalDate from, LocalDate to) throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        forEachDay(report, from, to, (date, day) -> {
+            for (int r = 0; r < day.keys.length; r++) {
+                rows.add(toRow(report, day.keys[r], day.metrics, r, date.format(DATE)));
+            }
+        });
+        return rows;
+    }
+
+    /**
+     * PRODUCTS / CASHIERS summed per product / cashier over the range, in order of first appearance.
+     * "saleDate" is the day for a one-day range and absent otherwise.
+     */
+    public List<Map<String, Object>> rollup(Report report, LocalDate from, LocalDate to) throws Exception {
+        if (report.keyField == null) throw new IllegalArgumentException(report + " has no per-key rows");
+
+        int width = report.metrics.length;
+        LinkedHashMap<Integer, double[]> sums = new LinkedHashMap<>();
+        forEachDay(report, from, to, (date, day) -> {
+            for (int r = 0; r < day.keys.length; r++) {
+                double[] sum = sums.computeIfAbsent(day.keys[r], k -> new double[width]);
+                for (int m = 0; m < width; m++) {
+                    sum[m] += day.metrics[m][r];
+                }
+            }
+        });
+
+        String saleDate = from.equals(to) ? from.format(DATE) : null;
+        List<Map<String, Object>> rows = new ArrayList<>(sums.size());
+        for (Map.Entry<Integer, double[]> entry : sums.entrySet()) {
+            double[][] columns = new double[width][];
+            for (int m = 0; m < width; m++) {
+                columns[m] = new double[] { entry.getValue()[m] };
+            }
+            rows.add(toRow(report, entry.getKey(), columns, 0, saleDate));
+        }
+        return rows;
+    }
+
+    /**
+     * Sum of every metric over the range, plus "days" (days with data) and "<metric>PerDay" averages.
+     */
+    public Map<String, Double> totals(Report report, LocalDate from, LocalDate to) throws Exception {
+        double[] sum = new double[report.metrics.length];
+        int[] withData = new int[1];
+        forEachDay(report, from, to, (date, day) -> {
+            if (day.keys.length == 0) return;
+            withData[0]++;
+            for (int m = 0; m < sum.length; m++) {
+                for (double value : day.metrics[m]) sum[m] += value;
+            }
+        });
+
+        Map<String, Double> totals = new LinkedHashMap<>();
+        totals.put("days", (double) withData[0]);
+        for (int m = 0; m < sum.length; m++) {
+            totals.put(report.metrics[m], sum[m]);
+            totals.put(report.metrics[m] + "PerDay", withData[0] > 0 ? sum[m] / withData[0] : 0.0);
+        }
+        return totals;
+    }
+
+    // Loads and visits the stored days of the range, oldest first, at most maxDays at a time
+    private void forEachDay(Report report, LocalDate from, LocalDate to, DayVisitor visitor) throws Exception {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from is after to");
+        for (LocalDate chunkFrom = from; !chunkFrom.isAfter(to); chunkFrom = chunkFrom.plusDays(maxDays)) {
+            LocalDate chunkTo = chunkFrom.plusDays(maxDays - 1L).isAfter(to) ? to : chunkFrom.plusDays(maxDays - 1L);
+            ensureLoaded(report, chunkFrom, chunkTo);
+            synchronized (this) {
+                for (LocalDate date = chunkFrom; !date.isAfter(chunkTo); date = date.plusDays(1)) {
+                    Day day = days.get(report).get(date);
+                    if (day != null) visitor.visit(date, day);
+                }
+            }
+        }
+    }
+
+    // ---------- Loading ----------
+
+    private void ensureLoaded(Report report, LocalDate from, LocalDate to) throws Exception {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from is after to");
+
+        // Runs of consecutive days that are missing or stale
+        List<LocalDate[]> runs = new ArrayList<>();
+        synchronized (this) {
+            LocalDate runStart = null;
+            for (LocalDate date = from; !date.isAfter(to.plusDays(1)); date = date.plusDays(1)) {
+                boolean missing = !date.isAfter(to) && !isFresh(days.get(report).get(date), date);
+                if (missing && runStart == null) runStart = date;
+                if (!missing && runStart != null) {
+                    runs.add(new LocalDate[] { runStart, date.minusDays(1) });
+                    runStart = null;
+                }
+            }
+        }
+
+        for (LocalDate[] run : runs) {
+            fetch(report, run[0], run[1]);
+        }
+    }
+
+    private boolean isFresh(Day day, LocalDate date) {
+        if (day == null) return false;
+        // Past days are final; today's figures still move
+        return date.isBefore(LocalDate.now()) || System.currentTimeMillis() - day.loadedAt < todayTtlMs;
+    }
+
+    private void fetch(Report report, LocalDate from, LocalDate to) throws Exception {
+        String endpoint = from.equals(to)
+                ? report.endpoint + "?date=" + from.format(DATE)
+                : report.endpoint + "/range?from=" + from.format(DATE) + "&to=" + to.format(DATE);
+        List<Map<String, Object>> fetched = client.parseResponseList(client.get(endpoint));
+
+        Map<LocalDate, List<Map<String, Object>>> byDay = new HashMap<>();
+        boolean undated = false;
+        for (Map<String, Object> row : fetched) {
+            if (!hasReportFields(report, row)) continue; // e.g. an envelope without data
+            LocalDate date = from.equals(to) ? from : dateOf(row);
+            if (date == null) {
+                undated = true;
+                break;
+            }
+            byDay.computeIfAbsent(date, d -> new ArrayList<>()).add(row);
+        }
+
+        if (undated) {
+            // Rows of a range answer that cannot be put on a day; ask day by day instead, for short ranges only
+            long length = to.toEpochDay() - from.toEpochDay() + 1;
+            if (length > DAY_BY_DAY_LIMIT) {
+                throw new Exception("The " + report.name().toLowerCase() + " report for " + from.format(DATE) + " to "
+                        + to.format(DATE) + " came back without dates; choose a range of " + DAY_BY_DAY_LIMIT
+                        + " days or fewer");
+            }
+            for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+                fetch(report, d, d);
+            }
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                // A day without rows is stored empty, so it is not asked for again
+                days.get(report).put(date, toDay(report, byDay.getOrDefault(date, List.of()), now));
+            }
+        }
+    }
+
+    private static Day toDay(Report report, List<Map<String, Object>> rows, long loadedAt) {
+        int[] keys = new int[rows.size()];
+        double[][] metrics = new double[report.metrics.length][rows.size()];
+        for (int r = 0; r < rows.size(); r++) {
+            Map<String, Object> row = rows.get(r);
+            keys[r] = report.keyField != null ? (int) toDouble(row.get(report.keyField)) : 0;
+            for (int m = 0; m < report.metrics.length; m++) {
+                metrics[m][r] = toDouble(row.get(report.metrics[m]));
+            }
+        }
+        return new Day(keys, metrics, loadedAt);
+    }
+
+    private static Map<String, Object> toRow(Report report, int key, double[][] metrics, int r, String saleDate) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        if (report.keyField != null) row.put(report.keyField, key);
+        if (saleDate != null) row.put("saleDate", saleDate);
+        for (int m = 0; m < report.metrics.length; m++) {
+            String name = report.metrics[m];
+            double value = metrics[m][r];
+            // Counts stay integers, as the server sends them
+            row.put(name, name.equals("quantitySold") || name.equals("totalTransactions") ? (Object) (int) Math.round(value) : (Object) value);
+        }
+        return row;
+    }
+
+    private static boolean hasReportFields(Report report, Map<String, Object> row) {
+        if (report.keyField != null && row.containsKey(report.keyField)) return true;
+        for (String metric : report.metrics) {
+            if (row.containsKey(metric)) return true;
+        }
+        return false;
+    }
+
+    private static LocalDate dateOf(Map<String, Object> row) {
+        Object value = row.get("saleDate") != null ? row.get("saleDate") : row.get("date");
+        if (value == null) return null;
+        String text = value.toString();
+        try {
+            return LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text, DATE);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static double toDouble(Object o) {
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        try {
+            return o != null ? Double.parseDouble(o.toString()) : 0.0;
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+}
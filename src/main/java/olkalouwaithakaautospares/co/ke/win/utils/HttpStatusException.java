@@ -0,0 +1,27 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+/**
+ * Error status (4xx / 5xx) returned by the server. BaseClient wraps it, so look for it in the cause chain
+ * with {@link #statusOf(Throwable)}.
+ */
+public class HttpStatusException extends Exception {
+
+    private final int statusCode;
+
+    public HttpStatusException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    // HTTP status of the first HttpStatusException in the cause chain, or -1 (e.g. connection errors)
+    public static int statusOf(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusException) return ((HttpStatusException) t).getStatusCode();
+        }
+        return -1;
+    }
+}
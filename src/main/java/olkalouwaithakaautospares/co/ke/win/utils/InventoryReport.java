@@ -0,0 +1,220 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import olkalouwaithakaautospares.co.ke.win.models.Product;
+import olkalouwaithakaautospares.co.ke.win.models.StockBatch;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inventory valuation report: stock, value, low-stock, per-brand and per-condition breakdowns.
+ * - compute() makes one pass over the batches (stock, value and condition totals together) and one over
+ *   the products (low stock, brand counts from the pre-decoded brand ids)
+ * - The result is plain data: summary() and sections() feed the text, PDF and CSV renderings alike
+ *
+ * compute() does not touch Swing; run it off the EDT on snapshots of the panel's lists.
+ */
+public class InventoryReport {
+
+    /**
+     * One titled table of the report; the text rendering uses {@code lineFormat} per row.
+     */
+    public static final class Section {
+        private final String title;
+        private final String[] columns;
+        private final String lineFormat;
+        private final List<Object[]> rows;
+
+        Section(String title, String[] columns, String lineFormat, List<Object[]> rows) {
+            this.title = title;
+            this.columns = columns;
+            this.lineFormat = lineFormat;
+            this.rows = rows;
+        }
+
+        public String title() {
+            return title;
+        }
+
+        public String[] columns() {
+            return columns.clone();
+        }
+
+        public List<Object[]> rows() {
+            return rows;
+        }
+    }
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final int categories;
+    private final int brands;
+    private final int conditions;
+    private final int products;
+    private final int batches;
+    private final double totalStockValue;
+    private final int lowStockProducts;
+    private final List<Object[]> reorderRows;   // product, in stock, reorder level
+    private final List<Object[]> brandRows;     // brand, compatible products
+    private final List<Object[]> conditionRows; // condition, units, value
+    private final LocalDateTime generatedAt;
+
+    private InventoryReport(int categories, int brands, int conditions, int products, int batches,
+                            double totalStockValue, int lowStockProducts, List<Object[]> reorderRows,
+                            List<Object[]> brandRows, List<Object[]> conditionRows) {
+        this.categories = categories;
+        this.brands = brands;
+        this.conditions = conditions;
+        this.products = products;
+        this.batches = batches;
+        this.totalStockValue = totalStockValue;
+        this.lowStockProducts = lowStockProducts;
+        this.reorderRows = reorderRows;
+        this.brandRows = brandRows;
+        this.conditionRows = conditionRows;
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    // ---------- Computation ----------
+    /**
+     * Builds the report. {@code brandNames} and {@code conditionNames} give the rows of those breakdowns in
+     * their iteration order; the category / brand / condition totals are the sizes of the panel's lists.
+     */
+    public static InventoryReport compute(Collection<Product> productList, Collection<StockBatch> batchList,
+                                          Map<Integer, String> brandNames, Map<Integer, String> conditionNames,
+                                          int categoryCount, int brandCount, int conditionCount) {
+        // Batches: stock and value per product, units and value per condition
+        StockLevels levels = new StockLevels(productList.size());
+        Map<Integer, double[]> byCondition = new HashMap<>(); // [units, value]
+        for (StockBatch batch : batchList) {
+            double value = batch.stockValue();
+            levels.add(batch.productId(), batch.quantityRemaining(), value);
+            if (batch.conditionId() != null) {
+                double[] totals = byCondition.computeIfAbsent(batch.conditionId(), id -> new double[2]);
+                totals[0] += batch.quantityRemaining();
+                totals[1] += value;
+            }
+        }
+
+        // Products: valuation, low stock, brand compatibility
+        double totalValue = 0.0;
+        int lowStock = 0;
+        List<Object[]> reorder = new ArrayList<>();
+        Map<Integer, Integer> perBrand = new HashMap<>();
+        for (Product product : productList) {
+            int stock = levels.stockOf(product.id());
+            totalValue += levels.valueOf(product.id());
+            if (stock <= product.reorderLevel()) {
+                if (stock > 0) lowStock++;
+                reorder.add(new Object[] {product.name() != null ? product.name() : "", stock, product.reorderLevel()});
+            }
+
+            for (int brandId : product.compatibleBrandIds()) {
+                perBrand.merge(brandId, 1, Integer::sum);
+            }
+        }
+
+        List<Object[]> brandRows = new ArrayList<>(brandNames.size());
+        for (Map.Entry<Integer, String> brand : brandNames.entrySet()) {
+            brandRows.add(new Object[] {brand.getValue(), perBrand.getOrDefault(brand.getKey(), 0)});
+        }
+
+        List<Object[]> conditionRows = new ArrayList<>();
+        for (Map.Entry<Integer, String> condition : conditionNames.entrySet()) {
+            double[] totals = byCondition.get(condition.getKey());
+            if (totals != null && totals[0] > 0) {
+                conditionRows.add(new Object[] {condition.getValue(), (int) totals[0], totals[1]});
+            }
+        }
+
+        return new InventoryReport(categoryCount, brandCount, conditionCount, productList.size(), batchList.size(),
+                totalValue, lowStock, reorder, brandRows, conditionRows);
+    }
+
+    // ---------- Results ----------
+    public double getTotalStockValue() {
+        return totalStockValue;
+    }
+
+    // Products with 0 < stock <= reorder level
+    public int getLowStockProducts() {
+        return lowStockProducts;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public Map<String, String> summary() {
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("Total Categories", String.valueOf(categories));
+        summary.put("Total Vehicle Brands", String.valueOf(brands));
+        summary.put("Total Stock Conditions", String.valueOf(conditions));
+        summary.put("Total Products", String.valueOf(products));
+        summary.put("Total Stock Batches", String.valueOf(batches));
+        summary.put("Total Stock Value", String.format("ksh %,.2f", totalStockValue));
+        summary.put("Products Low on Stock", String.valueOf(lowStockProducts));
+        return summary;
+    }
+
+    public List<Section> sections() {
+        return List.of(
+                new Section("Low Stock Warnings", new String[] {"Product", "In Stock", "Reorder At"},
+                        "⚠ %s: %d in stock (Reorder at: %d)", reorderRows),
+                new Section("Products per Vehicle Brand", new String[] {"Brand", "Compatible Products"},
+                        "%s: %d compatible products", brandRows),
+                new Section("Stock by Condition", new String[] {"Condition", "Units", "Value"},
+                        "%s: %d units worth ksh %,.2f", conditionRows));
+    }
+
+    // ---------- Renderings ----------
+    public String toText() {
+        StringBuilder report = new StringBuilder();
+        report.append("INVENTORY REPORT - OL KALOU WAITHAKA AUTO SPARES\n");
+        report.append("=================================================\n\n");
+
+        report.append("SUMMARY\n");
+        report.append("-------\n");
+        for (Map.Entry<String, String> entry : summary().entrySet()) {
+            report.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+
+        for (Section section : sections()) {
+            String title = section.title.toUpperCase();
+            report.append('\n').append(title).append('\n').append("-".repeat(title.length())).append('\n');
+            for (Object[] row : section.rows) {
+                report.append(String.format(section.lineFormat, row)).append('\n');
+            }
+        }
+
+        report.append("\nReport Generated: ").append(generatedAt.format(STAMP));
+        return report.toString();
+    }
+
+    public List<PdfReportRenderer.Table> toPdfTables() {
+        List<PdfReportRenderer.Table> tables = new ArrayList<>();
+        for (Section section : sections()) {
+            List<Object[]> rows = new ArrayList<>(section.rows.size());
+            for (Object[] row : section.rows) {
+                Object[] cells = row.clone();
+                for (int c = 0; c < cells.length; c++) {
+                    // Doubles are the stock values; money is shown as text like the other PDF tables
+                    if (cells[c] instanceof Double) cells[c] = String.format("ksh %,.2f", (Double) cells[c]);
+                }
+                rows.add(cells);
+            }
+            float[] widths = new float[section.columns.length];
+            Arrays.fill(widths, 1.2f);
+            widths[0] = 4f;
+            tables.add(new PdfReportRenderer.Table(section.title, section.columns, widths, rows));
+        }
+        return tables;
+    }
+}
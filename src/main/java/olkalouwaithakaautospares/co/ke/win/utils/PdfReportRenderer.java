@@ -0,0 +1,480 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.ColumnText;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfPageEventHelper;
+import com.lowagie.text.pdf.PdfTemplate;
+import com.lowagie.text.pdf.PdfWriter;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Renders reports to PDF locally with OpenPDF, so end-of-day reports print without the server's email round-trip.
+ * - Daily, range, inventory and receipt documents; anything else goes through render() with its own tables
+ * - Fonts are created once and shared by every document; the letterhead / page footer is one page event
+ * - Pages go to disk as they fill (large tables are added in chunks), written as "name.part" and
+ *   moved into place when complete
+ * - Cancel by interrupting the rendering thread (SwingWorker.cancel(true)); the partial file is deleted
+ *
+ * Blocking, and the report methods hit the network; run it off the EDT.
+ */
+public class PdfReportRenderer {
+
+    /**
+     * One table of a document. Rows are read once, so they may be produced lazily.
+     */
+    public static final class Table {
+        private final String title;
+        private final String[] columns;
+        private final float[] widths;
+        private final Iterable<Object[]> rows;
+
+        // widths are relative, one per column; null for equal columns
+        public Table(String title, String[] columns, float[] widths, Iterable<Object[]> rows) {
+            this.title = title;
+            this.columns = columns;
+            this.widths = widths;
+            this.rows = rows;
+        }
+    }
+
+    // Rows added to a PdfPTable before it is handed to the document, so finished pages can be written out
+    private static final int ROWS_PER_CHUNK = 200;
+    private static final float RECEIPT_WIDTH = 227f; // 80 mm roll
+    private static final Color HEADER_FILL = new Color(236, 239, 241);
+    private static final Color RULE = new Color(189, 189, 189);
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd MMM yyyy");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static PdfReportRenderer instance;
+
+    private final BaseFont regular;
+    private final BaseFont bold;
+    private final Font titleFont;
+    private final Font headingFont;
+    private final Font bodyFont;
+    private final Font bodyBoldFont;
+    private final Font smallFont;
+    private final String shopName;
+    private final String shopDetails;
+
+    private PdfReportRenderer() throws Exception {
+        this.regular = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        this.bold = BaseFont.createFont(BaseFont.HELVETICA_BOLD, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        this.titleFont = new Font(bold, 15, Font.NORMAL, new Color(30, 33, 57));
+        this.headingFont = new Font(bold, 11, Font.NORMAL, new Color(55, 71, 79));
+        this.bodyFont = new Font(regular, 9, Font.NORMAL, Color.BLACK);
+        this.bodyBoldFont = new Font(bold, 9, Font.NORMAL, Color.BLACK);
+        this.smallFont = new Font(regular, 7, Font.NORMAL, Color.DARK_GRAY);
+
+        AppConfig config = AppConfig.getInstance();
+        this.shopName = config.getString("pdf.shopName", "OL KALOU WAITHAKA AUTO SPARES");
+        this.shopDetails = config.getString("pdf.shopDetails", "");
+    }
+
+    public static synchronized PdfReportRenderer getInstance() throws Exception {
+        if (instance == null) {
+            instance = new PdfReportRenderer();
+        }
+        return instance;
+    }
+
+    // ---------- Documents ----------
+    /**
+     * Totals, products and cashiers of one day, from the local report store.
+     */
+    public void renderDaily(LocalDate day, Map<Integer, String> productNames, Map<Integer, String> cashierNames,
+                            Path file) throws Exception {
+        DailySummaryStore reports = DailySummaryStore.getInstance();
+        Map<String, Double> totals = reports.totals(DailySummaryStore.Report.DAILY, day, day);
+
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("Total Sales", money(totals.get("totalSales")));
+        summary.put("Total Profit", money(totals.get("totalProfit")));
+        summary.put("Paid Sales", money(totals.get("paidSales")));
+        summary.put("Credit Sales", money(totals.get("creditSales")));
+        summary.put("Transactions", count(totals.get("totalTransactions")));
+
+        List<Table> tables = new ArrayList<>();
+        tables.add(productTable(reports.rollup(DailySummaryStore.Report.PRODUCTS, day, day), productNames));
+        tables.add(cashierTable(reports.rollup(DailySummaryStore.Report.CASHIERS, day, day), cashierNames));
+
+        render("Daily Report", day.format(DISPLAY_DATE), summary, tables, file);
+    }
+
+    /**
+     * Range totals and daily averages, one line per day, and products / cashiers summed over the range.
+     */
+    public void renderRange(LocalDate from, LocalDate to, Map<Integer, String> productNames,
+                            Map<Integer, String> cashierNames, Path file) throws Exception {
+        DailySummaryStore reports = DailySummaryStore.getInstance();
+        Map<String, Double> totals = reports.totals(DailySummaryStore.Report.DAILY, from, to);
+
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("Days With Sales", count(totals.get("days")));
+        summary.put("Total Sales", money(totals.get("totalSales")));
+        summary.put("Average Sales / Day", money(totals.get("totalSalesPerDay")));
+        summary.put("Total Profit", money(totals.get("totalProfit")));
+        summary.put("Paid Sales", money(totals.get("paidSales")));
+        summary.put("Credit Sales", money(totals.get("creditSales")));
+        summary.put("Transactions", count(totals.get("totalTransactions")));
+
+        List<Object[]> days = new ArrayList<>();
+        for (Map<String, Object> row : reports.rows(DailySummaryStore.Report.DAILY, from, to)) {
+            days.add(new Object[] {
+                    displayDate(Objects.toString(row.get("saleDate"), "")),
+                    money(row.get("totalSales")), money(row.get("totalProfit")),
+                    money(row.get("paidSales")), money(row.get("creditSales")),
+                    count(row.get("totalTransactions"))
+            });
+        }
+
+        List<Table> tables = new ArrayList<>();
+        tables.add(new Table("Daily Breakdown",
+                new String[] {"Date", "Sales", "Profit", "Paid", "Credit", "Transactions"},
+                new float[] {2f, 2f, 2f, 2f, 2f, 1.7f}, days));
+        tables.add(productTable(reports.rollup(DailySummaryStore.Report.PRODUCTS, from, to), productNames));
+        tables.add(cashierTable(reports.rollup(DailySummaryStore.Report.CASHIERS, from, to), cashierNames));
+
+        render("Sales Report", from.format(DISPLAY_DATE) + " - " + to.format(DISPLAY_DATE), summary, tables, file);
+    }
+
+    /**
+     * Inventory summary and breakdowns as computed by the inventory screen.
+     */
+    public void renderInventory(Map<String, String> summary, List<Table> tables, Path file) throws Exception {
+        render("Inventory Report", "Stock on hand", summary, tables, file);
+    }
+
+    /**
+     * Receipt of one sale on an 80 mm page, from GET /api/secure/sales/{id}.
+     */
+    @SuppressWarnings("unchecked")
+    public void renderReceipt(Integer saleId, Map<Integer, String> productNames, Path file) throws Exception {
+        BaseClient client = BaseClient.getInstance();
+        Map<String, Object> sale = client.parseResponse(client.get("/api/secure/sales/" + saleId));
+        if (sale.get("data") instanceof Map) {
+            sale = (Map<String, Object>) sale.get("data");
+        }
+        List<Map<String, Object>> items = sale.get("items") instanceof List
+                ? (List<Map<String, Object>>) sale.get("items") : List.of();
+
+        Map<String, Object> header = sale;
+        write(file, new Rectangle(RECEIPT_WIDTH, PageSize.A4.getHeight()), 10f, false, document -> {
+            Paragraph shop = new Paragraph(shopName, headingFont);
+            shop.setAlignment(Element.ALIGN_CENTER);
+            document.add(shop);
+            if (!shopDetails.isEmpty()) {
+                Paragraph details = new Paragraph(shopDetails, smallFont);
+                details.setAlignment(Element.ALIGN_CENTER);
+                document.add(details);
+            }
+
+            Paragraph meta = new Paragraph(12f);
+            meta.setSpacingBefore(6f);
+            meta.add(new Phrase("Receipt: " + Objects.toString(first(header, "saleNumber", "saleNo"), "#" + saleId) + "\n", bodyBoldFont));
+            meta.add(new Phrase("Date: " + Objects.toString(header.get("saleDate"), "").replace('T', ' ') + "\n", bodyFont));
+            Object customer = header.get("customerName");
+            if (customer != null && !customer.toString().isEmpty()) {
+                meta.add(new Phrase("Customer: " + customer + "\n", bodyFont));
+            }
+            document.add(meta);
+
+            PdfPTable lines = new PdfPTable(new float[] {3.2f, 0.8f, 2f});
+            lines.setWidthPercentage(100);
+            lines.setSpacingBefore(6f);
+            lines.addCell(headerCell("Item", Element.ALIGN_LEFT));
+            lines.addCell(headerCell("Qty", Element.ALIGN_RIGHT));
+            lines.addCell(headerCell("Total", Element.ALIGN_RIGHT));
+            lines.setHeaderRows(1);
+            for (Map<String, Object> item : items) {
+                Integer productId = toInteger(item.get("productId"));
+                String name = Objects.toString(item.get("productName"),
+                        productNames.getOrDefault(productId, "Product #" + productId));
+                double quantity = toDouble(item.get("quantity"));
+                double total = item.get("total") != null ? toDouble(item.get("total"))
+                        : quantity * toDouble(item.get("unitPrice"));
+                lines.addCell(cell(name, Element.ALIGN_LEFT, false));
+                lines.addCell(cell(count(quantity), Element.ALIGN_RIGHT, false));
+                lines.addCell(cell(money(total), Element.ALIGN_RIGHT, false));
+            }
+            lines.addCell(cell("TOTAL", Element.ALIGN_LEFT, true));
+            lines.addCell(cell("", Element.ALIGN_RIGHT, true));
+            lines.addCell(cell(money(first(header, "totalAmount", "total")), Element.ALIGN_RIGHT, true));
+            document.add(lines);
+
+            Paragraph payment = new Paragraph(12f);
+            payment.setSpacingBefore(6f);
+            payment.add(new Phrase("Payment: " + Objects.toString(header.get("paymentMethod"), "-")
+                    + " (" + Objects.toString(header.get("paymentStatus"), "-") + ")\n", bodyFont));
+            document.add(payment);
+
+            Paragraph thanks = new Paragraph("Thank you for your business", smallFont);
+            thanks.setAlignment(Element.ALIGN_CENTER);
+            thanks.setSpacingBefore(8f);
+            document.add(thanks);
+        }, null);
+    }
+
+    /**
+     * A4 document: letterhead, title, a two-column summary, then each table under its title.
+     */
+    public void render(String title, String subtitle, Map<String, String> summary, List<Table> tables,
+                       Path file) throws Exception {
+        write(file, PageSize.A4, 36f, true, document -> {
+            document.add(new Paragraph(title, titleFont));
+            if (subtitle != null && !subtitle.isEmpty()) {
+                document.add(new Paragraph(subtitle, bodyFont));
+            }
+
+            if (summary != null && !summary.isEmpty()) {
+                PdfPTable block = new PdfPTable(new float[] {2f, 3f});
+                block.setWidthPercentage(60);
+                block.setHorizontalAlignment(Element.ALIGN_LEFT);
+                block.setSpacingBefore(10f);
+                for (Map.Entry<String, String> entry : summary.entrySet()) {
+                    block.addCell(cell(entry.getKey(), Element.ALIGN_LEFT, true));
+                    block.addCell(cell(entry.getValue(), Element.ALIGN_RIGHT, false));
+                }
+                document.add(block);
+            }
+
+            for (Table table : tables) {
+                addTable(document, table);
+            }
+        }, title);
+    }
+
+    // ---------- Tables ----------
+    private void addTable(Document document, Table table) throws Exception {
+        Paragraph heading = new Paragraph(table.title, headingFont);
+        heading.setSpacingBefore(14f);
+        heading.setSpacingAfter(4f);
+        document.add(heading);
+
+        PdfPTable pdf = table.widths != null ? new PdfPTable(table.widths) : new PdfPTable(table.columns.length);
+        pdf.setWidthPercentage(100);
+        pdf.setHeaderRows(1);
+        pdf.setComplete(false); // rows are flushed in chunks; the header repeats on every page
+        for (String column : table.columns) {
+            pdf.addCell(headerCell(column, Element.ALIGN_LEFT));
+        }
+
+        int rows = 0;
+        for (Object[] row : table.rows) {
+            if (Thread.interrupted()) throw new InterruptedException("PDF rendering cancelled");
+            for (int c = 0; c < table.columns.length; c++) {
+                Object value = c < row.length ? row[c] : null;
+                pdf.addCell(cell(value == null ? "" : value.toString(),
+                        c > 0 && isNumeric(value) ? Element.ALIGN_RIGHT : Element.ALIGN_LEFT, false));
+            }
+            if (++rows % ROWS_PER_CHUNK == 0) {
+                document.add(pdf);
+            }
+        }
+        if (rows == 0) {
+            PdfPCell none = cell("No data", Element.ALIGN_LEFT, false);
+            none.setColspan(table.columns.length);
+            pdf.addCell(none);
+        }
+        pdf.setComplete(true);
+        document.add(pdf);
+    }
+
+    private Table productTable(List<Map<String, Object>> rows, Map<Integer, String> names) {
+        List<Object[]> lines = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Integer id = toInteger(row.get("productId"));
+            lines.add(new Object[] {
+                    names.getOrDefault(id, "Product #" + id), count(row.get("quantitySold")),
+                    money(row.get("revenue")), money(row.get("profit"))
+            });
+        }
+        return new Table("Products", new String[] {"Product", "Qty Sold", "Revenue", "Profit"},
+                new float[] {4f, 1.2f, 2f, 2f}, lines);
+    }
+
+    private Table cashierTable(List<Map<String, Object>> rows, Map<Integer, String> names) {
+        List<Object[]> lines = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Integer id = toInteger(row.get("cashierId"));
+            lines.add(new Object[] {
+                    names.getOrDefault(id, "Cashier #" + id), money(row.get("totalSales")),
+                    money(row.get("paidSales")), money(row.get("creditSales")), count(row.get("totalTransactions"))
+            });
+        }
+        return new Table("Cashiers", new String[] {"Cashier", "Sales", "Paid", "Credit", "Transactions"},
+                new float[] {3f, 2f, 2f, 2f, 1.7f}, lines);
+    }
+
+    private PdfPCell headerCell(String text, int align) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, bodyBoldFont));
+        cell.setHorizontalAlignment(align);
+        cell.setBackgroundColor(HEADER_FILL);
+        cell.setBorderColor(RULE);
+        cell.setPadding(4f);
+        return cell;
+    }
+
+    private PdfPCell cell(String text, int align, boolean strong) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, strong ? bodyBoldFont : bodyFont));
+        cell.setHorizontalAlignment(align);
+        cell.setBorderColor(RULE);
+        cell.setPadding(3f);
+        return cell;
+    }
+
+    // ---------- File handling ----------
+    private interface Body {
+        void writeTo(Document document) throws Exception;
+    }
+
+    private void write(Path file, Rectangle page, float margin, boolean letterhead, Body body, String title)
+            throws Exception {
+        Path part = file.resolveSibling(file.getFileName() + ".part");
+        boolean complete = false;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+                Document document = new Document(page, margin, margin, letterhead ? margin + 18f : margin,
+                        letterhead ? margin + 12f : margin);
+                PdfWriter writer = PdfWriter.getInstance(document, out);
+                writer.setCloseStream(false);
+                if (letterhead) writer.setPageEvent(new Letterhead());
+                if (title != null) document.addTitle(title);
+                document.addCreator(shopName);
+                document.open();
+                try {
+                    body.writeTo(document);
+                } finally {
+                    document.close();
+                }
+            }
+            try {
+                Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(part, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            complete = true;
+        } finally {
+            if (!complete) Files.deleteIfExists(part);
+        }
+    }
+
+    // Shop name on every page, "Page n of N" and the print time at the bottom
+    private final class Letterhead extends PdfPageEventHelper {
+        private final String printed = "Printed " + LocalDateTime.now().format(STAMP);
+        private PdfTemplate pageCount;
+
+        @Override
+        public void onOpenDocument(PdfWriter writer, Document document) {
+            pageCount = writer.getDirectContent().createTemplate(30f, 10f);
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            PdfContentByte canvas = writer.getDirectContent();
+            float top = document.top() + 14f;
+            ColumnText.showTextAligned(canvas, Element.ALIGN_LEFT, new Phrase(shopName, bodyBoldFont),
+                    document.left(), top, 0f);
+            if (!shopDetails.isEmpty()) {
+                ColumnText.showTextAligned(canvas, Element.ALIGN_RIGHT, new Phrase(shopDetails, smallFont),
+                        document.right(), top, 0f);
+            }
+            canvas.setColorStroke(RULE);
+            canvas.setLineWidth(0.5f);
+            canvas.moveTo(document.left(), top - 4f);
+            canvas.lineTo(document.right(), top - 4f);
+            canvas.stroke();
+
+            float bottom = document.bottom() - 18f;
+            ColumnText.showTextAligned(canvas, Element.ALIGN_LEFT, new Phrase(printed, smallFont),
+                    document.left(), bottom, 0f);
+            String page = "Page " + writer.getPageNumber() + " of ";
+            float pageWidth = regular.getWidthPoint(page, smallFont.getSize());
+            float x = document.right() - 30f - pageWidth;
+            ColumnText.showTextAligned(canvas, Element.ALIGN_LEFT, new Phrase(page, smallFont), x, bottom, 0f);
+            canvas.addTemplate(pageCount, x + pageWidth, bottom);
+        }
+
+        @Override
+        public void onCloseDocument(PdfWriter writer, Document document) {
+            pageCount.beginText();
+            pageCount.setFontAndSize(regular, smallFont.getSize());
+            pageCount.setTextMatrix(0f, 0f);
+            pageCount.showText(String.valueOf(writer.getPageNumber() - 1));
+            pageCount.endText();
+        }
+    }
+
+    // ---------- Helpers ----------
+    private static Object first(Map<String, Object> map, String key, String alias) {
+        return map.get(key) != null ? map.get(key) : map.get(alias);
+    }
+
+    private static boolean isNumeric(Object value) {
+        if (value instanceof Number) return true;
+        if (value == null) return false;
+        String text = value.toString();
+        return text.startsWith("ksh ") || text.matches("-?[\\d,]+(\\.\\d+)?");
+    }
+
+    private static String money(Object value) {
+        return String.format("ksh %,.2f", toDouble(value));
+    }
+
+    private static String count(Object value) {
+        double d = toDouble(value);
+        return d == Math.rint(d) ? String.format("%,d", (long) d) : String.format("%,.2f", d);
+    }
+
+    private static String displayDate(String iso) {
+        try {
+            return LocalDate.parse(iso.length() > 10 ? iso.substring(0, 10) : iso, DATE).format(DISPLAY_DATE);
+        } catch (Exception e) {
+            return iso;
+        }
+    }
+
+    private static Integer toInteger(Object o) {
+        if (o instanceof Number) return ((Number) o).intValue();
+        try {
+            return o != null ? Integer.parseInt(o.toString()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static double toDouble(Object o) {
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        try {
+            return o != null ? Double.parseDouble(o.toString()) : 0.0;
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+}
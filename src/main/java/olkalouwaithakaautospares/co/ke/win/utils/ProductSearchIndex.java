@@ -0,0 +1,393 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import olkalouwaithakaautospares.co.ke.win.models.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search index over the product catalog, used by the POS search box.
+ * - Words from name, SKU, description, category and compatible brands go into a sorted token map
+ * - Each token points at a bitset of product slots; a query word matches every token it prefixes,
+ *   and multi-word queries AND the per-word results together
+ * - Prices live in a sorted array for range ("1000-2000"), comparison (">500", "<=300") and exact lookups
+ * - A reverse brand index (brand id -> bitset of slots) answers "parts for Toyota" with a bitset AND
+ * - Products can be added, replaced or removed without rebuilding the whole index
+ *
+ * Results keep the order of the catalog last given to sync() / rebuild(); products added since by
+ * upsert() alone come last. All methods are synchronized.
+ */
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SPLIT = Pattern.compile("[^\\p{L}\\p{N}.]+");
+    private static final Pattern PRICE_RANGE = Pattern.compile("^(\\d+(?:\\.\\d+)?)\\s*-\\s*(\\d+(?:\\.\\d+)?)$");
+    private static final Pattern PRICE_COMPARE = Pattern.compile("^(>=|<=|>|<)\\s*(\\d+(?:\\.\\d+)?)$");
+    private static final Pattern PRICE_EXACT = Pattern.compile("^\\d+(?:\\.\\d+)?$");
+
+    private final TreeMap<String, BitSet> postings = new TreeMap<>();
+    private final Map<Integer, BitSet> brandPostings = new HashMap<>();
+    // slot -> product; a removed product leaves a null slot until the next rebuild
+    private final List<Product> slots = new ArrayList<>();
+    private final List<String[]> slotTokens = new ArrayList<>();
+    private final List<String> slotBrands = new ArrayList<>();
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    // product id -> position in the catalog; results are re-sorted by it once slots stop following the catalog
+    private final Map<Integer, Integer> catalogPosition = new HashMap<>();
+    private boolean slotsInCatalogOrder = true;
+
+    private Map<Integer, String> categoryNames = Collections.emptyMap();
+    private Map<Integer, String> brandNames = Collections.emptyMap();
+    private List<Product> source = Collections.emptyList();
+
+    private double[] sortedPrices = new double[0];
+    private int[] sortedSlots = new int[0];
+    private boolean pricesDirty = false;
+
+    // ---------- Maintenance ----------
+    /**
+     * Brings the index in line with the given catalog. Only products that were added, changed or removed
+     * since the last call are re-indexed; a change in category or brand names triggers a full rebuild.
+     */
+    public synchronized void sync(List<Product> products, Map<Integer, String> categories, Map<Integer, String> brands) {
+        if (categories != categoryNames || brands != brandNames || slots.size() > 2 * slotById.size() + 64) {
+            rebuild(products, categories, brands);
+            return;
+        }
+        if (products == source) return;
+
+        Set<Integer> seen = new HashSet<>();
+        for (Product product : products) {
+            seen.add(product.id());
+            Integer slot = slotById.get(product.id());
+            if (slot == null || !product.equals(slots.get(slot))) {
+                upsert(product);
+            }
+        }
+        for (Integer id : new ArrayList<>(slotById.keySet())) {
+            if (!seen.contains(id)) remove(id);
+        }
+        source = products;
+        indexCatalogOrder(products);
+    }
+
+    public synchronized void rebuild(List<Product> products, Map<Integer, String> categories, Map<Integer, String> brands) {
+        clear();
+        this.categoryNames = categories != null ? categories : Collections.emptyMap();
+        this.brandNames = brands != null ? brands : Collections.emptyMap();
+        for (Product product : products) {
+            upsert(product);
+        }
+        source = products;
+        indexCatalogOrder(products);
+    }
+
+    public synchronized void upsert(Product product) {
+        if (product == null) return;
+
+        Integer slot = slotById.get(product.id());
+        if (slot == null) {
+            slot = slots.size();
+            slots.add(null);
+            slotTokens.add(new String[0]);
+            slotBrands.add("");
+            slotById.put(product.id(), slot);
+        } else {
+            unindex(slot);
+        }
+
+        String brands = joinBrandNames(product.compatibleBrandIds());
+        String category = product.categoryId() != null ? categoryNames.getOrDefault(product.categoryId(), "") : "";
+
+        Set<String> tokens = new HashSet<>();
+        addTokens(tokens, product.name());
+        addTokens(tokens, product.sku());
+        addTokens(tokens, product.description());
+        addTokens(tokens, category);
+        addTokens(tokens, brands);
+        tokens.add(String.format(Locale.ROOT, "%.2f", product.minimumSellingPrice()));
+
+        int at = slot;
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, k -> new BitSet()).set(at);
+        }
+        for (int brandId : product.compatibleBrandIds()) {
+            brandPostings.computeIfAbsent(brandId, k -> new BitSet()).set(at);
+        }
+        slots.set(slot, product);
+        slotTokens.set(slot, tokens.toArray(new String[0]));
+        slotBrands.set(slot, brands);
+        pricesDirty = true;
+    }
+
+    public synchronized void remove(int productId) {
+        Integer slot = slotById.remove(productId);
+        if (slot == null) return;
+        unindex(slot);
+        slots.set(slot, null);
+        slotTokens.set(slot, new String[0]);
+        slotBrands.set(slot, "");
+        pricesDirty = true;
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        brandPostings.clear();
+        slots.clear();
+        slotTokens.clear();
+        slotBrands.clear();
+        slotById.clear();
+        catalogPosition.clear();
+        slotsInCatalogOrder = true;
+        categoryNames = Collections.emptyMap();
+        brandNames = Collections.emptyMap();
+        source = Collections.emptyList();
+        sortedPrices = new double[0];
+        sortedSlots = new int[0];
+        pricesDirty = false;
+    }
+
+    // New products of an incremental sync get new slots at the end, out of catalog order
+    private void indexCatalogOrder(List<Product> products) {
+        catalogPosition.clear();
+        int previous = -1;
+        boolean ordered = true;
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            catalogPosition.put(product.id(), i);
+            Integer slot = slotById.get(product.id());
+            if (slot == null) continue;
+            if (slot < previous) ordered = false;
+            previous = slot;
+        }
+        slotsInCatalogOrder = ordered;
+    }
+
+    private void unindex(int slot) {
+        for (String token : slotTokens.get(slot)) {
+            BitSet bits = postings.get(token);
+            if (bits == null) continue;
+            bits.clear(slot);
+            if (bits.isEmpty()) postings.remove(token);
+        }
+        Product indexed = slots.get(slot);
+        if (indexed == null) return;
+        for (int brandId : indexed.compatibleBrandIds()) {
+            BitSet bits = brandPostings.get(brandId);
+            if (bits == null) continue;
+            bits.clear(slot);
+            if (bits.isEmpty()) brandPostings.remove(brandId);
+        }
+    }
+
+    // ---------- Queries ----------
+    /**
+     * Products matching the query. Every word must prefix a word of the name, SKU, description,
+     * category, brands or formatted price; price expressions additionally match on the price itself.
+     * A blank query returns the whole catalog.
+     */
+    public synchronized List<Product> search(String query) {
+        return search(query, null);
+    }
+
+    /**
+     * As {@link #search(String)}, limited to products compatible with the brand (all brands when null).
+     */
+    public synchronized List<Product> search(String query, Integer brandId) {
+        String q = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+        BitSet hits = null;
+        if (!q.isEmpty()) {
+            hits = matchWords(q);
+            BitSet priceHits = matchPrice(q);
+            if (priceHits != null) hits.or(priceHits);
+        }
+        if (brandId != null) {
+            BitSet compatible = brandPostings.get(brandId);
+            if (compatible == null) return new ArrayList<>();
+            if (hits == null) {
+                hits = (BitSet) compatible.clone();
+            } else {
+                hits.and(compatible);
+            }
+        }
+        return collect(hits);
+    }
+
+    // Number of indexed products compatible with the brand
+    public synchronized int countCompatible(int brandId) {
+        BitSet compatible = brandPostings.get(brandId);
+        return compatible != null ? compatible.cardinality() : 0;
+    }
+
+    // Comma-separated names of the vehicle brands a product is compatible with
+    public synchronized String brandLabel(int productId) {
+        Integer slot = slotById.get(productId);
+        return slot != null ? slotBrands.get(slot) : "";
+    }
+
+    public synchronized int size() {
+        return slotById.size();
+    }
+
+    private BitSet matchWords(String q) {
+        List<String> words = new ArrayList<>();
+        addTokens(words, q);
+
+        BitSet result = null;
+        for (String word : words) {
+            BitSet any = new BitSet();
+            for (BitSet bits : postings.subMap(word, true, word + Character.MAX_VALUE, true).values()) {
+                any.or(bits);
+            }
+            if (result == null) {
+                result = any;
+            } else {
+                result.and(any);
+            }
+            if (result.isEmpty()) break;
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    // Returns null when the query is not a price expression
+    private BitSet matchPrice(String q) {
+        String clean = q.replace("ksh", "").replace(",", "").trim();
+        if (clean.isEmpty()) return null;
+
+        try {
+            Matcher range = PRICE_RANGE.matcher(clean);
+            if (range.matches()) {
+                double min = Double.parseDouble(range.group(1));
+                double max = Double.parseDouble(range.group(2));
+                return priceSlots(lowerBound(min), upperBound(max));
+            }
+
+            Matcher compare = PRICE_COMPARE.matcher(clean);
+            if (compare.matches()) {
+                double value = Double.parseDouble(compare.group(2));
+                switch (compare.group(1)) {
+                    case ">": return priceSlots(upperBound(value), sortedPrices.length);
+                    case ">=": return priceSlots(lowerBound(value), sortedPrices.length);
+                    case "<": return priceSlots(0, lowerBound(value));
+                    default: return priceSlots(0, upperBound(value));
+                }
+            }
+
+            if (PRICE_EXACT.matcher(clean).matches()) {
+                // Allow small rounding difference
+                double value = Double.parseDouble(clean);
+                return priceSlots(upperBound(value - 0.01), lowerBound(value + 0.01));
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through to a plain word search
+        }
+        return null;
+    }
+
+    private BitSet priceSlots(int from, int to) {
+        BitSet bits = new BitSet();
+        for (int i = from; i < to; i++) {
+            bits.set(sortedSlots[i]);
+        }
+        return bits;
+    }
+
+    // First index whose price is >= value
+    private int lowerBound(double value) {
+        ensurePrices();
+        int lo = 0, hi = sortedPrices.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedPrices[mid] < value) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // First index whose price is > value
+    private int upperBound(double value) {
+        ensurePrices();
+        int lo = 0, hi = sortedPrices.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedPrices[mid] <= value) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private void ensurePrices() {
+        if (!pricesDirty) return;
+
+        Integer[] order = new Integer[slotById.size()];
+        int n = 0;
+        for (int slot = 0; slot < slots.size(); slot++) {
+            if (slots.get(slot) != null) order[n++] = slot;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(slot -> slots.get(slot).minimumSellingPrice()));
+
+        sortedPrices = new double[n];
+        sortedSlots = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedSlots[i] = order[i];
+            sortedPrices[i] = slots.get(order[i]).minimumSellingPrice();
+        }
+        pricesDirty = false;
+    }
+
+    private List<Product> collect(BitSet hits) {
+        List<Product> result = new ArrayList<>();
+        if (hits == null) {
+            for (Product product : slots) {
+                if (product != null) result.add(product);
+            }
+        } else {
+            for (int slot = hits.nextSetBit(0); slot >= 0; slot = hits.nextSetBit(slot + 1)) {
+                Product product = slots.get(slot);
+                if (product != null) result.add(product);
+            }
+        }
+        if (!slotsInCatalogOrder) {
+            result.sort(Comparator.comparingInt(product -> catalogPosition.getOrDefault(product.id(), Integer.MAX_VALUE)));
+        }
+        return result;
+    }
+
+    // ---------- Helpers ----------
+    private static void addTokens(Collection<String> into, String text) {
+        if (text == null || text.isEmpty()) return;
+        for (String raw : TOKEN_SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            String token = stripDots(raw);
+            if (!token.isEmpty()) into.add(token);
+        }
+    }
+
+    private static String stripDots(String token) {
+        int start = 0, end = token.length();
+        while (start < end && token.charAt(start) == '.') start++;
+        while (end > start && token.charAt(end - 1) == '.') end--;
+        return token.substring(start, end);
+    }
+
+    private String joinBrandNames(int[] brandIds) {
+        StringBuilder names = new StringBuilder();
+        for (int brandId : brandIds) {
+            String brandName = brandNames.get(brandId);
+            if (brandName != null) {
+                if (names.length() > 0) names.append(", ");
+                names.append(brandName);
+            }
+        }
+        return names.toString();
+    }
+}
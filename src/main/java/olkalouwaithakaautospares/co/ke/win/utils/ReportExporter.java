@@ -0,0 +1,376 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import olkalouwaithakaautospares.co.ke.win.models.Sale;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes report rows and sales ranges to CSV or XLSX (picked by the file extension) without building the file
+ * in memory.
+ * - Rows go through a 64 KB buffer straight into a FileChannel; XLSX is a zip whose sheet is streamed row by row
+ * - The file is written as "name.part" and moved into place only when complete
+ * - Sales are read a page at a time, so a year of sales needs one page in memory
+ * - Cancel by interrupting the exporting thread (SwingWorker.cancel(true)): the export stops with
+ *   an InterruptedException and the partial file is deleted
+ *
+ * Blocking; run it off the EDT.
+ */
+public class ReportExporter {
+
+    public interface Progress {
+        // Called from the exporting thread after every batch of rows
+        void rowsWritten(long rows);
+    }
+
+    private static final int SALES_PAGE_SIZE = 500;
+    private static final int PROGRESS_EVERY = 250;
+
+    private final BaseClient client;
+    private final ObjectMapper mapper;
+    private final DailySummaryStore reports;
+
+    public ReportExporter() {
+        this.client = BaseClient.getInstance();
+        this.mapper = client.getMapper();
+        this.reports = DailySummaryStore.getInstance();
+    }
+
+    // ---------- Exports ----------
+    /**
+     * One row per day (DAILY) or per day and product / cashier, oldest first. {@code names} labels the
+     * product / cashier ids and may be empty. Returns the number of data rows.
+     */
+    public long exportReport(DailySummaryStore.Report report, LocalDate from, LocalDate to,
+                             Map<Integer, String> names, Path file, Progress progress) throws Exception {
+        String keyField = report == DailySummaryStore.Report.PRODUCTS ? "productId"
+                : report == DailySummaryStore.Report.CASHIERS ? "cashierId" : null;
+        String keyLabel = report == DailySummaryStore.Report.PRODUCTS ? "Product" : "Cashier";
+        String[] metrics = report.metrics();
+
+        // A chunk of at most maxDays days is loaded (one request for its missing days) and written before the
+        // next one, so the report store never evicts days that are still to be written
+        int chunkDays = reports.getMaxDays();
+
+        return write(file, progress, out -> {
+            List<Object> header = new ArrayList<>();
+            header.add("Date");
+            if (keyField != null) {
+                header.add(keyLabel + " ID");
+                header.add(keyLabel);
+            }
+            for (String metric : metrics) header.add(label(metric));
+            out.row(header.toArray());
+
+            for (LocalDate chunkFrom = from; !chunkFrom.isAfter(to); chunkFrom = chunkFrom.plusDays(chunkDays)) {
+                LocalDate chunkTo = chunkFrom.plusDays(chunkDays - 1L).isAfter(to) ? to : chunkFrom.plusDays(chunkDays - 1L);
+                for (Map<String, Object> row : reports.rows(report, chunkFrom, chunkTo)) {
+                    Object[] cells = new Object[header.size()];
+                    int c = 0;
+                    cells[c++] = row.get("saleDate");
+                    if (keyField != null) {
+                        Object id = row.get(keyField);
+                        cells[c++] = id;
+                        cells[c++] = names.getOrDefault(id instanceof Number ? ((Number) id).intValue() : null, "");
+                    }
+                    for (String metric : metrics) cells[c++] = row.get(metric);
+                    out.row(cells);
+                }
+            }
+        });
+    }
+
+    /**
+     * Every sale dated from..to, page by page. Returns the number of sales written.
+     */
+    public long exportSales(LocalDate from, LocalDate to, Path file, Progress progress) throws Exception {
+        return write(file, progress, out -> {
+            out.row("Sale ID", "Sale No", "Date", "Customer", "Phone", "Payment Method", "Payment Status", "Total");
+
+            Integer previousFirstId = null;
+            for (int page = 0; ; page++) {
+                String resp = client.get("/api/secure/sales?from=" + from + "&to=" + to
+                        + "&page=" + page + "&size=" + SALES_PAGE_SIZE);
+                JsonNode root = mapper.readTree(resp);
+                JsonNode items = salesOf(root);
+                if (items == null || items.size() == 0) break;
+
+                Sale first = mapper.treeToValue(items.get(0), Sale.class);
+                if (first.id() != null && first.id().equals(previousFirstId)) break; // server ignores paging
+                previousFirstId = first.id();
+
+                for (JsonNode item : items) {
+                    Sale sale = mapper.treeToValue(item, Sale.class);
+                    if (!inRange(sale.saleDate(), from, to)) continue; // server may ignore from/to
+                    out.row(sale.id(), sale.saleNumber(), sale.saleDate(), sale.customerName(), sale.customerPhone(),
+                            sale.paymentMethod(), sale.paymentStatus(), sale.totalAmount());
+                }
+
+                JsonNode page0 = root.has("content") ? root : root.path("data");
+                if (page0.path("last").asBoolean(false) || items.size() < SALES_PAGE_SIZE) break;
+            }
+        });
+    }
+
+    /**
+     * The inventory report as one sheet: the summary, then each breakdown under its title.
+     */
+    public long exportInventory(InventoryReport report, Path file, Progress progress) throws Exception {
+        return write(file, progress, out -> {
+            out.row("Summary", "Value");
+            for (Map.Entry<String, String> entry : report.summary().entrySet()) {
+                out.row(entry.getKey(), entry.getValue());
+            }
+            for (InventoryReport.Section section : report.sections()) {
+                out.row();
+                out.row(section.title());
+                out.row((Object[]) section.columns());
+                for (Object[] row : section.rows()) {
+                    out.row(row);
+                }
+            }
+        });
+    }
+
+    // Bare array, {data: [...]}, Spring page {content: [...]} or {data: {content: [...]}}
+    private static JsonNode salesOf(JsonNode root) {
+        if (root.isArray()) return root;
+        if (root.path("content").isArray()) return root.get("content");
+        JsonNode data = root.path("data");
+        if (data.isArray()) return data;
+        if (data.path("content").isArray()) return data.get("content");
+        return null;
+    }
+
+    private static boolean inRange(String saleDate, LocalDate from, LocalDate to) {
+        if (saleDate == null || saleDate.length() < 10) return true;
+        String day = saleDate.substring(0, 10);
+        return day.compareTo(from.toString()) >= 0 && day.compareTo(to.toString()) <= 0;
+    }
+
+    private static String label(String field) {
+        StringBuilder label = new StringBuilder();
+        for (char ch : field.toCharArray()) {
+            if (label.length() == 0) label.append(Character.toUpperCase(ch));
+            else if (Character.isUpperCase(ch)) label.append(' ').append(ch);
+            else label.append(ch);
+        }
+        return label.toString();
+    }
+
+    // ---------- File handling ----------
+    private interface Body {
+        void writeTo(RowWriter out) throws Exception;
+    }
+
+    private long write(Path file, Progress progress, Body body) throws Exception {
+        Path part = file.resolveSibling(file.getFileName() + ".part");
+        boolean complete = false;
+        try {
+            RowWriter out;
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                out = file.getFileName().toString().toLowerCase().endsWith(".xlsx")
+                        ? new XlsxWriter(Channels.newOutputStream(channel))
+                        : new CsvWriter(Channels.newOutputStream(channel));
+                out.progress = progress;
+                body.writeTo(out);
+                out.finish(); // flushes without closing the channel
+                channel.force(true);
+            }
+            try {
+                Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(part, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            complete = true;
+            if (progress != null) progress.rowsWritten(out.rows);
+            return out.rows;
+        } catch (java.nio.channels.ClosedByInterruptException e) {
+            throw new InterruptedException("Export cancelled");
+        } finally {
+            if (!complete) Files.deleteIfExists(part);
+        }
+    }
+
+    /**
+     * Sink for one table; the first row written is the header.
+     */
+    public abstract static class RowWriter {
+        private Progress progress;
+        private long rows = -1; // the header is not counted
+
+        public void row(Object... cells) throws IOException, InterruptedException {
+            if (Thread.interrupted()) throw new InterruptedException("Export cancelled");
+            writeRow(cells);
+            rows++;
+            if (progress != null && rows > 0 && rows % PROGRESS_EVERY == 0) progress.rowsWritten(rows);
+        }
+
+        protected abstract void writeRow(Object[] cells) throws IOException;
+
+        // Writes any trailer and flushes everything buffered to the stream
+        protected abstract void finish() throws IOException;
+
+        // Plain decimal text: no exponent, no trailing zeros, no grouping
+        protected static String number(Number value) {
+            if (value instanceof Double || value instanceof Float) {
+                double d = value.doubleValue();
+                if (Double.isNaN(d) || Double.isInfinite(d)) return "";
+                return BigDecimal.valueOf(d).stripTrailingZeros().toPlainString();
+            }
+            return value.toString();
+        }
+    }
+
+    // RFC 4180, UTF-8 with BOM so Excel picks the encoding
+    private static final class CsvWriter extends RowWriter {
+        // Text that only looks like a signed amount or a phone number ("-1,250.00", "+254 712 345678")
+        // cannot carry a formula, so it is written as is
+        private static final Pattern PLAIN_NUMBER = Pattern.compile("[+-]?\\d[\\d,]*(\\.\\d+)?");
+        private static final Pattern PHONE_NUMBER = Pattern.compile("\\+\\d[\\d ()-]{5,}");
+
+        private final Writer out;
+
+        CsvWriter(OutputStream stream) throws IOException {
+            this.out = new BufferedWriter(new java.io.OutputStreamWriter(stream, StandardCharsets.UTF_8), 64 * 1024);
+            out.write('\uFEFF');
+        }
+
+        @Override
+        protected void writeRow(Object[] cells) throws IOException {
+            for (int i = 0; i < cells.length; i++) {
+                if (i > 0) out.write(',');
+                Object cell = cells[i];
+                if (cell == null) continue;
+                if (cell instanceof Number) {
+                    out.write(number((Number) cell));
+                    continue;
+                }
+                String text = cell.toString();
+                // A name like "=1+1" must not run as a formula in a spreadsheet
+                if (isFormulaLike(text)) text = "'" + text;
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    text = '"' + text.replace("\"", "\"\"") + '"';
+                }
+                out.write(text);
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            out.flush();
+        }
+
+        private static boolean isFormulaLike(String text) {
+            if (text.isEmpty() || "=+-@".indexOf(text.charAt(0)) < 0) return false;
+            return !PLAIN_NUMBER.matcher(text).matches() && !PHONE_NUMBER.matcher(text).matches();
+        }
+    }
+
+    // Minimal SpreadsheetML workbook with one sheet of inline strings and numbers
+    private static final class XlsxWriter extends RowWriter {
+        private final ZipOutputStream zip;
+        private final Writer sheet;
+
+        XlsxWriter(OutputStream stream) throws IOException {
+            this.zip = new ZipOutputStream(new java.io.BufferedOutputStream(stream, 64 * 1024));
+            entry("[Content_Types].xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                    + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                    + "</Types>");
+            entry("_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            entry("xl/workbook.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                    + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"Report\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+            entry("xl/_rels/workbook.xml.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                    + "</Relationships>");
+
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            this.sheet = new BufferedWriter(new java.io.OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+            sheet.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+        }
+
+        private void entry(String name, String xml) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(xml.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        @Override
+        protected void writeRow(Object[] cells) throws IOException {
+            sheet.write("<row>");
+            for (Object cell : cells) {
+                if (cell == null) {
+                    sheet.write("<c/>");
+                } else if (cell instanceof Number && !number((Number) cell).isEmpty()) {
+                    sheet.write("<c><v>");
+                    sheet.write(number((Number) cell));
+                    sheet.write("</v></c>");
+                } else {
+                    sheet.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                    sheet.write(escape(Objects.toString(cell)));
+                    sheet.write("</t></is></c>");
+                }
+            }
+            sheet.write("</row>");
+        }
+
+        private static String escape(String text) {
+            StringBuilder out = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.charAt(i);
+                switch (ch) {
+                    case '&': out.append("&amp;"); break;
+                    case '<': out.append("&lt;"); break;
+                    case '>': out.append("&gt;"); break;
+                    case '"': out.append("&quot;"); break;
+                    default:
+                        // Control characters other than tab / newline are not allowed in XML 1.0
+                        if (ch >= 0x20 || ch == '\t' || ch == '\n' || ch == '\r') out.append(ch);
+                }
+            }
+            return out.toString();
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            sheet.write("</sheetData></worksheet>");
+            sheet.flush();
+            zip.closeEntry();
+            zip.finish();
+            zip.flush();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded LRU cache of GET responses that carried an ETag or Last-Modified validator.
+ * - BaseClient revalidates cached endpoints with If-None-Match / If-Modified-Since
+ * - On 304 Not Modified the cached body, and any list already decoded from it, is reused
+ * - Bounded by entry count and by total body size; least recently used entries go first
+ */
+public class ResponseCache {
+
+    public interface Decoder<T> {
+        List<T> decode(String json) throws Exception;
+    }
+
+    /**
+     * One cached response. Decoded lists are kept per record type and are read-only.
+     */
+    public static class Entry {
+        private final String body;
+        private final String etag;
+        private final String lastModified;
+        private final Map<Class<?>, List<?>> decoded = new ConcurrentHashMap<>();
+
+        public Entry(String body, String etag, String lastModified) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public String body() {
+            return body;
+        }
+
+        public String etag() {
+            return etag;
+        }
+
+        public String lastModified() {
+            return lastModified;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> List<T> listOf(Class<T> type, Decoder<T> decoder) throws Exception {
+            List<?> cached = decoded.get(type);
+            if (cached == null) {
+                cached = Collections.unmodifiableList(decoder.decode(body));
+                decoded.put(type, cached);
+            }
+            return (List<T>) cached;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxBodyChars;
+    private long bodyChars = 0L;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ResponseCache(int maxEntries, long maxBodyChars) {
+        this.maxEntries = maxEntries;
+        this.maxBodyChars = maxBodyChars;
+    }
+
+    public synchronized Entry get(String endpoint) {
+        return entries.get(endpoint);
+    }
+
+    public synchronized void put(String endpoint, Entry entry) {
+        // A single response larger than the whole budget is not worth keeping
+        if (entry.body().length() > maxBodyChars) {
+            remove(endpoint);
+            return;
+        }
+
+        Entry previous = entries.put(endpoint, entry);
+        if (previous != null) bodyChars -= previous.body().length();
+        bodyChars += entry.body().length();
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bodyChars > maxBodyChars) && eldest.hasNext()) {
+            Map.Entry<String, Entry> e = eldest.next();
+            if (e.getKey().equals(endpoint)) continue;
+            bodyChars -= e.getValue().body().length();
+            eldest.remove();
+        }
+    }
+
+    public synchronized void remove(String endpoint) {
+        Entry removed = entries.remove(endpoint);
+        if (removed != null) bodyChars -= removed.body().length();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bodyChars = 0L;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
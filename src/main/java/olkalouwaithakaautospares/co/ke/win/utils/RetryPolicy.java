@@ -0,0 +1,92 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How often BaseClient retries a request that failed for a transient reason.
+ * - Transient: connection errors and timeouts (IOException), 429, 502, 503 and 504
+ * - Delays grow exponentially from the base delay up to the max delay, with full jitter
+ *   so clients that failed together do not retry together
+ * - A write may have been applied even though its response was lost, and nothing guarantees the server
+ *   deduplicates on Idempotency-Key; so writes get forWrites(), which retries only failures to connect
+ */
+public class RetryPolicy {
+
+    // Single attempt, e.g. for interactive calls whose errors should surface at once
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0L, 0L);
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final boolean connectFailuresOnly;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this(maxAttempts, baseDelayMs, maxDelayMs, false);
+    }
+
+    private RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs, boolean connectFailuresOnly) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(0L, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.connectFailuresOnly = connectFailuresOnly;
+    }
+
+    // Same attempts and delays, but only requests that never reached the server are sent again
+    public RetryPolicy forWrites() {
+        return connectFailuresOnly ? this : new RetryPolicy(maxAttempts, baseDelayMs, maxDelayMs, true);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseDelayMs() {
+        return baseDelayMs;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    // True when a request that failed with the error on the given attempt (1-based) should be sent again
+    public boolean shouldRetry(Throwable error, int attempt) {
+        return attempt < maxAttempts && (connectFailuresOnly ? isConnectFailure(error) : isTransient(error));
+    }
+
+    // Delay before the attempt after the given one: random between 0 and min(max, base * 2^(attempt-1))
+    public long backoffMs(int attempt) {
+        long ceiling = baseDelayMs << Math.min(attempt - 1, 20);
+        ceiling = Math.min(maxDelayMs, ceiling);
+        return ceiling <= 0 ? 0L : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public static boolean isTransientStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    // The connection could not be opened, so the request was never sent
+    public static boolean isConnectFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpConnectTimeoutException || t instanceof ConnectException
+                    || t instanceof UnknownHostException) return true;
+        }
+        return false;
+    }
+
+    public static boolean isTransient(Throwable error) {
+        int status = HttpStatusException.statusOf(error);
+        if (status != -1) return isTransientStatus(status);
+
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof JsonProcessingException) return false; // bad JSON stays bad
+            if (t instanceof IOException) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import olkalouwaithakaautospares.co.ke.win.models.StockBatch;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Remaining stock per product, aggregated from stock batches.
+ * - Built in a single pass over the batches (open-addressing int -> int table, no boxing)
+ * - Also tracks the buying-price value of the remaining stock per product
+ * - A created or edited batch can be applied in place without re-reading every batch
+ *
+ * Not thread-safe; build it off the EDT, then only touch it from one thread.
+ */
+public class StockLevels {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private int[] quantities;
+    private double[] values;
+    private int size;
+
+    public StockLevels(int expectedProducts) {
+        allocate(tableSizeFor(Math.max(16, expectedProducts * 2)));
+    }
+
+    public static StockLevels of(Collection<StockBatch> batches) {
+        StockLevels levels = new StockLevels(batches.size());
+        for (StockBatch batch : batches) {
+            levels.add(batch.productId(), batch.quantityRemaining(), batch.stockValue());
+        }
+        return levels;
+    }
+
+    // Units remaining across all batches of the product (0 when it has none)
+    public int stockOf(int productId) {
+        int i = slot(productId);
+        return keys[i] == EMPTY ? 0 : quantities[i];
+    }
+
+    // Buying-price value of the remaining units
+    public double valueOf(int productId) {
+        int i = slot(productId);
+        return keys[i] == EMPTY ? 0.0 : values[i];
+    }
+
+    /**
+     * Replaces the contribution of {@code previous} with that of {@code current}.
+     * Pass null as previous for a new batch.
+     */
+    public void apply(StockBatch previous, StockBatch current) {
+        if (previous != null) {
+            add(previous.productId(), -previous.quantityRemaining(), -previous.stockValue());
+        }
+        if (current != null) {
+            add(current.productId(), current.quantityRemaining(), current.stockValue());
+        }
+    }
+
+    public void add(int productId, int quantity, double value) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int i = slot(productId);
+        if (keys[i] == EMPTY) {
+            keys[i] = productId;
+            size++;
+        }
+        quantities[i] += quantity;
+        values[i] += value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Linear probing from the mixed hash of the key
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int h = key * 0x9E3779B9;
+        int i = (h ^ (h >>> 16)) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldQuantities = quantities;
+        double[] oldValues = values;
+
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int j = slot(oldKeys[i]);
+            keys[j] = oldKeys[i];
+            quantities[j] = oldQuantities[i];
+            values[j] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        quantities = new int[capacity];
+        values = new double[capacity];
+    }
+
+    private static int tableSizeFor(int n) {
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+}
@@ -0,0 +1,159 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import javax.swing.SwingWorker;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Shared, bounded pool for the panels' network work, replacing SwingWorker.execute().
+ * - Three lanes: CHECKOUT (sales counter) before INTERACTIVE (a click waiting for an answer)
+ *   before BACKGROUND (list loads, refreshes, reports); FIFO within a lane
+ * - BACKGROUND may only occupy executor.backgroundThreads of the executor.threads workers,
+ *   so a slow report never leaves the counter without a thread
+ * - SwingWorkers keep their done() / process() on the EDT; cancel(true) on the returned future
+ *   drops a queued task or interrupts a running one
+ */
+public class TaskScheduler {
+
+    public enum Lane { CHECKOUT, INTERACTIVE, BACKGROUND }
+
+    private static final class Task implements Comparable<Task> {
+        private final Lane lane;
+        private final long seq;
+        private final Runnable body;
+        private final Future<?> future;
+
+        Task(Lane lane, long seq, Runnable body, Future<?> future) {
+            this.lane = lane;
+            this.seq = seq;
+            this.body = body;
+            this.future = future;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byLane = lane.compareTo(other.lane);
+            return byLane != 0 ? byLane : Long.compare(seq, other.seq);
+        }
+    }
+
+    private static TaskScheduler instance;
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final int backgroundLimit;
+    // Guarded by this
+    private long nextSeq = 0;
+    private int runningBackground = 0;
+
+    private TaskScheduler() {
+        AppConfig config = AppConfig.getInstance();
+        int threads = Math.max(2, config.getInt("executor.threads", 8));
+        this.backgroundLimit = Math.max(1, Math.min(threads - 1, config.getInt("executor.backgroundThreads", 5)));
+
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(this::workLoop, "task-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    public static synchronized TaskScheduler getInstance() {
+        if (instance == null) {
+            instance = new TaskScheduler();
+        }
+        return instance;
+    }
+
+    // ---------- Submission ----------
+    /**
+     * Runs the worker in the lane instead of on SwingWorker's own pool. Returns the worker, so
+     * {@code submit(lane, worker).cancel(true)} works as with execute().
+     */
+    public <T, V> SwingWorker<T, V> submit(Lane lane, SwingWorker<T, V> worker) {
+        enqueue(lane, worker, worker);
+        return worker;
+    }
+
+    /**
+     * Runs the call in the lane and hands its result (or error) to the callback on the EDT.
+     * Nothing is delivered when the returned future was cancelled.
+     */
+    public <T> Future<T> submit(Lane lane, Callable<T> call, Consumer<? super T> onResult, Consumer<? super Exception> onError) {
+        return submit(lane, new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return call.call();
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    onResult.accept(get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    onError.accept(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+                } catch (InterruptedException | CancellationException e) {
+                    // cancelled while finishing; nobody is waiting for the result
+                }
+            }
+        });
+    }
+
+    // Executor view of a lane, e.g. for CompletableFuture.supplyAsync(..., scheduler.executor(Lane.BACKGROUND))
+    public Executor executor(Lane lane) {
+        return command -> enqueue(lane, command, null);
+    }
+
+    private synchronized void enqueue(Lane lane, Runnable body, Future<?> future) {
+        queue.add(new Task(lane, nextSeq++, body, future));
+        notifyAll();
+    }
+
+    // ---------- Workers ----------
+    private void workLoop() {
+        while (true) {
+            Task task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                task.body.run();
+            } catch (Throwable t) {
+                t.printStackTrace();
+            } finally {
+                Thread.interrupted(); // a cancel(true) must not leak into the next task
+                if (task.lane == Lane.BACKGROUND) {
+                    synchronized (this) {
+                        runningBackground--;
+                        notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    // Highest-priority task that may run now; background tasks wait while their share of threads is in use
+    private synchronized Task take() throws InterruptedException {
+        while (true) {
+            Task head = queue.peek();
+            if (head != null && head.future != null && head.future.isCancelled()) {
+                queue.poll();
+                continue;
+            }
+            if (head != null && (head.lane != Lane.BACKGROUND || runningBackground < backgroundLimit)) {
+                queue.poll();
+                if (head.lane == Lane.BACKGROUND) runningBackground++;
+                return head;
+            }
+            wait();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package olkalouwaithakaautospares.co.ke.win.utils;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * HTTP settings of BaseClient: server, transport, retries and response cache (the http.* keys of {@link AppConfig}).
+ * - Keep-alive and pool size are JDK HttpClient system properties, so they must be applied
+ *   before the first HttpClient is built
+ */
+public class TransportConfig {
+
+    private final String baseUrl;
+    private final HttpClient.Version version;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final long keepAliveSeconds;
+    private final int maxIdleConnections;
+    private final boolean compression;
+    private final RetryPolicy retryPolicy;
+    private final int cacheEntries;
+    private final long cacheBytes;
+
+    private TransportConfig(AppConfig config) {
+        this.baseUrl = config.getString("http.baseUrl", "http://localhost:8080");
+        this.version = "HTTP_1_1".equalsIgnoreCase(config.getString("http.version", "HTTP_2"))
+                ? HttpClient.Version.HTTP_1_1 : HttpClient.Version.HTTP_2;
+        this.connectTimeout = Duration.ofSeconds(config.getLong("http.connectTimeoutSeconds", 10));
+        this.requestTimeout = Duration.ofSeconds(config.getLong("http.requestTimeoutSeconds", 30));
+        this.keepAliveSeconds = config.getLong("http.keepAliveSeconds", 300);
+        this.maxIdleConnections = config.getInt("http.maxIdleConnections", 8);
+        this.compression = config.getBoolean("http.compression", true);
+        this.retryPolicy = new RetryPolicy(config.getInt("http.retry.maxAttempts", 3),
+                config.getLong("http.retry.baseDelayMs", 300), config.getLong("http.retry.maxDelayMs", 3_000));
+        this.cacheEntries = config.getInt("http.cache.maxEntries", 64);
+        this.cacheBytes = config.getLong("http.cache.maxMegabytes", 32) * 1024 * 1024;
+    }
+
+    public static TransportConfig from(AppConfig config) {
+        return new TransportConfig(config);
+    }
+
+    // Sets the JDK's pool properties unless they were given on the command line
+    public void applyPoolSettings() {
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(keepAliveSeconds));
+        }
+        if (System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+            System.setProperty("jdk.httpclient.connectionPoolSize", String.valueOf(maxIdleConnections));
+        }
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public HttpClient.Version getVersion() {
+        return version;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public long getKeepAliveSeconds() {
+        return keepAliveSeconds;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    // Ask for gzip / deflate responses
+    public boolean isCompression() {
+        return compression;
+    }
+
+    // Policy of endpoints without one of their own
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public int getCacheEntries() {
+        return cacheEntries;
+    }
+
+    public long getCacheBytes() {
+        return cacheBytes;
+    }
+}